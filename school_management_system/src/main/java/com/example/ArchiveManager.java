@@ -0,0 +1,321 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moves attendance of closed academic years out of the hot database into one SQLite file per year.
+ * The hot school.db then only grows with the current year, while historical reports ATTACH the
+ * per-year files on demand, and only when the requested date range reaches into them.
+ *
+ * Grades have no date, so an archive keeps a snapshot of the grades and students tables as they
+ * were when the year was closed; the hot copies stay in place because they are still current.
+ * The grade history is filed by term, so the entries of the year's terms move into the archive
+ * like attendance, and history readers attach the archive of an archived term (see archiveOfTerm).
+ *
+ * Every school archives into its own files; the methods without a SchoolDatabase argument act on
+ * the currently selected school.
+ */
+public class ArchiveManager {
+
+    private static final Path ARCHIVE_DIR = Paths.get(System.getProperty("school.archive.dir", "archive"));
+
+    /**
+     * One archived academic year, as recorded in the hot database's archives table.
+     */
+    public record ArchiveInfo(int academicYear, Path file, LocalDate startDate, LocalDate endDate, int attendanceRows) {
+        public boolean overlaps(LocalDate from, LocalDate to) {
+            return !endDate.isBefore(from) && !startDate.isAfter(to);
+        }
+    }
+
+    /**
+     * Lists every archived academic year, oldest first.
+     */
+    public static List<ArchiveInfo> listArchives() {
+        return listArchives(DatabaseManager.current());
+    }
+
+    public static List<ArchiveInfo> listArchives(SchoolDatabase database) {
+        String sql = "SELECT academic_year, file, start_date, end_date, attendance_rows FROM archives ORDER BY academic_year";
+        List<ArchiveInfo> archives = new ArrayList<>();
+
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                archives.add(new ArchiveInfo(
+                    rs.getInt("academic_year"),
+                    Paths.get(rs.getString("file")),
+                    LocalDate.parse(rs.getString("start_date")),
+                    LocalDate.parse(rs.getString("end_date")),
+                    rs.getInt("attendance_rows")));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR listing archives: " + e.getMessage());
+        }
+        return archives;
+    }
+
+    /**
+     * Lists the archives a report over the given range has to read.
+     */
+    public static List<ArchiveInfo> archivesOverlapping(SchoolDatabase database, LocalDate from, LocalDate to) {
+        return listArchives(database).stream().filter(a -> a.overlaps(from, to)).toList();
+    }
+
+    /**
+     * Returns the archive holding the grade history of a term (a label made by SchoolSystem.termOf),
+     * or null if the term's academic year is not archived.
+     */
+    public static ArchiveInfo archiveOfTerm(SchoolDatabase database, String term) {
+        if (term == null || !term.matches("\\d{4}-\\d{2} .*")) {
+            return null;
+        }
+        int academicYear = Integer.parseInt(term.substring(0, 4));
+        return listArchives(database).stream().filter(a -> a.academicYear() == academicYear).findFirst().orElse(null);
+    }
+
+    /**
+     * Attaches an archive file to a connection under the given schema name (outside any transaction).
+     */
+    public static void attach(Connection conn, ArchiveInfo archive, String schema) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("ATTACH DATABASE ? AS " + schema)) {
+            pstmt.setString(1, archive.file().toAbsolutePath().toString());
+            pstmt.execute();
+        }
+    }
+
+    public static void detach(Connection conn, String schema) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DETACH DATABASE " + schema);
+        }
+    }
+
+    /**
+     * Archives every closed academic year that still has attendance in the hot database.
+     */
+    public static CompletableFuture<List<ArchiveInfo>> archiveClosedYears() {
+        return archiveClosedYears(DatabaseManager.current());
+    }
+
+    public static CompletableFuture<List<ArchiveInfo>> archiveClosedYears(SchoolDatabase database) {
+        LocalDate currentYearStart = SchoolSystem.academicYearStart(LocalDate.now());
+        String sql = "SELECT MIN(date) FROM attendance WHERE date < ?";
+        String oldest = null;
+
+        try (Connection conn = database.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, currentYearStart.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    oldest = rs.getString(1);
+                }
+            }
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<List<ArchiveInfo>> all = CompletableFuture.completedFuture(new ArrayList<>());
+        if (oldest == null) {
+            return all;
+        }
+        for (int year = SchoolSystem.academicYearStart(LocalDate.parse(oldest)).getYear(); year < currentYearStart.getYear(); year++) {
+            CompletableFuture<ArchiveInfo> next = archiveAcademicYear(database, year);
+            all = all.thenCombine(next, (list, info) -> {
+                list.add(info);
+                return list;
+            });
+        }
+        return all;
+    }
+
+    /**
+     * Moves one closed academic year (the year starting in {@code startYear}) into its archive file.
+     * Runs as an exclusive task on the writer thread, since ATTACH is not allowed inside a transaction.
+     * Rows are copied before they are deleted, and copies use INSERT OR REPLACE, so an interrupted run
+     * can simply be repeated.
+     */
+    public static CompletableFuture<ArchiveInfo> archiveAcademicYear(int startYear) {
+        return archiveAcademicYear(DatabaseManager.current(), startYear);
+    }
+
+    public static CompletableFuture<ArchiveInfo> archiveAcademicYear(SchoolDatabase database, int startYear) {
+        LocalDate start = LocalDate.of(startYear, SchoolSystem.ACADEMIC_YEAR_START_MONTH, 1);
+        LocalDate end = start.plusYears(1).minusDays(1);
+        if (!end.isBefore(SchoolSystem.academicYearStart(LocalDate.now()))) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Academic year " + startYear + " is not closed yet."));
+        }
+
+        Path directory = database.scopedDirectory(ARCHIVE_DIR);
+        Path file = directory.resolve("school-" + startYear + ".db");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return database.getWriter().submitExclusive(conn -> {
+            attach(conn, new ArchiveInfo(startYear, file, start, end, 0), "archive");
+            try {
+                conn.setAutoCommit(false);
+                int rows = moveYear(conn, database.isAttendancePacked(), start, end);
+                int historyRows = moveGradeHistory(conn, start);
+                recordArchive(conn, startYear, file, start, end, rows);
+                conn.commit();
+                conn.setAutoCommit(true);
+                System.out.println("Archived academic year " + startYear + " (" + rows + " attendance rows, "
+                        + historyRows + " grade history entries) to " + file);
+                return new ArchiveInfo(startYear, file, start, end, rows);
+            } finally {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                detach(conn, "archive");
+            }
+        }).thenApply(info -> {
+            // The in-memory index still holds the moved rows; let it rebuild from the hot data
+            AttendanceIndex.invalidate(database.getId());
+            SchoolBackend.forSchool(database.getId()).reportCache().bump(EnumSet.of(ReportCache.Domain.ATTENDANCE, ReportCache.Domain.GRADES));
+            return info;
+        });
+    }
+
+    private static int moveYear(Connection conn, boolean packed, LocalDate start, LocalDate end) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Same shape as the hot tables, without foreign keys: archived students may since have left
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.attendance (
+                    student_id TEXT NOT NULL,
+                    date TEXT NOT NULL,
+                    status TEXT NOT NULL,
+                    PRIMARY KEY (student_id, date)
+                )""");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.students (
+                    id TEXT PRIMARY KEY,
+                    name TEXT NOT NULL,
+                    grade_level TEXT NOT NULL
+                )""");
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.grades (
+                    student_id TEXT PRIMARY KEY,
+                    math_score INTEGER DEFAULT 0,
+                    science_score INTEGER DEFAULT 0,
+                    social_score INTEGER DEFAULT 0,
+                    english_score INTEGER DEFAULT 0,
+                    kannada_score INTEGER DEFAULT 0
+                )""");
+            stmt.execute("INSERT OR REPLACE INTO archive.students SELECT id, name, grade_level FROM main.students");
+            stmt.execute("""
+                INSERT OR REPLACE INTO archive.grades
+                SELECT student_id, math_score, science_score, social_score, english_score, kannada_score FROM main.grades""");
+        }
+
+        int copied;
+        int deleted;
+        if (packed) {
+            copied = PackedAttendance.copyRange(conn, "archive.attendance", start, end);
+            deleted = PackedAttendance.deleteRange(conn, start, end);
+        } else {
+            try (PreparedStatement pstmt = conn.prepareStatement("""
+                    INSERT OR REPLACE INTO archive.attendance(student_id, date, status)
+                    SELECT student_id, date, status FROM main.attendance WHERE date BETWEEN ? AND ?""")) {
+                pstmt.setString(1, start.toString());
+                pstmt.setString(2, end.toString());
+                copied = pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM main.attendance WHERE date BETWEEN ? AND ?")) {
+                pstmt.setString(1, start.toString());
+                pstmt.setString(2, end.toString());
+                deleted = pstmt.executeUpdate();
+            }
+        }
+        if (deleted != copied) {
+            throw new SQLException("Archive copy mismatch: copied " + copied + " rows but would delete " + deleted);
+        }
+        return copied;
+    }
+
+    /**
+     * Moves the grade history entries of the academic year's terms into the archive. The archive
+     * numbers them itself, in their original order, because the hot table may hand out a deleted
+     * entry's seq again; an entry already copied by an interrupted run is recognized by its content.
+     */
+    private static int moveGradeHistory(Connection conn, LocalDate start) throws SQLException {
+        String firstTerm = SchoolSystem.termOf(start); // e.g. "2024-25 T1"; the year's terms share the part before the space
+        String terms = firstTerm.substring(0, firstTerm.indexOf(' ')) + " *";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS archive.grade_history (
+                    seq INTEGER PRIMARY KEY,
+                    student_id TEXT NOT NULL,
+                    term TEXT NOT NULL,
+                    recorded_at TEXT NOT NULL,
+                    math_score INTEGER NOT NULL,
+                    science_score INTEGER NOT NULL,
+                    social_score INTEGER NOT NULL,
+                    english_score INTEGER NOT NULL,
+                    kannada_score INTEGER NOT NULL
+                )""");
+            stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_grade_history_term ON grade_history(student_id, term, seq)");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO archive.grade_history(student_id, term, recorded_at,
+                    math_score, science_score, social_score, english_score, kannada_score)
+                SELECT student_id, term, recorded_at, math_score, science_score, social_score, english_score, kannada_score
+                FROM main.grade_history g
+                WHERE term GLOB ? AND NOT EXISTS (
+                    SELECT 1 FROM archive.grade_history a
+                    WHERE a.student_id = g.student_id AND a.term = g.term AND a.recorded_at = g.recorded_at
+                        AND a.math_score = g.math_score AND a.science_score = g.science_score
+                        AND a.social_score = g.social_score AND a.english_score = g.english_score
+                        AND a.kannada_score = g.kannada_score)
+                ORDER BY seq""")) {
+            pstmt.setString(1, terms);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM main.grade_history WHERE term GLOB ?")) {
+            pstmt.setString(1, terms);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static void recordArchive(Connection conn, int startYear, Path file, LocalDate start, LocalDate end, int rows)
+            throws SQLException {
+        // A year archived twice (e.g. after late corrections) accumulates its row count
+        String sql = """
+            INSERT INTO archives(academic_year, file, start_date, end_date, attendance_rows, archived_at)
+            VALUES(?, ?, ?, ?, ?, ?)
+            ON CONFLICT(academic_year) DO UPDATE SET
+                attendance_rows = attendance_rows + excluded.attendance_rows,
+                archived_at = excluded.archived_at
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, startYear);
+            pstmt.setString(2, file.toString());
+            pstmt.setString(3, start.toString());
+            pstmt.setString(4, end.toString());
+            pstmt.setInt(5, rows);
+            pstmt.setString(6, LocalDateTime.now().toString());
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example;
+
+import java.time.LocalDate;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Calendar heatmap of attendance, drawn directly on a Canvas: one cell per day, one column per
+ * week (Monday on top), one band per academic year.
+ *
+ * Input is the per-day status counts of one student or of a whole class (see
+ * AttendanceIndex.countByDay). setData turns them into one palette index and one cell position
+ * per day; repaint only walks those primitive arrays with shared Color constants, so a
+ * multi-year class range takes a few thousand fillRect calls and allocates nothing. A day's
+ * color blends green (present), red (absent) and amber (late) by their shares of the records.
+ */
+public class AttendanceHeatmap extends Canvas {
+
+    private static final double CELL = 11;
+    private static final double STEP = CELL + 2;
+    private static final double LABEL_WIDTH = 70;
+    private static final double BAND_HEIGHT = 7 * STEP + 12;
+    private static final int WEEKS = 54; // An academic year touches at most 54 Monday-based weeks
+
+    // Share buckets per status; the palette holds every (absent, late) combination
+    private static final int SHADES = 10;
+    private static final Color NO_RECORD = Color.rgb(225, 225, 225);
+    private static final Color PRESENT = Color.rgb(46, 160, 67);
+    private static final Color ABSENT = Color.rgb(215, 48, 39);
+    private static final Color LATE = Color.rgb(240, 170, 30);
+    private static final Color[] PALETTE = buildPalette();
+
+    private LocalDate from;
+    private int days;
+    // Per day: palette index (0 = nothing recorded) and the top-left corner of its cell
+    private byte[] shades = new byte[0];
+    private float[] cellX = new float[0];
+    private float[] cellY = new float[0];
+    private String[] bandLabels = new String[0];
+    private float[] bandLabelY = new float[0];
+
+    public AttendanceHeatmap() {
+        super(LABEL_WIDTH + WEEKS * STEP, BAND_HEIGHT);
+    }
+
+    private static Color[] buildPalette() {
+        Color[] palette = new Color[1 + (SHADES + 1) * (SHADES + 1)];
+        palette[0] = NO_RECORD;
+        for (int absent = 0; absent <= SHADES; absent++) {
+            for (int late = 0; late <= SHADES - absent; late++) {
+                double a = (double) absent / SHADES;
+                double l = (double) late / SHADES;
+                double p = 1 - a - l;
+                palette[1 + absent * (SHADES + 1) + late] = Color.color(
+                        p * PRESENT.getRed() + a * ABSENT.getRed() + l * LATE.getRed(),
+                        p * PRESENT.getGreen() + a * ABSENT.getGreen() + l * LATE.getGreen(),
+                        p * PRESENT.getBlue() + a * ABSENT.getBlue() + l * LATE.getBlue());
+            }
+        }
+        return palette;
+    }
+
+    /**
+     * Shows the days from {@code from} on: counts[s][d] is the number of students with
+     * AttendanceIndex.STATUSES[s] on day from + d (0 or 1 each for a single student).
+     * Resizes the canvas to fit the range and repaints.
+     */
+    public void setData(LocalDate from, int[][] counts) {
+        this.from = from;
+        this.days = counts[0].length;
+        if (shades.length < days) {
+            shades = new byte[days];
+            cellX = new float[days];
+            cellY = new float[days];
+        }
+
+        LocalDate firstYear = SchoolSystem.academicYearStart(from);
+        int bands = days == 0 ? 1 : SchoolSystem.academicYearStart(from.plusDays(days - 1)).getYear() - firstYear.getYear() + 1;
+        bandLabels = new String[bands];
+        bandLabelY = new float[bands];
+        for (int band = 0; band < bands; band++) {
+            int year = firstYear.getYear() + band;
+            bandLabels[band] = year + "-" + String.format("%02d", (year + 1) % 100);
+            bandLabelY[band] = (float) (band * BAND_HEIGHT + 4 * STEP);
+        }
+
+        // Walk the days once; positions come from the weekday and the week within the band
+        LocalDate day = from;
+        LocalDate bandStart = firstYear;
+        long bandMonday = bandStart.toEpochDay() - (bandStart.getDayOfWeek().getValue() - 1);
+        int band = 0;
+        for (int d = 0; d < days; d++, day = day.plusDays(1)) {
+            if (!day.isBefore(bandStart.plusYears(1))) {
+                bandStart = bandStart.plusYears(1);
+                bandMonday = bandStart.toEpochDay() - (bandStart.getDayOfWeek().getValue() - 1);
+                band++;
+            }
+            int week = (int) ((day.toEpochDay() - bandMonday) / 7);
+            cellX[d] = (float) (LABEL_WIDTH + week * STEP);
+            cellY[d] = (float) (band * BAND_HEIGHT + (day.getDayOfWeek().getValue() - 1) * STEP);
+            shades[d] = shade(counts[0][d], counts[1][d], counts[2][d]);
+        }
+
+        setWidth(LABEL_WIDTH + WEEKS * STEP);
+        setHeight(bands * BAND_HEIGHT);
+        repaint();
+    }
+
+    private static byte shade(int present, int absent, int late) {
+        int total = present + absent + late;
+        if (total == 0) {
+            return 0;
+        }
+        int a = (int) Math.round((double) absent * SHADES / total);
+        int l = Math.min((int) Math.round((double) late * SHADES / total), SHADES - a);
+        return (byte) (1 + a * (SHADES + 1) + l);
+    }
+
+    /**
+     * Draws every cell from the prepared arrays.
+     */
+    public void repaint() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        gc.setFill(Color.DIMGRAY);
+        for (int band = 0; band < bandLabels.length; band++) {
+            gc.fillText(bandLabels[band], 4, bandLabelY[band]);
+        }
+        int current = -1;
+        for (int d = 0; d < days; d++) {
+            int shade = shades[d] & 0xFF;
+            if (shade != current) {
+                gc.setFill(PALETTE[shade]);
+                current = shade;
+            }
+            gc.fillRect(cellX[d], cellY[d], CELL, CELL);
+        }
+    }
+
+    /**
+     * The day whose cell contains the point, or null.
+     */
+    public LocalDate dayAt(double x, double y) {
+        for (int d = 0; d < days; d++) {
+            if (x >= cellX[d] && x < cellX[d] + CELL && y >= cellY[d] && y < cellY[d] + CELL) {
+                return from.plusDays(d);
+            }
+        }
+        return null;
+    }
+
+    public static Color colorOf(String status) {
+        return switch (status) {
+            case "PRESENT" -> PRESENT;
+            case "ABSENT" -> ABSENT;
+            case "LATE" -> LATE;
+            default -> NO_RECORD;
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * Controller for the attendance calendar: one student's days, or a whole grade level's.
+ * The counts come from the shared attendance index (current years; archived years are not in it).
+ */
+public class AttendanceHeatmapController {
+
+    private static final String STUDENT = "Student";
+    private static final String GRADE_LEVEL = "Grade level";
+
+    @FXML private ComboBox<String> modeComboBox;
+    @FXML private ComboBox<String> targetComboBox;
+    @FXML private DatePicker startDatePicker;
+    @FXML private DatePicker endDatePicker;
+    @FXML private Rectangle presentSwatch;
+    @FXML private Rectangle absentSwatch;
+    @FXML private Rectangle lateSwatch;
+    @FXML private Rectangle noRecordSwatch;
+    @FXML private AttendanceHeatmap heatmap;
+    @FXML private Label statusLabel;
+
+    private final SchoolSystem schoolSystem = new SchoolSystem();
+
+    // Student ID -> grade level, loaded once in the background
+    private Map<String, String> gradeLevels = Map.of();
+
+    // What is shown, for the hover details
+    private LocalDate shownFrom;
+    private int[][] shownCounts;
+    private String shownTitle = "";
+
+    @FXML
+    public void initialize() {
+        presentSwatch.setFill(AttendanceHeatmap.colorOf("PRESENT"));
+        absentSwatch.setFill(AttendanceHeatmap.colorOf("ABSENT"));
+        lateSwatch.setFill(AttendanceHeatmap.colorOf("LATE"));
+        noRecordSwatch.setFill(AttendanceHeatmap.colorOf(""));
+
+        modeComboBox.setItems(FXCollections.observableArrayList(STUDENT, GRADE_LEVEL));
+        modeComboBox.getSelectionModel().select(STUDENT);
+        modeComboBox.getSelectionModel().selectedItemProperty().addListener((obs, oldMode, mode) -> fillTargets());
+
+        // Default: the current academic year so far
+        startDatePicker.setValue(SchoolSystem.academicYearStart(LocalDate.now()));
+        endDatePicker.setValue(LocalDate.now());
+
+        heatmap.setOnMouseMoved(e -> showDay(heatmap.dayAt(e.getX(), e.getY())));
+        loadStudents();
+    }
+
+    private void loadStudents() {
+        Task<Map<String, String>> task = new Task<>() {
+            @Override
+            protected Map<String, String> call() {
+                Map<String, String> levels = new TreeMap<>();
+                try (Stream<Student> students = schoolSystem.streamStudents(StudentProjection.basic())) {
+                    students.forEach(s -> levels.put(s.getStudentId(), s.getGradeLevel()));
+                }
+                return levels;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            gradeLevels = task.getValue();
+            fillTargets();
+        });
+        task.setOnFailed(e -> statusLabel.setText("Error loading students: " + task.getException().getMessage()));
+        Thread loader = new Thread(task, "heatmap-student-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void fillTargets() {
+        boolean byStudent = STUDENT.equals(modeComboBox.getValue());
+        targetComboBox.setPromptText(byStudent ? "Student ID" : "Grade level");
+        targetComboBox.setItems(FXCollections.observableArrayList(
+                byStudent ? gradeLevels.keySet() : new TreeSet<>(gradeLevels.values())));
+        targetComboBox.setValue(null);
+    }
+
+    @FXML
+    private void handleShow() {
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        String target = targetComboBox.getValue() == null ? "" : targetComboBox.getValue().trim();
+        boolean byStudent = STUDENT.equals(modeComboBox.getValue());
+
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            new Alert(AlertType.ERROR, "Please select a start date on or before the end date.").showAndWait();
+            return;
+        }
+        List<String> studentIds = new ArrayList<>();
+        if (byStudent) {
+            if (gradeLevels.containsKey(target)) {
+                studentIds.add(target);
+            }
+        } else {
+            gradeLevels.forEach((id, level) -> {
+                if (level.equals(target)) {
+                    studentIds.add(id);
+                }
+            });
+        }
+        if (studentIds.isEmpty()) {
+            statusLabel.setText("Error: No " + (byStudent ? "student with ID '" : "students in grade level '") + target + "'.");
+            return;
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        String title = byStudent ? "Student " + target : "Grade level " + target + " (" + studentIds.size() + " students)";
+        statusLabel.setText("Loading attendance for " + title + "...");
+        Task<int[][]> task = new Task<>() {
+            @Override
+            protected int[][] call() {
+                int[][] counts = new int[AttendanceIndex.STATUSES.length][days];
+                schoolSystem.getAttendanceIndex().countByDay(studentIds, startDate, counts);
+                return counts;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            shownFrom = startDate;
+            shownCounts = task.getValue();
+            shownTitle = title;
+            long start = System.nanoTime();
+            heatmap.setData(startDate, shownCounts);
+            statusLabel.setText(String.format("%s: %d days drawn in %.1f ms.", title, days, (System.nanoTime() - start) / 1e6));
+        });
+        task.setOnFailed(e -> statusLabel.setText("Error loading attendance: " + task.getException().getMessage()));
+        Thread loader = new Thread(task, "heatmap-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void showDay(LocalDate day) {
+        if (day == null || shownCounts == null) {
+            return;
+        }
+        int d = (int) ChronoUnit.DAYS.between(shownFrom, day);
+        statusLabel.setText(String.format("%s, %s %s: %d present, %d absent, %d late", shownTitle,
+                day.getDayOfWeek().toString().substring(0, 3), day, shownCounts[0][d], shownCounts[1][d], shownCounts[2][d]));
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleBack(ActionEvent event) {
+        NavigationManager.switchScene(event, "/com/example/Dashboard.fxml", "School Management System");
+    }
+}
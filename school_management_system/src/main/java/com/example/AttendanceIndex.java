@@ -0,0 +1,426 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory bitmap index over the attendance records (of whichever backend is in use).
+ * Every student gets a dense ordinal and every (date, status) pair gets one bitmap of the
+ * ordinals recorded with that status on that day, so multi-day and multi-status questions
+ * ("absent on every Monday", "late 5+ times and absent on exam day") become a handful of
+ * word-wise AND/OR operations instead of row-by-row SQL.
+ */
+public class AttendanceIndex {
+
+    public static final String[] STATUSES = {"PRESENT", "ABSENT", "LATE"};
+
+    // The index shared by all SchoolSystem instances of a school (built on first use), by school
+    private static final Map<String, AttendanceIndex> shared = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> studentIds = new ArrayList<>();
+    private final BitSet enrolled = new BitSet();
+    // One bitmap per status for every date that has any attendance
+    private final Map<LocalDate, BitSet[]> bitmaps = new HashMap<>();
+
+    // Updates that arrive while the initial load is running are replayed afterwards, in commit order
+    private List<Runnable> pendingUpdates = new ArrayList<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    // =======================================================
+    // --- BUILDING AND INCREMENTAL UPDATES ---
+    // =======================================================
+
+    /**
+     * Returns the current school's shared index, loading it the first time it is requested.
+     */
+    public static AttendanceIndex getShared() {
+        return getShared(SchoolBackend.current());
+    }
+
+    /**
+     * Returns the shared index of the backend's school, loading it from the backend the first time.
+     */
+    public static AttendanceIndex getShared(SchoolBackend backend) {
+        AttendanceIndex index;
+        boolean mustLoad = false;
+        synchronized (AttendanceIndex.class) {
+            index = shared.get(backend.school());
+            if (index == null) {
+                // Published before loading so writes committed during the load are captured
+                index = new AttendanceIndex();
+                shared.put(backend.school(), index);
+                mustLoad = true;
+            }
+        }
+        if (!mustLoad) {
+            index.awaitLoaded();
+            return index;
+        }
+        try {
+            index.load(backend);
+        } catch (IllegalStateException e) {
+            System.err.println("ERROR building attendance index: " + e.getMessage());
+            synchronized (AttendanceIndex.class) {
+                shared.remove(backend.school(), index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drops a school's shared index after a bulk change (e.g. archiving); the next request rebuilds it.
+     */
+    static void invalidate(String school) {
+        synchronized (AttendanceIndex.class) {
+            shared.remove(school);
+        }
+    }
+
+    /**
+     * Forwards a committed attendance write to the school's shared index, if one has been built.
+     */
+    static void onAttendanceRecorded(String school, String studentId, LocalDate date, String status) {
+        AttendanceIndex index = shared.get(school);
+        if (index != null) {
+            index.record(studentId, date, status);
+        }
+    }
+
+    /**
+     * Forwards a newly committed student to the school's shared index, if one has been built.
+     */
+    static void onStudentAdded(String school, String studentId) {
+        AttendanceIndex index = shared.get(school);
+        if (index != null) {
+            index.addStudent(studentId);
+        }
+    }
+
+    /**
+     * Forwards a committed student deletion to the school's shared index, if one has been built.
+     */
+    static void onStudentDeleted(String school, String studentId) {
+        AttendanceIndex index = shared.get(school);
+        if (index != null) {
+            index.removeStudent(studentId);
+        }
+    }
+
+    /**
+     * Loads every student and attendance record, then replays writes that committed meanwhile.
+     */
+    private void load(SchoolBackend backend) {
+        long start = System.nanoTime();
+        try {
+            loadRows(backend);
+        } finally {
+            // Replay updates committed while loading; replaying one the snapshot already saw is harmless
+            synchronized (this) {
+                pendingUpdates.forEach(Runnable::run);
+                pendingUpdates = null;
+            }
+            loaded.countDown();
+        }
+        System.out.printf("Attendance index built: %d students, %d days in %d ms.%n",
+                studentIds.size(), bitmaps.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void loadRows(SchoolBackend backend) {
+        lock.writeLock().lock();
+        try (Stream<Student> students = backend.students().streamStudents(StudentProjection.basic())) {
+            students.forEach(s -> enrolled.set(ordinalFor(s.getStudentId())));
+            backend.attendance().forEachRecord(this::set);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies one attendance write (the student's previous status for that day is cleared).
+     */
+    public synchronized void record(String studentId, LocalDate date, String status) {
+        apply(() -> {
+            lock.writeLock().lock();
+            try {
+                set(studentId, date, status);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Registers a newly enrolled student so that not() queries include them.
+     */
+    public synchronized void addStudent(String studentId) {
+        apply(() -> {
+            lock.writeLock().lock();
+            try {
+                enrolled.set(ordinalFor(studentId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Clears all bits for a deleted student. The ordinal is retired, never reused.
+     */
+    public synchronized void removeStudent(String studentId) {
+        apply(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer ordinal = ordinals.get(studentId);
+                if (ordinal != null) {
+                    enrolled.clear(ordinal);
+                    for (BitSet[] day : bitmaps.values()) {
+                        for (BitSet bits : day) {
+                            bits.clear(ordinal);
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Caller holds this object's monitor; defers the update while the initial load is running
+    private void apply(Runnable update) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        } else {
+            update.run();
+        }
+    }
+
+    // Caller holds the write lock
+    private void set(String studentId, LocalDate date, String status) {
+        int statusIndex = statusIndex(status);
+        if (statusIndex < 0) {
+            return; // Unknown status values are not indexed
+        }
+        int ordinal = ordinalFor(studentId);
+        enrolled.set(ordinal);
+        BitSet[] day = bitmaps.computeIfAbsent(date, d -> new BitSet[] {new BitSet(), new BitSet(), new BitSet()});
+        for (int i = 0; i < day.length; i++) {
+            day[i].set(ordinal, i == statusIndex);
+        }
+    }
+
+    private int ordinalFor(String studentId) {
+        Integer ordinal = ordinals.get(studentId);
+        if (ordinal == null) {
+            ordinal = studentIds.size();
+            ordinals.put(studentId, ordinal);
+            studentIds.add(studentId);
+        }
+        return ordinal;
+    }
+
+    private static int statusIndex(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // =======================================================
+    // --- QUERYING ---
+    // =======================================================
+
+    /**
+     * Evaluates a query and returns the matching student IDs (in index order).
+     */
+    public List<String> findStudents(Query query) {
+        lock.readLock().lock();
+        try {
+            BitSet result = query.evaluate(this);
+            List<String> ids = new ArrayList<>(result.cardinality());
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                ids.add(studentIds.get(i));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the students matching a query without resolving their IDs.
+     */
+    public int count(Query query) {
+        lock.readLock().lock();
+        try {
+            return query.evaluate(this).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts, for every day from {@code from} on, how many of the given students were recorded
+     * with each status: counts[s][d] is the number with STATUSES[s] on from + d, for as many
+     * days as the arrays hold. Unknown students and days without records count 0.
+     */
+    public void countByDay(Collection<String> studentIds, LocalDate from, int[][] counts) {
+        lock.readLock().lock();
+        try {
+            int[] members = studentIds.stream().map(ordinals::get).filter(o -> o != null).mapToInt(Integer::intValue).toArray();
+            for (int d = 0; d < counts[0].length; d++) {
+                BitSet[] day = bitmaps.get(from.plusDays(d));
+                for (int s = 0; s < STATUSES.length; s++) {
+                    int count = 0;
+                    if (day == null) {
+                        counts[s][d] = 0;
+                        continue;
+                    }
+                    for (int ordinal : members) {
+                        if (day[s].get(ordinal)) {
+                            count++;
+                        }
+                    }
+                    counts[s][d] = count;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the live bitmap; evaluation code must copy before mutating
+    private BitSet bitmap(LocalDate date, String status) {
+        BitSet[] day = bitmaps.get(date);
+        int statusIndex = statusIndex(status);
+        if (day == null || statusIndex < 0) {
+            return new BitSet();
+        }
+        return day[statusIndex];
+    }
+
+    /**
+     * A set expression over attendance bitmaps. Evaluated under the index's read lock and
+     * always returns a fresh BitSet that the caller may modify.
+     */
+    @FunctionalInterface
+    public interface Query {
+        BitSet evaluate(AttendanceIndex index);
+
+        default Query and(Query other) {
+            return index -> {
+                BitSet result = evaluate(index);
+                result.and(other.evaluate(index));
+                return result;
+            };
+        }
+
+        default Query or(Query other) {
+            return index -> {
+                BitSet result = evaluate(index);
+                result.or(other.evaluate(index));
+                return result;
+            };
+        }
+
+        default Query andNot(Query other) {
+            return index -> {
+                BitSet result = evaluate(index);
+                result.andNot(other.evaluate(index));
+                return result;
+            };
+        }
+
+        /** Students currently enrolled that do NOT match this query. */
+        default Query not() {
+            return index -> {
+                BitSet result = (BitSet) index.enrolled.clone();
+                result.andNot(evaluate(index));
+                return result;
+            };
+        }
+    }
+
+    /** Students with the given status on the given day. */
+    public static Query status(LocalDate date, String status) {
+        return index -> (BitSet) index.bitmap(date, status).clone();
+    }
+
+    /** Students with the given status on every one of the dates. */
+    public static Query onEveryDay(Collection<LocalDate> dates, String status) {
+        return index -> {
+            BitSet result = null;
+            for (LocalDate date : dates) {
+                if (result == null) {
+                    result = (BitSet) index.bitmap(date, status).clone();
+                } else {
+                    result.and(index.bitmap(date, status));
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result == null ? new BitSet() : result;
+        };
+    }
+
+    /** Students with the given status on at least one of the dates. */
+    public static Query onAnyDay(Collection<LocalDate> dates, String status) {
+        return index -> {
+            BitSet result = new BitSet();
+            for (LocalDate date : dates) {
+                result.or(index.bitmap(date, status));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Students with the given status on at least {@code times} of the dates. Every enrolled
+     * student has it at least zero times, so {@code times <= 0} matches them all.
+     */
+    public static Query atLeast(int times, Collection<LocalDate> dates, String status) {
+        if (times <= 0) {
+            return enrolled();
+        }
+        return index -> {
+            int[] counts = new int[index.studentIds.size()];
+            BitSet result = new BitSet();
+            for (LocalDate date : dates) {
+                BitSet bits = index.bitmap(date, status);
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    if (++counts[i] == times) {
+                        result.set(i);
+                    }
+                }
+            }
+            return result;
+        };
+    }
+
+    /** Every student currently enrolled. */
+    public static Query enrolled() {
+        return index -> (BitSet) index.enrolled.clone();
+    }
+}
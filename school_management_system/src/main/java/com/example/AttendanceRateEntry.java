@@ -0,0 +1,58 @@
+package com.example;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Data Model for one row of the Dashboard attendance panel.
+ * Holds PRESENT/ABSENT/LATE day counts for either a single student or a whole grade level.
+ */
+public class AttendanceRateEntry {
+
+    private final StringProperty studentId;
+    private final StringProperty studentName;
+    private final StringProperty gradeLevel;
+
+    private final IntegerProperty presentDays;
+    private final IntegerProperty absentDays;
+    private final IntegerProperty lateDays;
+
+    // LATE still counts as attending; rate is 0..1 (0 when nothing has been recorded)
+    private final DoubleProperty attendanceRate;
+
+    public AttendanceRateEntry(String studentId, String studentName, String gradeLevel,
+                            int present, int absent, int late) {
+        this.studentId = new SimpleStringProperty(studentId);
+        this.studentName = new SimpleStringProperty(studentName);
+        this.gradeLevel = new SimpleStringProperty(gradeLevel);
+        this.presentDays = new SimpleIntegerProperty(present);
+        this.absentDays = new SimpleIntegerProperty(absent);
+        this.lateDays = new SimpleIntegerProperty(late);
+
+        int total = present + absent + late;
+        this.attendanceRate = new SimpleDoubleProperty(total == 0 ? 0.0 : (double) (present + late) / total);
+    }
+
+    // --- Property Getters (For TableView binding) ---
+    public StringProperty studentIdProperty() { return studentId; }
+    public StringProperty studentNameProperty() { return studentName; }
+    public StringProperty gradeLevelProperty() { return gradeLevel; }
+    public IntegerProperty presentDaysProperty() { return presentDays; }
+    public IntegerProperty absentDaysProperty() { return absentDays; }
+    public IntegerProperty lateDaysProperty() { return lateDays; }
+    public DoubleProperty attendanceRateProperty() { return attendanceRate; }
+
+    // --- Value Getters ---
+    public String getStudentId() { return studentId.get(); }
+    public String getStudentName() { return studentName.get(); }
+    public String getGradeLevel() { return gradeLevel.get(); }
+    public int getPresentDays() { return presentDays.get(); }
+    public int getAbsentDays() { return absentDays.get(); }
+    public int getLateDays() { return lateDays.get(); }
+    public int getRecordedDays() { return getPresentDays() + getAbsentDays() + getLateDays(); }
+    public double getAttendanceRate() { return attendanceRate.get(); }
+}
@@ -40,7 +40,13 @@ public class AttendanceReportController {
 
         // Optional: Set a default date range
         endDatePicker.setValue(LocalDate.now());
-        startDatePicker.setValue(LocalDate.now().minusDays(30)); 
+        startDatePicker.setValue(ScreenPrefetcher.defaultReportStart());
+
+        // Shown right away if the Dashboard prefetched the default range
+        List<AttendanceReportEntry> prefetched = ScreenPrefetcher.claim(ScreenPrefetcher.DEFAULT_ATTENDANCE_REPORT);
+        if (prefetched != null) {
+            showReport(startDatePicker.getValue(), endDatePicker.getValue(), prefetched);
+        }
     }
 
     @FXML
@@ -61,8 +67,10 @@ public class AttendanceReportController {
         }
         
         // 1. Fetch pivoted data using the new method
-        List<AttendanceReportEntry> records = schoolSystem.getPivotedAttendanceReport(startDate, endDate);
-        
+        showReport(startDate, endDate, schoolSystem.getPivotedAttendanceReport(startDate, endDate));
+    }
+
+    private void showReport(LocalDate startDate, LocalDate endDate, List<AttendanceReportEntry> records) {
         // 2. Clear previous dynamic columns before adding new ones
         // Remove all columns except the first one (Student Name)
         if (reportTableView.getColumns().size() > 1) {
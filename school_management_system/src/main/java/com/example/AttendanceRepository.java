@@ -0,0 +1,38 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage of daily attendance and the reports computed from it.
+ */
+public interface AttendanceRepository {
+
+    /**
+     * Receives attendance records one at a time, see forEachRecord.
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(String studentId, LocalDate date, String status);
+    }
+
+    /**
+     * Records (or replaces) one student's status for one day.
+     * @return A future completed with the status that was replaced, or null if the day was not recorded yet.
+     */
+    CompletableFuture<String> recordAttendance(String studentId, LocalDate date, String status);
+
+    /**
+     * Visits every current attendance record (archived years excluded), in no particular order.
+     * @throws IllegalStateException if the records cannot be read.
+     */
+    void forEachRecord(RecordVisitor visitor);
+
+    List<AttendanceReportEntry> getPivotedAttendanceReport(LocalDate startDate, LocalDate endDate);
+
+    List<AttendanceRateEntry> getChronicAbsentees(YearMonth from, YearMonth to, double threshold);
+
+    List<AttendanceRateEntry> getAttendanceRatesByGradeLevel(YearMonth from, YearMonth to);
+}
@@ -2,6 +2,7 @@ package com.example;
 
 import java.time.LocalDate;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -15,7 +16,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Alert.AlertType;
 import javafx.util.StringConverter;
 
-public class AttendanceTrackingController {
+public class AttendanceTrackingController implements AutoCloseable {
 
     @FXML private ComboBox<Student> studentComboBox;
     @FXML private DatePicker datePicker;
@@ -26,12 +27,14 @@ public class AttendanceTrackingController {
     @FXML private Label statusLabel;
 
     private SchoolSystem schoolSystem;
+    private StudentListSync studentSync;
     private ObservableList<Student> studentList = FXCollections.observableArrayList();
 
     @FXML
     public void initialize() {
         schoolSystem = new SchoolSystem();
         loadStudentData();
+        studentSync = new StudentListSync(studentList);
 
         // Set default date to today
         datePicker.setValue(LocalDate.now());
@@ -56,7 +59,7 @@ public class AttendanceTrackingController {
     }
 
     private void loadStudentData() {
-        studentList.setAll(schoolSystem.getAllStudents());
+        studentList.setAll(ScreenPrefetcher.claimOrLoad(ScreenPrefetcher.STUDENT_LIST, schoolSystem));
     }
 
     @FXML
@@ -72,7 +75,10 @@ public class AttendanceTrackingController {
             return;
         }
 
-        schoolSystem.recordAttendance(selectedStudent.getStudentId(), date, status);
+        schoolSystem.recordAttendance(selectedStudent.getStudentId(), date, status).exceptionally(ex -> {
+            Platform.runLater(() -> statusLabel.setText("Error: Could not save attendance for " + selectedStudent.getName() + "."));
+            return null;
+        });
         statusLabel.setText("Successfully recorded attendance for " + selectedStudent.getName() + ".");
 
         // Clear fields for next entry
@@ -81,6 +87,16 @@ public class AttendanceTrackingController {
         datePicker.setValue(LocalDate.now());
     }
 
+    /**
+     * Stops listening for change events once the view is navigated away from.
+     */
+    @Override
+    public void close() {
+        if (studentSync != null) {
+            studentSync.close();
+        }
+    }
+
     @FXML
     @SuppressWarnings("unused")
     private void handleBack(ActionEvent event) {
@@ -0,0 +1,230 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail of grade and attendance changes, with the values before and after.
+ *
+ * SchoolSystem records an entry when a write commits (on the writer thread for SQLite). Recording
+ * only puts the entry into a lock-free ring buffer; a background flusher drains it in batches and
+ * appends one tab-separated line per change to the audit file, so the write path never waits for
+ * the file system. Lines are: time (UTC), actor, school, action, subject, before, after ("-" for none).
+ */
+public class AuditLog {
+
+    // --- Configuration (overridable with -Dschool.audit.* system properties) ---
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("school.audit.enabled", "true"));
+    private static final Path FILE = Paths.get(System.getProperty("school.audit.file", "audit/audit.log"));
+    private static final int CAPACITY = Integer.getInteger("school.audit.capacity", 65_536);
+    private static final int BATCH_SIZE = Integer.getInteger("school.audit.batchSize", 4_096);
+    private static final long IDLE_MILLIS = Long.getLong("school.audit.idleMillis", 20);
+    // Force every batch to disk (fsync) before taking the next one
+    private static final boolean SYNC = Boolean.parseBoolean(System.getProperty("school.audit.sync", "false"));
+    // Recorded as the author of every change; the application has no logins
+    private static final String ACTOR = System.getProperty("school.audit.actor", System.getProperty("user.name", "unknown"));
+
+    private static AuditLog instance;
+
+    /**
+     * One audited change; before and after are formatted with toString() when written.
+     */
+    public record Entry(long timestampMillis, String actor, String school, String action, String subject, Object before, Object after) {}
+
+    private final AuditRingBuffer<Entry> buffer;
+    private final Path file;
+    private final Thread flusher;
+    private volatile boolean enabled = true;
+    private volatile boolean running = true;
+
+    // --- Statistics ---
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder bufferFullWaits = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+
+    /**
+     * Returns the shared audit log, starting its flusher on first use.
+     */
+    public static synchronized AuditLog getInstance() {
+        if (instance == null) {
+            instance = new AuditLog(FILE, CAPACITY);
+            instance.setEnabled(ENABLED);
+        }
+        return instance;
+    }
+
+    /**
+     * Flushes and stops the shared audit log, if it was started.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+        }
+    }
+
+    public AuditLog(Path file, int capacity) {
+        this.file = file;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.flusher = new Thread(this::flushLoop, "audit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues one change. Never blocks unless the buffer is full, in which case the caller waits
+     * for the flusher rather than losing the entry.
+     */
+    public void record(String school, String action, String subject, Object before, Object after) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(System.currentTimeMillis(), ACTOR, school, action, subject, before, after);
+        recorded.increment();
+        while (!buffer.offer(entry)) {
+            bufferFullWaits.increment();
+            LockSupport.unpark(flusher);
+            Thread.yield();
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Writes everything queued so far and stops the flusher.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Flusher ---
+
+    private void flushLoop() {
+        BufferedWriter out = null;
+        FileOutputStream stream = null;
+        while (true) {
+            boolean stopping = !running; // Read before draining so nothing queued before close() is missed
+            if (buffer.size() == 0) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IDLE_MILLIS));
+                continue;
+            }
+
+            int count = 0;
+            long start = System.nanoTime();
+            try {
+                if (out == null) {
+                    Path parent = file.toAbsolutePath().getParent();
+                    if (parent != null) {
+                        Files.createDirectories(parent);
+                    }
+                    stream = new FileOutputStream(file.toFile(), true);
+                    out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+                }
+                Entry entry;
+                while (count < BATCH_SIZE && (entry = buffer.poll()) != null) {
+                    writeLine(out, entry);
+                    count++;
+                }
+                out.flush();
+                if (SYNC) {
+                    stream.getChannel().force(false);
+                }
+                written.addAndGet(count);
+            } catch (IOException e) {
+                // Drop the rest of the batch and reopen the file for the next one
+                System.err.println("ERROR writing audit log " + file + ": " + e.getMessage());
+                while (count < BATCH_SIZE && buffer.poll() != null) {
+                    count++;
+                }
+                failed.addAndGet(count);
+                closeQuietly(out);
+                out = null;
+            }
+            if (count == 0) {
+                continue; // The next entry was claimed but not yet published
+            }
+            batches.incrementAndGet();
+            largestBatch.accumulateAndGet(count, Math::max);
+            flushNanos.addAndGet(System.nanoTime() - start);
+        }
+        closeQuietly(out);
+    }
+
+    private static void writeLine(BufferedWriter out, Entry entry) throws IOException {
+        out.write(Instant.ofEpochMilli(entry.timestampMillis()).toString());
+        out.write('\t');
+        out.write(field(entry.actor()));
+        out.write('\t');
+        out.write(field(entry.school()));
+        out.write('\t');
+        out.write(field(entry.action()));
+        out.write('\t');
+        out.write(field(entry.subject()));
+        out.write('\t');
+        out.write(field(entry.before()));
+        out.write('\t');
+        out.write(field(entry.after()));
+        out.write('\n');
+    }
+
+    // Keeps every entry on one line with a fixed number of columns
+    private static String field(Object value) {
+        return value == null ? "-" : value.toString().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static void closeQuietly(BufferedWriter out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("ERROR closing audit log: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Statistics Getters ---
+
+    public Path getFile() { return file; }
+    public long getRecorded() { return recorded.sum(); }
+    public long getWritten() { return written.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getBatches() { return batches.get(); }
+    public long getBufferFullWaits() { return bufferFullWaits.sum(); }
+    public int getQueueDepth() { return buffer.size(); }
+
+    /**
+     * One-line summary for the diagnostics output.
+     */
+    public String describe() {
+        long count = batches.get();
+        return String.format("%d recorded, %d written in %d batches (largest %d, avg flush %.2f ms), %d failed, queue %d/%d, buffer-full waits %d",
+                getRecorded(), getWritten(), count, largestBatch.get(),
+                count == 0 ? 0.0 : flushNanos.get() / 1e6 / count, getFailed(),
+                getQueueDepth(), buffer.capacity(), getBufferFullWaits());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number telling whose turn it is: producers claim a position with
+ * one compare-and-set on the tail and publish the element by advancing the slot's sequence; the
+ * consumer reads the slot once the sequence says it is filled and hands it back one lap later.
+ * Neither side ever blocks the other.
+ */
+public class AuditRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // Only advanced by the consumer thread
+
+    /**
+     * @param capacity Rounded up to a power of two.
+     */
+    public AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element from any thread.
+     * @return false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1); // Publishes the element to the consumer
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; // The consumer has not freed this slot yet
+            }
+            // Otherwise another producer claimed the position first; retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element; call from the consumer thread only.
+     * @return null if the buffer is empty (or the next element is still being published).
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.set(index, head + mask + 1); // Free the slot for the producer one lap ahead
+        head++;
+        return element;
+    }
+
+    /**
+     * Approximate number of queued elements.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Takes online snapshots of the school database while the application keeps running.
+ * Each snapshot is written with VACUUM INTO on a read transaction; in WAL mode that reader
+ * never holds the write lock, so the writer thread keeps committing during the copy.
+ * Snapshots are integrity-checked, and only the newest verified ones are retained; copies that
+ * failed the check are kept apart, a few at most, and never count against the good ones.
+ * With several schools, every school opened in this session is backed up into its own
+ * subdirectory; schools nobody opened are not opened just to be copied.
+ */
+public class BackupManager {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String FILE_PREFIX = "school-";
+
+    // --- Configuration (overridable with -Dschool.backup.* system properties) ---
+    private static final Path BACKUP_DIR = Paths.get(System.getProperty("school.backup.dir", "backups"));
+    private static final long INTERVAL_MINUTES = Long.getLong("school.backup.intervalMinutes", 60);
+    private static final int RETAIN = Integer.getInteger("school.backup.retain", 14);
+    private static final int RETAIN_CORRUPT = Integer.getInteger("school.backup.retainCorrupt", 3);
+
+    private static ScheduledExecutorService scheduler;
+    private static volatile BackupResult lastResult;
+
+    /**
+     * Outcome of one snapshot, as reported in the log.
+     */
+    public record BackupResult(Path file, long sizeBytes, long durationMillis,
+                            long longestWriterStallMillis, boolean verified, String message) {
+        @Override
+        public String toString() {
+            return String.format("%s (%d KB) in %d ms, longest writer stall %d ms, integrity %s",
+                    file.getFileName(), sizeBytes / 1024, durationMillis, longestWriterStallMillis,
+                    verified ? "ok" : "FAILED: " + message);
+        }
+    }
+
+    /**
+     * Starts the background scheduler. The first snapshot is taken one interval after startup.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || INTERVAL_MINUTES <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-backup");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(BackupManager::runScheduledBackup,
+                INTERVAL_MINUTES, INTERVAL_MINUTES, TimeUnit.MINUTES);
+        System.out.println("Backup scheduler started: every " + INTERVAL_MINUTES + " min into " + BACKUP_DIR.toAbsolutePath());
+    }
+
+    /**
+     * Stops the scheduler, letting a snapshot that is already running finish.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+    public static BackupResult getLastResult() {
+        return lastResult;
+    }
+
+    private static void runScheduledBackup() {
+        for (SchoolDatabase database : DatabaseManager.openDatabases()) {
+            try {
+                backupNow(database);
+            } catch (SQLException | IOException e) {
+                // Never let an exception cancel the periodic schedule (or skip the other schools)
+                System.err.println("BACKUP ERROR for school '" + database.getId() + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes, verifies and rotates one snapshot of the current school immediately on the calling thread.
+     */
+    public static BackupResult backupNow() throws SQLException, IOException {
+        return backupNow(DatabaseManager.current());
+    }
+
+    public static synchronized BackupResult backupNow(SchoolDatabase database) throws SQLException, IOException {
+        Path backupDir = database.scopedDirectory(BACKUP_DIR);
+        Files.createDirectories(backupDir);
+        Path target = backupDir.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_STAMP) + ".db");
+        if (Files.exists(target)) {
+            throw new IOException("Snapshot already exists: " + target);
+        }
+
+        // 1. Copy a consistent snapshot (a read transaction; writers are not blocked in WAL mode)
+        DatabaseWriter writer = database.peekWriter(); // A school that was only read has no writer to stall
+        if (writer != null) {
+            writer.resetLongestBatchNanos();
+        }
+        long start = System.nanoTime();
+        try (Connection conn = database.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement("VACUUM INTO ?")) {
+            pstmt.setString(1, target.toAbsolutePath().toString());
+            pstmt.executeUpdate();
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        writer = database.peekWriter(); // Possibly started during the copy
+        long stallMillis = writer == null ? 0 : TimeUnit.NANOSECONDS.toMillis(writer.resetLongestBatchNanos());
+
+        // 2. Verify the copy before trusting it
+        String check = integrityCheck(target);
+        boolean verified = "ok".equals(check);
+        Path stored = target;
+        if (!verified) {
+            // Keep the bad copy for inspection under a name nothing restores from; it rotates out like the rest
+            stored = Files.move(target, target.resolveSibling(target.getFileName() + ".corrupt"));
+        }
+
+        BackupResult result = new BackupResult(stored, Files.size(stored), durationMillis, stallMillis, verified, check);
+        lastResult = result;
+        System.out.println("Backup " + (verified ? "completed: " : "FAILED verification: ") + result);
+
+        // 3. Keep only the newest snapshots
+        rotate(backupDir);
+        return result;
+    }
+
+    private static String integrityCheck(Path snapshot) {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + snapshot.toAbsolutePath());
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("PRAGMA integrity_check")) {
+            return rs.next() ? rs.getString(1) : "no result";
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Deletes the oldest verified snapshots beyond RETAIN and the oldest .corrupt copies beyond
+     * RETAIN_CORRUPT. The two are counted separately, so a run of failed checks can never rotate
+     * out the last good snapshots.
+     */
+    private static void rotate(Path backupDir) throws IOException {
+        rotate(backupDir, ".db", RETAIN);
+        rotate(backupDir, ".db.corrupt", RETAIN_CORRUPT);
+    }
+
+    // File names sort chronologically because of their timestamp
+    private static void rotate(Path backupDir, String suffix, int retain) throws IOException {
+        List<Path> snapshots;
+        try (Stream<Path> files = Files.list(backupDir)) {
+            snapshots = files
+                    .filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX) && p.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < snapshots.size() - retain; i++) {
+            Files.delete(snapshots.get(i));
+            System.out.println("Backup rotated out: " + snapshots.get(i).getFileName());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typed notifications of committed data changes, published on the ChangeEventBus by the
+ * SchoolSystem write paths so open views can patch their lists instead of reloading them.
+ */
+public sealed interface ChangeEvent {
+
+    record StudentAdded(String studentId, String name, String gradeLevel) implements ChangeEvent {}
+
+    record StudentUpdated(String studentId, String name, String gradeLevel) implements ChangeEvent {}
+
+    record StudentDeleted(String studentId) implements ChangeEvent {}
+
+    // Bulk operations publish one event for the whole set rather than one per student
+    record StudentsDeleted(Set<String> studentIds) implements ChangeEvent {}
+
+    // Old grade level -> new grade level, applied to every student at once
+    record GradeLevelsChanged(Map<String, String> renames) implements ChangeEvent {}
+
+    // Scores use the column names of the grades table (social = history, kannada = art)
+    record GradesChanged(String studentId, int math, int science, int social, int english, int kannada)
+            implements ChangeEvent {}
+
+    record AttendanceRecorded(String studentId, LocalDate date, String status) implements ChangeEvent {}
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * In-process publish/subscribe bus for ChangeEvents.
+ * Events are published after the change has been committed, on the thread that committed it
+ * (normally the database writer thread); UI code should use subscribeOnFxThread.
+ * Every school has its own bus, so views only hear about changes to the school they show.
+ */
+public class ChangeEventBus {
+
+    private static final Map<String, ChangeEventBus> bySchool = new ConcurrentHashMap<>();
+
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * A registration that can be cancelled, e.g. when a controller's view is closed.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Returns the bus of the currently selected school.
+     */
+    public static ChangeEventBus getInstance() {
+        return forSchool(DatabaseManager.getCurrentSchool());
+    }
+
+    public static ChangeEventBus forSchool(String school) {
+        return bySchool.computeIfAbsent(school, s -> new ChangeEventBus());
+    }
+
+    /**
+     * Registers a listener that is called on the publishing thread.
+     */
+    public Subscription subscribe(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener that is called on the JavaFX Application Thread.
+     */
+    public Subscription subscribeOnFxThread(Consumer<ChangeEvent> listener) {
+        return subscribe(event -> Platform.runLater(() -> listener.accept(event)));
+    }
+
+    public void publish(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                // One failing listener must not stop delivery to the others (or break the writer)
+                System.err.println("ERROR in change listener for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The change_log table: one row for every change of a student, a grade row or an attendance
+ * record, written in the same transaction as the change. SyncEngine sends other installations
+ * only the rows after their last sync point, so a sync costs O(changes), not O(database).
+ *
+ * Each row names the installation where the change was made (origin, origin_seq) and when
+ * (changed_at, in milliseconds). For one key the latest change wins: the higher changed_at, then
+ * the higher origin ID, so every installation picks the same winner in any order of arrival. A
+ * local change is stamped later than any change already logged for its key, so an edit made after
+ * a sync always wins over what that sync brought in, whatever the laptops' clocks say.
+ *
+ * Keys: the student ID for STUDENT and GRADES, "studentId|date" for ATTENDANCE.
+ * Payloads: "name TAB gradeLevel" (null when the student was deleted), "math,science,social,
+ * english,kannada,term" (no term in rows logged before grade history existed), and the
+ * attendance status.
+ */
+public class ChangeLog {
+
+    public static final String STUDENT = "student";
+    public static final String GRADES = "grades";
+    public static final String ATTENDANCE = "attendance";
+
+    /**
+     * One logged change. sourceSeq is its position in the log of the database it was read from.
+     */
+    public record Change(long sourceSeq, String origin, long originSeq, long changedAt,
+                         String entity, String key, String payload) {
+
+        /**
+         * True if this change wins over the given (latest known) change of the same key.
+         */
+        boolean supersedes(long otherChangedAt, String otherOrigin) {
+            return changedAt != otherChangedAt ? changedAt > otherChangedAt : origin.compareTo(otherOrigin) > 0;
+        }
+    }
+
+    // --- Keys and payloads ---
+
+    static String attendanceKey(String studentId, String date) {
+        return studentId + "|" + date;
+    }
+
+    static String studentPayload(String name, String gradeLevel) {
+        return name + "\t" + gradeLevel;
+    }
+
+    static String gradesPayload(String term, int math, int science, int social, int english, int kannada) {
+        return math + "," + science + "," + social + "," + english + "," + kannada + "," + term;
+    }
+
+    // --- Writing ---
+
+    /**
+     * Logs a change made by this installation. Must run in the transaction that makes the change.
+     */
+    static void recordLocal(Connection conn, String entity, String key, String payload) throws SQLException {
+        // Next sequence number, this installation's ID, and a stamp after every earlier change of the key
+        String sql = """
+            INSERT INTO change_log(seq, origin, origin_seq, changed_at, entity, entity_key, payload)
+            SELECT n.seq, i.installation_id, n.seq,
+                MAX(?, COALESCE((SELECT MAX(changed_at) FROM change_log WHERE entity = ? AND entity_key = ?), -1) + 1),
+                ?, ?, ?
+            FROM (SELECT COALESCE(MAX(seq), 0) + 1 AS seq FROM change_log) n, installation i
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, System.currentTimeMillis());
+            pstmt.setString(2, entity);
+            pstmt.setString(3, key);
+            pstmt.setString(4, entity);
+            pstmt.setString(5, key);
+            pstmt.setString(6, payload);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Logs a change received from another installation (applied or not), so it is known as seen
+     * and can be passed on.
+     */
+    static void recordReceived(Connection conn, Change change) throws SQLException {
+        String sql = """
+            INSERT INTO change_log(seq, origin, origin_seq, changed_at, entity, entity_key, payload)
+            SELECT COALESCE(MAX(seq), 0) + 1, ?, ?, ?, ?, ?, ? FROM change_log
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, change.origin());
+            pstmt.setLong(2, change.originSeq());
+            pstmt.setLong(3, change.changedAt());
+            pstmt.setString(4, change.entity());
+            pstmt.setString(5, change.key());
+            pstmt.setString(6, change.payload());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Logs the existing data of a database created before the change log, once, so that it is
+     * sent on the first sync. Stamped 0: any real change wins over it.
+     */
+    static void backfill(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM change_log)")) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    return;
+                }
+            }
+            String[] sources = {
+                "SELECT '" + STUDENT + "' AS entity, id AS entity_key, name || char(9) || grade_level AS payload FROM students",
+                "SELECT '" + GRADES + "' AS entity, student_id AS entity_key, math_score || ',' || science_score"
+                    + " || ',' || social_score || ',' || english_score || ',' || kannada_score AS payload FROM grades",
+                "SELECT '" + ATTENDANCE + "' AS entity, student_id || '|' || date AS entity_key, status AS payload FROM attendance"
+            };
+            for (String source : sources) {
+                stmt.executeUpdate("""
+                    INSERT INTO change_log(seq, origin, origin_seq, changed_at, entity, entity_key, payload)
+                    SELECT base + n, installation_id, base + n, 0, entity, entity_key, payload
+                    FROM (SELECT ROW_NUMBER() OVER () AS n, * FROM (%s)),
+                        (SELECT COALESCE(MAX(seq), 0) AS base FROM change_log),
+                        installation
+                    """.formatted(source));
+            }
+        }
+    }
+
+    // --- Reading ---
+
+    static String installationId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT installation_id FROM installation WHERE id = 1")) {
+            if (!rs.next()) {
+                throw new SQLException("installation ID missing");
+            }
+            return rs.getString(1);
+        }
+    }
+
+    static long lastSeq(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * True if the change has been logged here already (made here, or received before).
+     */
+    static boolean contains(Connection conn, String origin, long originSeq) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM change_log WHERE origin = ? AND origin_seq = ?")) {
+            pstmt.setString(1, origin);
+            pstmt.setLong(2, originSeq);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * The winning change logged for a key so far, or null if there is none.
+     */
+    static Change latest(Connection conn, String entity, String key) throws SQLException {
+        String sql = """
+            SELECT seq, origin, origin_seq, changed_at, payload FROM change_log
+            WHERE entity = ? AND entity_key = ?
+            ORDER BY changed_at DESC, origin DESC LIMIT 1
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, entity);
+            pstmt.setString(2, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next()
+                        ? new Change(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), entity, key, rs.getString(5))
+                        : null;
+            }
+        }
+    }
+
+    /**
+     * The changes after one sequence number up to another, in log order, except those that came
+     * from the given installation (it has them already).
+     */
+    static List<Change> between(Connection conn, long afterSeq, long throughSeq, String exceptOrigin) throws SQLException {
+        String sql = """
+            SELECT seq, origin, origin_seq, changed_at, entity, entity_key, payload FROM change_log
+            WHERE seq > ? AND seq <= ? AND origin <> ? ORDER BY seq
+            """;
+        List<Change> changes = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, afterSeq);
+            pstmt.setLong(2, throughSeq);
+            pstmt.setString(3, exceptOrigin);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new Change(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4),
+                            rs.getString(5), rs.getString(6), rs.getString(7)));
+                }
+            }
+        }
+        return changes;
+    }
+}
@@ -1,18 +1,149 @@
 package com.example;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import javafx.beans.InvalidationListener;
+import javafx.concurrent.Task;
+import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 
 /**
  * Controller class for the main Dashboard view.
- * Handles navigation and initial button actions.
+ * Handles navigation and initial button actions, and shows the attendance summary panel.
  */
 public class DashboardController {
 
+    // Students below this attendance rate are listed as chronically absent
+    private static final double CHRONIC_ABSENCE_THRESHOLD = 0.90;
+
     @FXML
     private Label statusLabel; 
 
+    @FXML private ComboBox<String> schoolComboBox;
+    @FXML private Button districtReportButton;
+
+    // --- Navigation buttons whose screens' data is prefetched (see ScreenPrefetcher) ---
+    @FXML private Button manageStudentsButton;
+    @FXML private Button recordGradesButton;
+    @FXML private Button trackAttendanceButton;
+    @FXML private Button attendanceReportButton;
+    @FXML private Button gradeSummaryButton;
+
+    // --- Attendance Panel ---
+    @FXML private Label attendancePeriodLabel;
+    @FXML private TableView<AttendanceRateEntry> chronicAbsenceTableView;
+    @FXML private TableColumn<AttendanceRateEntry, String> absenteeNameColumn;
+    @FXML private TableColumn<AttendanceRateEntry, String> absenteeGradeColumn;
+    @FXML private TableColumn<AttendanceRateEntry, Integer> absenteeAbsentColumn;
+    @FXML private TableColumn<AttendanceRateEntry, Double> absenteeRateColumn;
+    @FXML private TableView<AttendanceRateEntry> gradeLevelRateTableView;
+    @FXML private TableColumn<AttendanceRateEntry, String> gradeLevelColumn;
+    @FXML private TableColumn<AttendanceRateEntry, Integer> gradeLevelAbsentColumn;
+    @FXML private TableColumn<AttendanceRateEntry, Double> gradeLevelRateColumn;
+
+    private SchoolSystem schoolSystem = new SchoolSystem();
+
+    @FXML
+    public void initialize() {
+        configureSchoolSwitcher();
+
+        absenteeNameColumn.setCellValueFactory(cellData -> cellData.getValue().studentNameProperty());
+        absenteeGradeColumn.setCellValueFactory(cellData -> cellData.getValue().gradeLevelProperty());
+        absenteeAbsentColumn.setCellValueFactory(cellData -> cellData.getValue().absentDaysProperty().asObject());
+        absenteeRateColumn.setCellValueFactory(cellData -> cellData.getValue().attendanceRateProperty().asObject());
+        absenteeRateColumn.setCellFactory(column -> new PercentCell());
+
+        gradeLevelColumn.setCellValueFactory(cellData -> cellData.getValue().gradeLevelProperty());
+        gradeLevelAbsentColumn.setCellValueFactory(cellData -> cellData.getValue().absentDaysProperty().asObject());
+        gradeLevelRateColumn.setCellValueFactory(cellData -> cellData.getValue().attendanceRateProperty().asObject());
+        gradeLevelRateColumn.setCellFactory(column -> new PercentCell());
+
+        prefetchOnIntent(manageStudentsButton, ScreenPrefetcher.STUDENT_LIST);
+        prefetchOnIntent(recordGradesButton, ScreenPrefetcher.STUDENT_LIST);
+        prefetchOnIntent(trackAttendanceButton, ScreenPrefetcher.STUDENT_LIST);
+        prefetchOnIntent(attendanceReportButton, ScreenPrefetcher.DEFAULT_ATTENDANCE_REPORT);
+        prefetchOnIntent(gradeSummaryButton, ScreenPrefetcher.GRADE_SUMMARY);
+
+        loadAttendancePanel();
+    }
+
+    /**
+     * Starts loading a screen's data while the pointer is on its button or the button has the
+     * keyboard focus, and cancels it when neither is the case any more.
+     */
+    private static void prefetchOnIntent(Button button, ScreenPrefetcher.Key<?> key) {
+        InvalidationListener listener = obs -> {
+            if (button.isHover() || button.isFocused()) {
+                ScreenPrefetcher.start(key);
+            } else {
+                ScreenPrefetcher.cancel(key);
+            }
+        };
+        button.hoverProperty().addListener(listener);
+        button.focusedProperty().addListener(listener);
+    }
+
+    /**
+     * Lists the configured schools. Choosing another school only changes which school the views
+     * work with; every school keeps its own database, writer and cache, so nothing is reloaded.
+     */
+    private void configureSchoolSwitcher() {
+        schoolComboBox.setItems(FXCollections.observableArrayList(DatabaseManager.getSchoolIds()));
+        schoolComboBox.getSelectionModel().select(DatabaseManager.getCurrentSchool());
+        schoolComboBox.setDisable(!DatabaseManager.isMultiSchool());
+        districtReportButton.setDisable(!DatabaseManager.isMultiSchool());
+        schoolComboBox.getSelectionModel().selectedItemProperty().addListener((obs, oldSchool, school) -> {
+            if (school == null || school.equals(DatabaseManager.getCurrentSchool())) {
+                return;
+            }
+            DatabaseManager.switchSchool(school);
+            schoolSystem = new SchoolSystem();
+            statusLabel.setText("Now working with school: " + school);
+            loadAttendancePanel();
+        });
+    }
+
+    /**
+     * Loads the attendance panel for the current academic year on a background thread.
+     * Both queries read the monthly summary table, so they cost O(students) regardless of history size.
+     */
+    private void loadAttendancePanel() {
+        YearMonth from = YearMonth.from(SchoolSystem.academicYearStart(LocalDate.now()));
+        YearMonth to = YearMonth.now();
+        attendancePeriodLabel.setText("Attendance This Academic Year (" + from + " to " + to + ")");
+
+        SchoolSystem schoolSystem = this.schoolSystem; // The school selected when loading started
+        Task<List<List<AttendanceRateEntry>>> task = new Task<>() {
+            @Override
+            protected List<List<AttendanceRateEntry>> call() {
+                return List.of(
+                    schoolSystem.getChronicAbsentees(from, to, CHRONIC_ABSENCE_THRESHOLD),
+                    schoolSystem.getAttendanceRatesByGradeLevel(from, to));
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (schoolSystem == this.schoolSystem) { // Results of a school switched away from are dropped
+                chronicAbsenceTableView.setItems(FXCollections.observableArrayList(task.getValue().get(0)));
+                gradeLevelRateTableView.setItems(FXCollections.observableArrayList(task.getValue().get(1)));
+            }
+            StartupTimer.interactive();
+        });
+        task.setOnFailed(e -> StartupTimer.interactive());
+
+        Thread loader = new Thread(task, "dashboard-attendance-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
     @FXML
     @SuppressWarnings("unused")
     private void handleManageStudents(ActionEvent event) {
@@ -49,4 +180,35 @@ public class DashboardController {
         statusLabel.setText("Opening Grade Summary Report...");
         NavigationManager.switchScene(event, "/com/example/GradeSummaryReport.fxml", "Grade Summary Report");
     }
-}
\ No newline at end of file
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleViewDistrictReport(ActionEvent event) {
+        statusLabel.setText("Opening District Report...");
+        NavigationManager.switchScene(event, "/com/example/DistrictReport.fxml", "District Report");
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleViewAttendanceCalendar(ActionEvent event) {
+        statusLabel.setText("Opening Attendance Calendar...");
+        NavigationManager.switchScene(event, "/com/example/AttendanceHeatmap.fxml", "Attendance Calendar");
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleOpenDeveloperPanel(ActionEvent event) {
+        DeveloperPanelController.show();
+    }
+
+    /**
+     * Formats a 0..1 attendance rate as a percentage.
+     */
+    private static class PercentCell extends TableCell<AttendanceRateEntry, Double> {
+        @Override
+        protected void updateItem(Double item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : String.format("%.1f%%", item * 100));
+        }
+    }
+}
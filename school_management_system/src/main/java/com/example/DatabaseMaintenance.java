@@ -0,0 +1,411 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upkeep of one school's database file, run by DatabaseManager's scheduler while the school
+ * is idle (or on demand by "SchoolCli maintenance"):
+ *
+ * <ol>
+ * <li>a one-time switch to auto_vacuum=INCREMENTAL (a full VACUUM) for files created before it
+ *     was the default, done only by "SchoolCli maintenance": a VACUUM cannot be split up or
+ *     stopped at a budget, so the background rounds only report that it is needed;</li>
+ * <li>an incremental vacuum that hands the free pages left by deletes and INSERT OR REPLACE churn
+ *     back to the file system, a few hundred pages per write;</li>
+ * <li>ANALYZE on first run, PRAGMA optimize afterwards, both sampling at most
+ *     {@code school.maintenance.analysisLimit} rows per index;</li>
+ * <li>a PASSIVE WAL checkpoint, which never waits for readers or the writer;</li>
+ * <li>PRAGMA quick_check on a read connection.</li>
+ * </ol>
+ *
+ * Everything that writes goes through the school's DatabaseWriter in short pieces, so UI writes
+ * queued meanwhile are at most one piece behind. Each task stops at its time budget, and the
+ * write tasks also stop as soon as other writes are waiting. Every result is logged and kept in
+ * the maintenance_log table.
+ */
+public class DatabaseMaintenance {
+
+    // --- Configuration (overridable with -Dschool.maintenance.* system properties) ---
+    static final long TASK_BUDGET_MILLIS = Long.getLong("school.maintenance.taskBudgetMs", 2000);
+    private static final long CHECK_BUDGET_MILLIS = Long.getLong("school.maintenance.checkBudgetMs", 10_000);
+    private static final int VACUUM_CHUNK_PAGES = Integer.getInteger("school.maintenance.vacuumChunkPages", 256);
+    private static final int ANALYSIS_LIMIT = Integer.getInteger("school.maintenance.analysisLimit", 1000);
+
+    // SQLite's auto_vacuum setting for INCREMENTAL
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    // Cancels read statements that overrun their budget (sqlite3_interrupt)
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "db-maintenance-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // The last round of every school, for the diagnostics
+    private static final Map<String, List<TaskResult>> lastRounds = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of one maintenance task. completed is false if the task stopped at its budget,
+     * gave way to other writes or failed; finding says what it found or why it stopped.
+     */
+    public record TaskResult(String task, LocalDateTime startedAt, long durationMillis, long pagesReclaimed,
+                             boolean completed, String finding) {
+        @Override
+        public String toString() {
+            return String.format("%s %s in %d ms%s: %s", task, completed ? "done" : "stopped", durationMillis,
+                    pagesReclaimed > 0 ? ", " + pagesReclaimed + " pages reclaimed" : "", finding);
+        }
+    }
+
+    private final SchoolDatabase database;
+    private final long budgetMillis;
+    private final boolean convert;
+    private final List<TaskResult> results = new ArrayList<>();
+
+    private DatabaseMaintenance(SchoolDatabase database, long budgetMillis, boolean convert) {
+        this.database = database;
+        this.budgetMillis = budgetMillis;
+        this.convert = convert;
+    }
+
+    /**
+     * Runs every task once on the calling thread and records the results.
+     * @param budgetMillis Time budget per task (quick_check gets at least school.maintenance.checkBudgetMs).
+     * @param convert True to switch an older file to incremental auto_vacuum, a full VACUUM that
+     *        blocks every write until it is done (only when nobody is waiting on the writer).
+     */
+    public static List<TaskResult> run(SchoolDatabase database, long budgetMillis, boolean convert) {
+        DatabaseMaintenance round = new DatabaseMaintenance(database, budgetMillis, convert);
+        round.runAll();
+        lastRounds.put(database.getId(), List.copyOf(round.results));
+        return List.copyOf(round.results);
+    }
+
+    /**
+     * The results of the school's last round in this process, oldest first (empty if none ran).
+     */
+    public static List<TaskResult> getLastRound(String school) {
+        return lastRounds.getOrDefault(school, List.of());
+    }
+
+    /**
+     * When the school's last round started, from the maintenance_log table (null if never).
+     */
+    static LocalDateTime lastRunAt(SchoolDatabase database) {
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT MAX(run_at) FROM maintenance_log")) {
+            return rs.next() && rs.getString(1) != null ? LocalDateTime.parse(rs.getString(1)) : null;
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR reading maintenance log for school '" + database.getId() + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void runAll() {
+        LocalDateTime runAt = LocalDateTime.now();
+        System.out.println("Maintenance of school '" + database.getId() + "' started.");
+        task("auto_vacuum", this::convertToIncremental);
+        task("incremental_vacuum", this::incrementalVacuum);
+        task("optimize", this::optimize);
+        task("wal_checkpoint", this::checkpoint);
+        task("quick_check", this::quickCheck);
+        recordResults(runAt);
+    }
+
+    // --- Tasks ---
+
+    /**
+     * One task's work; reports what it reclaimed and found through the Progress it is given.
+     */
+    @FunctionalInterface
+    private interface Task {
+        void run(Progress progress) throws SQLException;
+    }
+
+    private static final class Progress {
+        final long deadline;
+        long pagesReclaimed;
+        boolean completed = true;
+        String finding = "ok";
+
+        Progress(long budgetMillis) {
+            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        }
+
+        boolean overBudget() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        long remainingMillis() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        }
+
+        void stopped(String why) {
+            completed = false;
+            finding = why;
+        }
+    }
+
+    private void task(String name, Task task) {
+        if (Thread.currentThread().isInterrupted()) {
+            return; // Shutting down; the rest waits for the next round
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        Progress progress = new Progress(name.equals("quick_check") ? Math.max(budgetMillis, CHECK_BUDGET_MILLIS) : budgetMillis);
+        try {
+            task.run(progress);
+        } catch (CompletionException e) {
+            progress.stopped("ERROR " + e.getCause().getMessage());
+        } catch (SQLException | RuntimeException e) {
+            progress.stopped("ERROR " + e.getMessage());
+        }
+        TaskResult result = new TaskResult(name, startedAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                progress.pagesReclaimed, progress.completed, progress.finding);
+        results.add(result);
+        System.out.println("Maintenance of school '" + database.getId() + "': " + result);
+    }
+
+    /**
+     * Switches an older file to incremental auto_vacuum. The setting only takes effect with a
+     * full VACUUM, which cannot be split up or kept within a budget, so it is left to the
+     * command line.
+     */
+    private void convertToIncremental(Progress progress) throws SQLException {
+        if (pragmaLong("auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+            progress.finding = "already INCREMENTAL";
+            return;
+        }
+        long sizeMb = pragmaLong("page_count") * pragmaLong("page_size") / (1024 * 1024);
+        if (!convert) {
+            progress.stopped("not INCREMENTAL; run SchoolCli maintenance to convert the " + sizeMb + " MB file with a full VACUUM");
+            return;
+        }
+        long freeBefore = pragmaLong("freelist_count");
+        database.getWriter().submitExclusive(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                stmt.execute("VACUUM");
+            }
+            return null;
+        }).join();
+        progress.pagesReclaimed = freeBefore;
+        progress.finding = "switched to INCREMENTAL with a full VACUUM of " + sizeMb + " MB";
+    }
+
+    /**
+     * Frees up to VACUUM_CHUNK_PAGES pages per write until the free list is empty, the budget is
+     * spent or other writes are waiting.
+     */
+    private void incrementalVacuum(Progress progress) throws SQLException {
+        if (pragmaLong("auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            progress.stopped("auto_vacuum is not INCREMENTAL; " + pragmaLong("freelist_count") + " free pages stay in the file");
+            return;
+        }
+        DatabaseWriter writer = database.getWriter();
+        long free = pragmaLong("freelist_count");
+        while (free > 0) {
+            if (progress.overBudget()) {
+                progress.stopped("budget spent; " + free + " free pages left");
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                progress.stopped("interrupted by shutdown; " + free + " free pages left");
+                return;
+            }
+            if (writer.getQueueDepth() > 0) {
+                progress.stopped("gave way to queued writes; " + free + " free pages left");
+                return;
+            }
+            long freed = writer.submit(conn -> {
+                long before = pragmaLong(conn, "freelist_count");
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("PRAGMA incremental_vacuum(" + VACUUM_CHUNK_PAGES + ")");
+                }
+                return before - pragmaLong(conn, "freelist_count");
+            }).join();
+            progress.pagesReclaimed += freed;
+            free -= freed;
+            if (freed == 0) {
+                break;
+            }
+        }
+        progress.finding = "free list empty";
+    }
+
+    /**
+     * Gathers planner statistics: a full (sampled) ANALYZE the first time, afterwards PRAGMA
+     * optimize, which re-analyzes only tables whose row counts have changed a lot.
+     */
+    private void optimize(Progress progress) throws SQLException {
+        boolean firstTime;
+        List<String> planned = new ArrayList<>();
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE name = 'sqlite_stat1'")) {
+                firstTime = !rs.next() || rs.getInt(1) == 0;
+            }
+            // optimize(-1) only lists what optimize would do
+            try (ResultSet rs = stmt.executeQuery("PRAGMA optimize(-1)")) {
+                while (rs.next()) {
+                    planned.add(rs.getString(1).replaceFirst("^ANALYZE ", "").replace("\"main\".", "").replace("\"", ""));
+                }
+            }
+        }
+        if (!firstTime && planned.isEmpty()) {
+            progress.finding = "statistics are current";
+            return;
+        }
+        database.getWriter().submit(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+                try {
+                    stmt.execute(firstTime ? "ANALYZE" : "PRAGMA optimize");
+                } finally {
+                    stmt.execute("PRAGMA analysis_limit = 0");
+                }
+            }
+            return null;
+        }).join();
+        progress.finding = firstTime ? "first ANALYZE of all tables" : "analyzed " + String.join(", ", planned);
+    }
+
+    /**
+     * Copies committed WAL frames into the database file without waiting for anyone.
+     */
+    private void checkpoint(Progress progress) throws SQLException {
+        try (Connection conn = database.openConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = withBudget(stmt, progress, "PRAGMA wal_checkpoint(PASSIVE)")) {
+            if (rs == null) {
+                return;
+            }
+            if (!rs.next() || rs.getInt(2) < 0) {
+                progress.finding = "not in WAL mode";
+                return;
+            }
+            int logFrames = rs.getInt(2);
+            int checkpointed = rs.getInt(3);
+            progress.finding = checkpointed == logFrames
+                    ? logFrames + " WAL frames, all checkpointed"
+                    : checkpointed + " of " + logFrames + " WAL frames checkpointed (readers hold the rest)";
+        }
+    }
+
+    /**
+     * Verifies the b-trees (everything integrity_check does except index contents).
+     */
+    private void quickCheck(Progress progress) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Connection conn = database.openConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = withBudget(stmt, progress, "PRAGMA quick_check(20)")) {
+            if (rs == null) {
+                return;
+            }
+            while (rs.next()) {
+                problems.add(rs.getString(1));
+            }
+        }
+        if (problems.equals(List.of("ok"))) {
+            progress.finding = "ok";
+        } else {
+            System.err.println("ERROR quick_check of school '" + database.getId() + "' found problems: " + problems);
+            progress.finding = "PROBLEMS: " + String.join("; ", problems);
+        }
+    }
+
+    /**
+     * Executes a read statement that is interrupted when the budget runs out. The interrupt hits
+     * every statement of the connection, so callers use a connection of their own, not a pooled one.
+     * @return Its result set, or null if the budget ran out first.
+     */
+    private static ResultSet withBudget(Statement stmt, Progress progress, String sql) throws SQLException {
+        if (progress.overBudget()) {
+            progress.stopped("no budget left");
+            return null;
+        }
+        ScheduledFuture<?> cancel = watchdog.schedule(() -> {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                // The statement has finished and closed meanwhile
+            }
+        }, progress.remainingMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return stmt.executeQuery(sql);
+        } catch (SQLException e) {
+            if (progress.overBudget()) {
+                progress.stopped("stopped at the budget before it finished");
+                return null;
+            }
+            throw e;
+        } finally {
+            // Both pragmas do their work before the first row, so reading the rows needs no guard
+            cancel.cancel(false);
+        }
+    }
+
+    // --- Helpers ---
+
+    // On a fresh connection: a pooled one may still see the file header from before a VACUUM
+    private long pragmaLong(String pragma) throws SQLException {
+        try (Connection conn = database.openConnection()) {
+            return pragmaLong(conn, pragma);
+        }
+    }
+
+    private static long pragmaLong(Connection conn, String pragma) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Appends the round to maintenance_log (one row per task, sharing the round's start time).
+     */
+    private void recordResults(LocalDateTime runAt) {
+        if (results.isEmpty()) {
+            return;
+        }
+        String sql = """
+                    INSERT INTO maintenance_log(run_at, task, duration_ms, pages_reclaimed, completed, finding)
+                    VALUES (?, ?, ?, ?, ?, ?)""";
+        List<TaskResult> round = List.copyOf(results);
+        // Waited for, so the scheduler's next look at lastRunAt sees this round
+        database.getWriter().submit(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (TaskResult result : round) {
+                    pstmt.setString(1, runAt.toString());
+                    pstmt.setString(2, result.task());
+                    pstmt.setLong(3, result.durationMillis());
+                    pstmt.setLong(4, result.pagesReclaimed());
+                    pstmt.setBoolean(5, result.completed());
+                    pstmt.setString(6, result.finding());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        }).exceptionally(ex -> {
+            System.err.println("SQL ERROR recording maintenance of school '" + database.getId() + "': " + ex.getMessage());
+            return null;
+        }).join();
+    }
+}
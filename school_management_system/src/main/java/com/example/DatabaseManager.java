@@ -1,77 +1,230 @@
 package com.example;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Manages the connection to the SQLite database and ensures the necessary tables exist.
+ * Routes database access to the SQLite database of the selected school.
+ *
+ * A single-school installation uses one database, {@code -Dschool.db.url} (jdbc:sqlite:school.db
+ * by default). A district lists its schools with {@code -Dschool.schools=north,south,...}; each gets
+ * its own file, {@code -Dschool.db.url.<school>} or else {@code <school.db.dir>/<school>.db}, and its
+ * own SchoolDatabase (writer thread and connection pool), created on first use. The static methods
+ * below act on the school currently selected in the UI.
  */
 public class DatabaseManager {
 
-    // The connection string for the SQLite database file
-    private static final String URL = "jdbc:sqlite:school.db";
+    // The school used when no school list is configured
+    public static final String DEFAULT_SCHOOL = "default";
+
+    private static final Map<String, SchoolDatabase> databases = new LinkedHashMap<>();
+    private static final List<String> schoolIds = new ArrayList<>();
+    private static volatile String currentSchool;
+
+    static {
+        String configured = System.getProperty("school.schools", "").trim();
+        if (configured.isEmpty()) {
+            schoolIds.add(DEFAULT_SCHOOL);
+        } else {
+            for (String id : configured.split(",")) {
+                if (!id.isBlank() && !schoolIds.contains(id.trim())) {
+                    schoolIds.add(id.trim());
+                }
+            }
+        }
+        currentSchool = System.getProperty("school.current", schoolIds.get(0));
+        if (!schoolIds.contains(currentSchool)) {
+            throw new IllegalStateException("school.current '" + currentSchool + "' is not one of " + schoolIds);
+        }
+    }
+
+    // --- Schools ---
+
+    /**
+     * The configured schools, in configuration order.
+     */
+    public static List<String> getSchoolIds() {
+        return List.copyOf(schoolIds);
+    }
+
+    public static boolean isMultiSchool() {
+        return schoolIds.size() > 1;
+    }
+
+    public static String getCurrentSchool() {
+        return currentSchool;
+    }
 
     /**
-     * Gets a connection to the SQLite database.
+     * Selects the school that the UI (and every new SchoolSystem) works with. The other schools'
+     * databases, caches and writers stay open, so switching back is immediate.
+     */
+    public static void switchSchool(String schoolId) {
+        if (!schoolIds.contains(schoolId)) {
+            throw new IllegalArgumentException("Unknown school: " + schoolId);
+        }
+        currentSchool = schoolId;
+        System.out.println("Switched to school '" + schoolId + "'.");
+    }
+
+    /**
+     * Returns the database of one school, creating its SchoolDatabase on first use.
+     */
+    public static synchronized SchoolDatabase forSchool(String schoolId) {
+        if (!schoolIds.contains(schoolId)) {
+            throw new IllegalArgumentException("Unknown school: " + schoolId);
+        }
+        return databases.computeIfAbsent(schoolId, id -> new SchoolDatabase(id, urlFor(id), isMultiSchool()));
+    }
+
+    /**
+     * Returns the database of the currently selected school.
+     */
+    public static SchoolDatabase current() {
+        return forSchool(currentSchool);
+    }
+
+    /**
+     * The databases that have been used so far (for diagnostics, backups and shutdown).
+     */
+    public static synchronized Collection<SchoolDatabase> openDatabases() {
+        return List.copyOf(databases.values());
+    }
+
+    private static String urlFor(String schoolId) {
+        if (!isMultiSchool()) {
+            return System.getProperty("school.db.url", "jdbc:sqlite:school.db");
+        }
+        String url = System.getProperty("school.db.url." + schoolId);
+        if (url != null) {
+            return url;
+        }
+        return "jdbc:sqlite:" + System.getProperty("school.db.dir", ".") + "/" + schoolId + ".db";
+    }
+
+    // --- The current school's database ---
+
+    /**
+     * Gets a connection to the current school's database.
+     * If the database is still being initialized in the background, waits for that to finish first.
      * @return A valid Connection object.
      */
     public static Connection getConnection() throws SQLException {
-        // DriverManager will create the 'school.db' file if it doesn't exist.
-        return DriverManager.getConnection(URL);
+        return current().getConnection();
     }
 
     /**
-     * Initializes the database by creating all necessary tables if they don't already exist.
+     * Returns the current school's writer thread, starting it on first use.
+     */
+    public static DatabaseWriter getWriter() {
+        return current().getWriter();
+    }
+
+    /**
+     * Returns the current school's writer if one has been started, without starting it (for diagnostics).
+     */
+    public static DatabaseWriter peekWriter() {
+        return current().peekWriter();
+    }
+
+    /**
+     * Starts creating the current school's tables on a background thread so that driver loading
+     * (including sqlite-jdbc's native library extraction) and DDL overlap with building the first screen.
+     * @return A future completed once the tables exist; getConnection() waits on it as well.
+     */
+    public static CompletableFuture<Void> initializeDatabaseAsync() {
+        return current().initializeAsync();
+    }
+
+    /**
+     * Creates the current school's tables if they don't already exist.
      */
     public static void initializeDatabase() {
-        // SQL statements to create tables
-        String sqlStudents = """
-                            CREATE TABLE IF NOT EXISTS students (
-                            id TEXT PRIMARY KEY,
-                            name TEXT NOT NULL,
-                            grade_level TEXT NOT NULL
-                            );""";
-
-        // Grades table linked to students using a Foreign Key (student_id)
-        // FIX: Changed schema from FLEXIBLE (row per subject) to FIXED (columns per subject)
-        String sqlGrades = """
-                        CREATE TABLE IF NOT EXISTS grades (
-                            student_id TEXT PRIMARY KEY,
-                            math_score INTEGER DEFAULT 0,
-                            science_score INTEGER DEFAULT 0,
-                            social_score INTEGER DEFAULT 0,
-                            english_score INTEGER DEFAULT 0,
-                            kannada_score INTEGER DEFAULT 0,
-                            FOREIGN KEY(student_id) REFERENCES students(id) ON DELETE CASCADE
-                        );""";
-
-        // Attendance table linked to students using a Foreign Key (student_id)
-        String sqlAttendance = """
-                            CREATE TABLE IF NOT EXISTS attendance (
-                                student_id TEXT NOT NULL,
-                                date TEXT NOT NULL,
-                                status TEXT NOT NULL,
-                                PRIMARY KEY (student_id, date),
-                                FOREIGN KEY (student_id) REFERENCES students (id)
-                            );""";
-        // PRESENT, ABSENT, LATE
-        
-
-        try (Connection conn = getConnection();
-            Statement stmt = conn.createStatement()) {
-
-            // Execute SQL statements to create tables
-            stmt.execute(sqlStudents);
-            stmt.execute(sqlGrades);
-            stmt.execute(sqlAttendance);
-
-            // Log the correct schema type to confirm
-            System.out.println("Database 'school.db' initialized and tables verified (Fixed Grades Schema).");
-
-        } catch (SQLException e) {
-            System.err.println(" Error initializing database: " + e.getMessage());
+        current().initialize();
+    }
+
+    // --- Maintenance ---
+
+    // Overridable with -Dschool.maintenance.* system properties (see also DatabaseMaintenance)
+    private static final long MAINTENANCE_INTERVAL_HOURS = Long.getLong("school.maintenance.intervalHours", 24);
+    private static final long MAINTENANCE_IDLE_SECONDS = Long.getLong("school.maintenance.idleSeconds", 120);
+    private static final long MAINTENANCE_CHECK_MINUTES = 1;
+
+    private static ScheduledExecutorService maintenanceScheduler;
+
+    /**
+     * Starts the maintenance scheduler: once a minute it looks for an open school whose last
+     * round is older than school.maintenance.intervalHours and that has had no commit for
+     * school.maintenance.idleSeconds, and runs DatabaseMaintenance on it. One school at a time,
+     * on a low-priority thread. An interval of 0 turns maintenance off.
+     */
+    public static synchronized void startMaintenance() {
+        if (maintenanceScheduler != null || MAINTENANCE_INTERVAL_HOURS <= 0) {
+            return;
+        }
+        maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-maintenance");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        maintenanceScheduler.scheduleWithFixedDelay(DatabaseManager::maintainIdleSchools,
+                MAINTENANCE_CHECK_MINUTES, MAINTENANCE_CHECK_MINUTES, TimeUnit.MINUTES);
+        System.out.println("Maintenance scheduler started: every " + MAINTENANCE_INTERVAL_HOURS
+                + " h, after " + MAINTENANCE_IDLE_SECONDS + " s without writes.");
+    }
+
+    /**
+     * Stops the scheduler. A running round stops at its next task (or vacuum chunk) boundary.
+     */
+    public static synchronized void stopMaintenance() {
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.shutdownNow();
+            try {
+                maintenanceScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maintenanceScheduler = null;
+        }
+    }
+
+    private static void maintainIdleSchools() {
+        for (SchoolDatabase database : openDatabases()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                DatabaseWriter writer = database.peekWriter();
+                boolean idle = database.millisSinceLastCommit() >= TimeUnit.SECONDS.toMillis(MAINTENANCE_IDLE_SECONDS)
+                        && (writer == null || writer.getQueueDepth() == 0);
+                LocalDateTime lastRun = idle ? DatabaseMaintenance.lastRunAt(database) : null;
+                if (idle && (lastRun == null || lastRun.isBefore(LocalDateTime.now().minusHours(MAINTENANCE_INTERVAL_HOURS)))) {
+                    DatabaseMaintenance.run(database, DatabaseMaintenance.TASK_BUDGET_MILLIS, false);
+                }
+            } catch (RuntimeException e) {
+                // Never let an exception cancel the periodic schedule (or skip the other schools)
+                System.err.println("MAINTENANCE ERROR for school '" + database.getId() + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Commits queued writes and stops the writers of every school. Called when the application exits.
+     */
+    public static void shutdown() {
+        for (SchoolDatabase database : openDatabases()) {
+            database.shutdown();
         }
     }
-}
\ No newline at end of file
+}
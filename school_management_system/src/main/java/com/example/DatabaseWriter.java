@@ -0,0 +1,341 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer queue for all SQLite mutations.
+ * Every write is handed to one dedicated thread which groups queued writes into a shared
+ * transaction (group commit), so writers never fight over SQLite's database lock.
+ * Callers receive a CompletableFuture that completes once the write has been committed.
+ */
+public class DatabaseWriter {
+
+    /**
+     * A unit of work executed on the writer thread inside the current batch transaction.
+     */
+    @FunctionalInterface
+    public interface WriteTask<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    // SQLite primary result codes for a locked database
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    // --- Tuning (overridable with -Dschool.writer.* system properties) ---
+    private final int maxBatchSize = Integer.getInteger("school.writer.maxBatch", 512);
+    private final long maxBatchDelayMillis = Integer.getInteger("school.writer.maxDelayMs", 5);
+    private final int maxBusyRetries = Integer.getInteger("school.writer.busyRetries", 10);
+    private final long initialBackoffMillis = Integer.getInteger("school.writer.backoffMs", 5);
+    private final long maxBackoffMillis = Integer.getInteger("school.writer.maxBackoffMs", 1000);
+
+    private final BlockingQueue<PendingWrite<?>> queue =
+            new LinkedBlockingQueue<>(Integer.getInteger("school.writer.queueCapacity", 50_000));
+    private final SchoolDatabase database;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    // Makes the running check and the put one step, so no write is queued after the final drain
+    private final Object enqueueLock = new Object();
+    private Connection conn;
+
+    // --- Statistics ---
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong committedBatches = new AtomicLong();
+    private final AtomicLong busyRetries = new AtomicLong();
+    // Longest time one batch took to commit (including busy retries) since the last reset
+    private final AtomicLong longestBatchNanos = new AtomicLong();
+
+    public DatabaseWriter(SchoolDatabase database) {
+        this.database = database;
+        writerThread = new Thread(this::runLoop, "sqlite-writer-" + database.getId());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a write for the writer thread.
+     * @return A future completed with the task's result after commit, or exceptionally if it failed.
+     */
+    public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+        return enqueue(task, false);
+    }
+
+    /**
+     * Queues a task that must run outside a batch transaction (e.g. ATTACH, VACUUM).
+     * It runs alone on the writer's connection in auto-commit mode and manages its own transaction;
+     * writes queued before it are committed first, writes queued after it wait until it finishes.
+     */
+    public <T> CompletableFuture<T> submitExclusive(WriteTask<T> task) {
+        return enqueue(task, true);
+    }
+
+    private <T> CompletableFuture<T> enqueue(WriteTask<T> task, boolean exclusive) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        synchronized (enqueueLock) {
+            if (!running) {
+                future.completeExceptionally(new RejectedExecutionException("Database writer has been shut down."));
+                return future;
+            }
+            try {
+                // May wait for room while holding the lock; the writer drains without it
+                queue.put(new PendingWrite<>(task, future, exclusive));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting new writes, commits everything already queued and closes the connection.
+     */
+    public void shutdown() {
+        synchronized (enqueueLock) {
+            running = false;
+        }
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer Thread ---
+
+    private void runLoop() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingWrite<?> first = running ? queue.take() : queue.poll();
+                    if (first == null) {
+                        break; // Shut down and fully drained
+                    }
+                    batch.add(first);
+                }
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // shutdown() wakes the writer; commit whatever was collected and keep draining
+            }
+            if (!batch.isEmpty()) {
+                commitBatch(batch);
+                batch.clear();
+            }
+        }
+        closeConnection();
+        System.out.println("Database writer for school '" + database.getId() + "' stopped (" + committedWrites.get() + " writes committed).");
+    }
+
+    /**
+     * Gathers more queued writes into the batch until it is full or the latency bound has passed.
+     */
+    private void collectBatch(List<PendingWrite<?>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Runs every write of the batch in one transaction, retrying the whole batch with
+     * exponential backoff while the database is busy. Each write runs under its own savepoint
+     * so a failing write is rolled back alone and does not take the rest of the batch with it.
+     */
+    private void commitBatch(List<PendingWrite<?>> batch) {
+        // Exclusive tasks split the batch: commit what precedes them, run them alone, continue
+        int from = 0;
+        for (int i = 0; i <= batch.size(); i++) {
+            if (i == batch.size() || batch.get(i).exclusive) {
+                if (i > from) {
+                    long started = System.nanoTime();
+                    try {
+                        commitWithRetries(batch.subList(from, i));
+                    } finally {
+                        longestBatchNanos.accumulateAndGet(System.nanoTime() - started, Math::max);
+                    }
+                }
+                if (i < batch.size()) {
+                    runExclusive(batch.get(i));
+                }
+                from = i + 1;
+            }
+        }
+    }
+
+    private void runExclusive(PendingWrite<?> pending) {
+        try {
+            Connection c = connection();
+            c.setAutoCommit(true);
+            try {
+                Object result = pending.task.execute(c);
+                committedWrites.incrementAndGet();
+                database.committed(database.bumpDataVersion(c)); // Auto-commit; the task may have changed anything
+                pending.complete(result);
+            } finally {
+                if (!c.getAutoCommit()) {
+                    c.rollback(); // The task left its own transaction open
+                }
+                c.setAutoCommit(false);
+            }
+        } catch (SQLException | RuntimeException e) {
+            failedWrites.incrementAndGet();
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private void commitWithRetries(List<PendingWrite<?>> batch) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            Object[] results = new Object[batch.size()];
+            Exception[] errors = new Exception[batch.size()];
+            try {
+                Connection c = connection();
+                for (int i = 0; i < batch.size(); i++) {
+                    Savepoint savepoint = c.setSavepoint();
+                    try {
+                        results[i] = batch.get(i).task.execute(c);
+                        c.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        if (isBusy(e)) {
+                            throw e;
+                        }
+                        c.rollback(savepoint);
+                        c.releaseSavepoint(savepoint);
+                        errors[i] = e;
+                    } catch (RuntimeException e) {
+                        c.rollback(savepoint);
+                        c.releaseSavepoint(savepoint);
+                        errors[i] = e;
+                    }
+                }
+                long version = database.bumpDataVersion(c);
+                c.commit();
+                database.committed(version);
+            } catch (SQLException e) {
+                rollbackQuietly();
+                if (isBusy(e) && attempt < maxBusyRetries) {
+                    busyRetries.incrementAndGet();
+                    pause(backoff);
+                    backoff = Math.min(backoff * 2, maxBackoffMillis);
+                    continue;
+                }
+                System.err.println("SQL ERROR committing write batch: " + e.getMessage());
+                batch.forEach(p -> p.future.completeExceptionally(e));
+                failedWrites.addAndGet(batch.size());
+                return;
+            }
+
+            committedBatches.incrementAndGet();
+            for (int i = 0; i < batch.size(); i++) {
+                if (errors[i] != null) {
+                    failedWrites.incrementAndGet();
+                    batch.get(i).future.completeExceptionally(errors[i]);
+                } else {
+                    committedWrites.incrementAndGet();
+                    batch.get(i).complete(results[i]);
+                }
+            }
+            return;
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (conn == null || conn.isClosed()) {
+            database.initialize();
+            conn = database.openConnection();
+            conn.setAutoCommit(false);
+        }
+        return conn;
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (conn != null && !conn.isClosed()) {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            // The connection is unusable; drop it so the next batch reconnects
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR closing writer connection: " + e.getMessage());
+        }
+        conn = null;
+    }
+
+    private static boolean isBusy(SQLException e) {
+        int code = e.getErrorCode() & 0xFF;
+        return code == SQLITE_BUSY || code == SQLITE_LOCKED
+                || (e.getMessage() != null && e.getMessage().contains("SQLITE_BUSY"));
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Only shutdown() interrupts the writer; retry straight away so the queue still drains
+        }
+    }
+
+    // --- Statistics Getters ---
+
+    public long getCommittedWrites() { return committedWrites.get(); }
+    public long getFailedWrites() { return failedWrites.get(); }
+    public long getCommittedBatches() { return committedBatches.get(); }
+    public long getBusyRetries() { return busyRetries.get(); }
+    public int getQueueDepth() { return queue.size(); }
+
+    /**
+     * Returns the longest batch commit time (in nanoseconds) since the previous call, and starts a new window.
+     */
+    public long resetLongestBatchNanos() { return longestBatchNanos.getAndSet(0); }
+
+    /**
+     * A queued write together with the future handed back to its caller.
+     */
+    private static final class PendingWrite<T> {
+        private final WriteTask<T> task;
+        private final CompletableFuture<T> future;
+        private final boolean exclusive;
+
+        PendingWrite(WriteTask<T> task, CompletableFuture<T> future, boolean exclusive) {
+            this.task = task;
+            this.future = future;
+            this.exclusive = exclusive;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
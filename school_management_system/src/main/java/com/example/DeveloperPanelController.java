@@ -0,0 +1,115 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/**
+ * Controller for the Developer Panel window: FX thread stalls per method (from FxStallDetector)
+ * and the subsystem statistics from Diagnostics, refreshed every second while the window is open.
+ */
+public class DeveloperPanelController {
+
+    private static Stage window;
+
+    @FXML private Label responsivenessLabel;
+    @FXML private TableView<FxStallDetector.StallSummary> stallTableView;
+    @FXML private TableColumn<FxStallDetector.StallSummary, String> methodColumn;
+    @FXML private TableColumn<FxStallDetector.StallSummary, Integer> countColumn;
+    @FXML private TableColumn<FxStallDetector.StallSummary, Long> totalColumn;
+    @FXML private TableColumn<FxStallDetector.StallSummary, Long> maxColumn;
+    @FXML private TextArea stackTextArea;
+    @FXML private TextArea diagnosticsTextArea;
+    @FXML private Label logFileLabel;
+
+    private final Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+
+    /**
+     * Opens the panel in its own window, or brings the open one to the front.
+     */
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void show() {
+        if (window != null) {
+            window.toFront();
+            return;
+        }
+        try {
+            FXMLLoader loader = new FXMLLoader(DeveloperPanelController.class.getResource("/com/example/DeveloperPanel.fxml"));
+            Parent root = loader.load();
+            DeveloperPanelController controller = loader.getController();
+            window = new Stage();
+            window.setTitle("Developer Panel");
+            window.setScene(new Scene(root));
+            window.setOnHidden(e -> {
+                controller.refresher.stop();
+                window = null;
+            });
+            window.show();
+        } catch (IOException e) {
+            System.err.println("ERROR: Could not open the developer panel: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @FXML
+    public void initialize() {
+        methodColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().method()));
+        countColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().count()));
+        totalColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().totalMillis()));
+        maxColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().maxMillis()));
+        stallTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, summary) -> showStack(summary));
+
+        logFileLabel.setText("Stall log: " + FxStallDetector.getLogFile().toAbsolutePath());
+        refresh();
+        refresher.setCycleCount(Animation.INDEFINITE);
+        refresher.play();
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleRefresh(ActionEvent event) {
+        refresh();
+    }
+
+    private void refresh() {
+        responsivenessLabel.setText("FX thread: " + FxStallDetector.describe());
+        diagnosticsTextArea.setText(Diagnostics.report());
+
+        // Keep the selected method selected across refreshes
+        FxStallDetector.StallSummary selected = stallTableView.getSelectionModel().getSelectedItem();
+        stallTableView.setItems(FXCollections.observableArrayList(FxStallDetector.getSummaries()));
+        if (selected != null) {
+            stallTableView.getItems().stream()
+                    .filter(summary -> summary.method().equals(selected.method()))
+                    .findFirst()
+                    .ifPresent(summary -> stallTableView.getSelectionModel().select(summary));
+        }
+    }
+
+    private void showStack(FxStallDetector.StallSummary summary) {
+        if (summary == null) {
+            stackTextArea.clear();
+            return;
+        }
+        FxStallDetector.Stall worst = summary.worst();
+        stackTextArea.setText(String.format("%s: %d ms at %s%n", worst.method(), worst.millis(), worst.at())
+                + worst.stack().stream().map(frame -> "    at " + frame).collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Collects the runtime statistics of the application's subsystems into one plain-text report.
+ * Printed when the application exits; call report() for the current figures at any time.
+ */
+public class Diagnostics {
+
+    public static String report() {
+        StringBuilder out = new StringBuilder("=== Diagnostics ===\n");
+        // Every school that has been used keeps its own database, writer and cache statistics
+        for (SchoolBackend backend : SchoolBackend.all()) {
+            String marker = backend.school().equals(DatabaseManager.getCurrentSchool()) ? " (current)" : "";
+            out.append("School:        ").append(backend.school()).append(marker)
+               .append(", ").append(backend.name()).append(" backend\n");
+            if (backend.isPersistent()) {
+                SchoolDatabase database = DatabaseManager.forSchool(backend.school());
+                out.append("  Database:    ").append(database.describe()).append('\n');
+                DatabaseWriter writer = database.peekWriter();
+                if (writer != null) {
+                    out.append(String.format("  Writer:      %d writes in %d batches, %d failed, %d busy retries, queue %d%n",
+                            writer.getCommittedWrites(), writer.getCommittedBatches(), writer.getFailedWrites(),
+                            writer.getBusyRetries(), writer.getQueueDepth()));
+                }
+                for (DatabaseMaintenance.TaskResult result : DatabaseMaintenance.getLastRound(backend.school())) {
+                    out.append("  Maintenance: ").append(result.startedAt().toLocalTime().withNano(0))
+                       .append(' ').append(result).append('\n');
+                }
+            }
+            out.append("  Report cache: ").append(backend.reportCache().describe()).append('\n');
+        }
+        out.append("Prefetch:      ").append(ScreenPrefetcher.describe()).append('\n');
+        out.append("Slow queries:  ").append(SlowQueryLog.describe()).append('\n');
+        // The last few in full, plan included; the rest went to the error log
+        List<SlowQueryLog.SlowQuery> slow = SlowQueryLog.getRecent();
+        for (SlowQueryLog.SlowQuery query : slow.subList(Math.max(0, slow.size() - 3), slow.size())) {
+            out.append("  ").append(query.at()).append(' ').append(query.toString().replace("\n", "\n  ")).append('\n');
+        }
+        out.append("Audit log:     ").append(AuditLog.getInstance().describe()).append('\n');
+        out.append("FX thread:     ").append(FxStallDetector.describe()).append('\n');
+        return out.toString();
+    }
+}
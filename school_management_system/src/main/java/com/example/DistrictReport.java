@@ -0,0 +1,100 @@
+package com.example;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Combines the key figures of every school in the district into one report.
+ *
+ * Each school has its own database file, writer and report cache, so the schools are queried in
+ * parallel, one task per school; a school that fails to load is reported with its error instead
+ * of failing the whole report. Figures come from each school's cached reports (grade summary and
+ * the monthly attendance counters), so a repeat run only recomputes schools whose data changed.
+ */
+public class DistrictReport {
+
+    // Name of the row that totals all schools
+    public static final String DISTRICT_ROW = "DISTRICT";
+
+    /**
+     * One school's figures (or the district total); error is null unless the school could not be read.
+     */
+    public record SchoolSummary(String school, int students, double averageGrade, int recordedDays,
+                                int absentDays, double attendanceRate, int chronicAbsentees,
+                                long elapsedMillis, String error) {}
+
+    /**
+     * Builds one row per configured school plus the district total (last), for the given months.
+     * Students below the threshold attendance rate count as chronically absent.
+     */
+    public static List<SchoolSummary> generate(YearMonth from, YearMonth to, double chronicThreshold) {
+        List<String> schools = DatabaseManager.getSchoolIds();
+        ExecutorService pool = Executors.newFixedThreadPool(schools.size(), runnable -> {
+            Thread t = new Thread(runnable, "district-report");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<SchoolSummary>> tasks = new ArrayList<>();
+            for (String school : schools) {
+                tasks.add(CompletableFuture.supplyAsync(() -> summarize(school, from, to, chronicThreshold), pool));
+            }
+            List<SchoolSummary> rows = new ArrayList<>(tasks.stream().map(CompletableFuture::join).toList());
+            rows.add(total(rows, (System.nanoTime() - start) / 1_000_000));
+            System.out.printf("District report: %d schools in %d ms.%n", schools.size(), (System.nanoTime() - start) / 1_000_000);
+            return rows;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static SchoolSummary summarize(String school, YearMonth from, YearMonth to, double chronicThreshold) {
+        long start = System.nanoTime();
+        try {
+            SchoolSystem schoolSystem = new SchoolSystem(SchoolBackend.forSchool(school));
+            List<GradeSummaryEntry> grades = schoolSystem.getGradeSummaryForAll();
+            double averageGrade = grades.stream().mapToDouble(GradeSummaryEntry::getOverallAverage).average().orElse(0);
+
+            int attended = 0;
+            int absent = 0;
+            for (AttendanceRateEntry level : schoolSystem.getAttendanceRatesByGradeLevel(from, to)) {
+                attended += level.getPresentDays() + level.getLateDays(); // LATE still counts as attending
+                absent += level.getAbsentDays();
+            }
+            int chronic = schoolSystem.getChronicAbsentees(from, to, chronicThreshold).size();
+
+            return new SchoolSummary(school, grades.size(), averageGrade, attended + absent, absent,
+                    rate(attended, absent), chronic, (System.nanoTime() - start) / 1_000_000, null);
+        } catch (RuntimeException e) {
+            System.err.println("ERROR building district report for school '" + school + "': " + e.getMessage());
+            return new SchoolSummary(school, 0, 0, 0, 0, 0, 0, (System.nanoTime() - start) / 1_000_000, e.getMessage());
+        }
+    }
+
+    private static SchoolSummary total(List<SchoolSummary> schools, long elapsedMillis) {
+        int students = 0;
+        double gradePoints = 0;
+        int recorded = 0;
+        int absent = 0;
+        int chronic = 0;
+        for (SchoolSummary school : schools) {
+            students += school.students();
+            gradePoints += school.averageGrade() * school.students(); // Weighted by school size
+            recorded += school.recordedDays();
+            absent += school.absentDays();
+            chronic += school.chronicAbsentees();
+        }
+        return new SchoolSummary(DISTRICT_ROW, students, students == 0 ? 0 : gradePoints / students,
+                recorded, absent, rate(recorded - absent, absent), chronic, elapsedMillis, null);
+    }
+
+    private static double rate(int attended, int absent) {
+        int recorded = attended + absent;
+        return recorded == 0 ? 0 : (double) attended / recorded;
+    }
+}
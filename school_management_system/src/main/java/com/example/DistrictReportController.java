@@ -0,0 +1,120 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Controller for the District Report view: one row per school and a district total, built in
+ * parallel on a background thread (see DistrictReport).
+ */
+public class DistrictReportController {
+
+    // Same definition as the Dashboard's chronic absence panel
+    private static final double CHRONIC_ABSENCE_THRESHOLD = 0.90;
+
+    @FXML private Label periodLabel;
+    @FXML private TableView<DistrictReport.SchoolSummary> reportTableView;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, String> schoolColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Integer> studentsColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Double> averageGradeColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Integer> recordedDaysColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Integer> absentDaysColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Double> attendanceRateColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Integer> chronicColumn;
+    @FXML private TableColumn<DistrictReport.SchoolSummary, Long> elapsedColumn;
+    @FXML private Button refreshButton;
+    @FXML private Label statusLabel;
+
+    @FXML
+    public void initialize() {
+        schoolColumn.setCellValueFactory(cellData -> {
+            DistrictReport.SchoolSummary row = cellData.getValue();
+            return new ReadOnlyStringWrapper(row.error() == null ? row.school() : row.school() + " (ERROR: " + row.error() + ")");
+        });
+        studentsColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().students()));
+        averageGradeColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().averageGrade()));
+        averageGradeColumn.setCellFactory(column -> new FormattedCell("%.2f"));
+        recordedDaysColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().recordedDays()));
+        absentDaysColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().absentDays()));
+        attendanceRateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().attendanceRate() * 100));
+        attendanceRateColumn.setCellFactory(column -> new FormattedCell("%.1f%%"));
+        chronicColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().chronicAbsentees()));
+        elapsedColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().elapsedMillis()));
+
+        loadReport();
+    }
+
+    /**
+     * Builds the report for the current academic year off the FX thread.
+     */
+    private void loadReport() {
+        YearMonth from = YearMonth.from(SchoolSystem.academicYearStart(LocalDate.now()));
+        YearMonth to = YearMonth.now();
+        periodLabel.setText("All " + DatabaseManager.getSchoolIds().size() + " schools, " + from + " to " + to + ".");
+        statusLabel.setText("Loading...");
+        refreshButton.setDisable(true);
+
+        Task<List<DistrictReport.SchoolSummary>> task = new Task<>() {
+            @Override
+            protected List<DistrictReport.SchoolSummary> call() {
+                return DistrictReport.generate(from, to, CHRONIC_ABSENCE_THRESHOLD);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            List<DistrictReport.SchoolSummary> rows = task.getValue();
+            reportTableView.setItems(FXCollections.observableArrayList(rows));
+            statusLabel.setText("Status: " + (rows.size() - 1) + " schools loaded in " + rows.get(rows.size() - 1).elapsedMillis() + " ms.");
+            refreshButton.setDisable(false);
+        });
+        task.setOnFailed(e -> {
+            statusLabel.setText("Status: ERROR - " + task.getException().getMessage());
+            refreshButton.setDisable(false);
+        });
+
+        Thread loader = new Thread(task, "district-report-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleRefresh(ActionEvent event) {
+        loadReport();
+    }
+
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleBack(ActionEvent event) {
+        NavigationManager.switchScene(event, "/com/example/Dashboard.fxml", "School Management System");
+    }
+
+    /**
+     * Shows a number with a fixed format.
+     */
+    private static class FormattedCell extends TableCell<DistrictReport.SchoolSummary, Double> {
+        private final String format;
+
+        FormattedCell(String format) {
+            this.format = format;
+        }
+
+        @Override
+        protected void updateItem(Double item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : String.format(format, item));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.application.Platform;
+
+/**
+ * Watches the responsiveness of the JavaFX Application Thread.
+ *
+ * A watchdog thread posts a heartbeat with Platform.runLater every few milliseconds and measures
+ * how long it takes to run. While the FX thread is busy (a database query in an event handler,
+ * a large table refresh) the heartbeat waits in the queue; once the wait passes the threshold
+ * the watchdog samples the FX thread's stack. Stalls are attributed to the controller method on
+ * that stack, aggregated per method, and appended to a rolling log file.
+ */
+public class FxStallDetector {
+
+    private static final DateTimeFormatter LOG_STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String APP_PACKAGE = "com.example.";
+    private static final String UNATTRIBUTED = "(JavaFX layout/rendering)";
+    private static final int STACK_DEPTH = 30;
+    private static final int RECENT_STALLS = 50;
+
+    // --- Configuration (overridable with -Dschool.stall.* system properties) ---
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("school.stall.enabled", "true"));
+    private static final long PULSE_MILLIS = Long.getLong("school.stall.pulseMillis", 50);
+    private static final long THRESHOLD_MILLIS = Long.getLong("school.stall.thresholdMillis", 250);
+    private static final Path LOG_FILE = Paths.get(System.getProperty("school.stall.log", "diagnostics/fx-stalls.log"));
+    private static final long LOG_MAX_BYTES = Long.getLong("school.stall.logMaxBytes", 1_000_000);
+    private static final int LOG_RETAIN = Integer.getInteger("school.stall.logRetain", 3);
+
+    private static Thread watchdog;
+    private static volatile boolean running;
+    private static volatile Thread fxThread;
+
+    // --- Statistics ---
+    private static final AtomicLong pulses = new AtomicLong();
+    private static final AtomicLong totalLatencyNanos = new AtomicLong();
+    private static final AtomicLong worstLatencyNanos = new AtomicLong();
+    private static final Map<String, MethodStalls> byMethod = new ConcurrentHashMap<>();
+    private static final Deque<Stall> recent = new ArrayDeque<>();
+
+    /**
+     * One stall: how long the FX thread did not respond, and where it was when sampled.
+     */
+    public record Stall(LocalDateTime at, long millis, String method, List<StackTraceElement> stack) {}
+
+    /**
+     * Stalls aggregated for one application method.
+     */
+    public record StallSummary(String method, int count, long totalMillis, long maxMillis, Stall worst) {}
+
+    private static final class MethodStalls {
+        private int count;
+        private long totalMillis;
+        private Stall worst;
+
+        synchronized void add(Stall stall) {
+            count++;
+            totalMillis += stall.millis();
+            if (worst == null || stall.millis() > worst.millis()) {
+                worst = stall;
+            }
+        }
+
+        synchronized StallSummary summary(String method) {
+            return new StallSummary(method, count, totalMillis, worst.millis(), worst);
+        }
+    }
+
+    /**
+     * Starts the watchdog. Call once the FX toolkit is running.
+     */
+    public static synchronized void start() {
+        if (watchdog != null || !ENABLED) {
+            return;
+        }
+        running = true;
+        watchdog = new Thread(FxStallDetector::watch, "fx-stall-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        System.out.println("FX stall detector started: threshold " + THRESHOLD_MILLIS + " ms, log " + LOG_FILE.toAbsolutePath());
+    }
+
+    public static synchronized void stop() {
+        running = false;
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog = null;
+        }
+    }
+
+    private static void watch() {
+        try {
+            while (running) {
+                CountDownLatch ran = new CountDownLatch(1);
+                long posted = System.nanoTime();
+                Platform.runLater(() -> {
+                    fxThread = Thread.currentThread();
+                    ran.countDown();
+                });
+
+                StackTraceElement[] sample = null;
+                if (!ran.await(THRESHOLD_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // Stalled: see what the FX thread is doing now, then wait for it to come back
+                    Thread fx = fxThread;
+                    sample = fx == null ? new StackTraceElement[0] : fx.getStackTrace();
+                    while (!ran.await(PULSE_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (!running) {
+                            return;
+                        }
+                    }
+                }
+
+                long latency = System.nanoTime() - posted;
+                pulses.incrementAndGet();
+                totalLatencyNanos.addAndGet(latency);
+                worstLatencyNanos.accumulateAndGet(latency, Math::max);
+                if (sample != null) {
+                    record(latency / 1_000_000, sample);
+                }
+                Thread.sleep(PULSE_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            // FX toolkit has exited; nothing left to watch
+        }
+    }
+
+    private static void record(long millis, StackTraceElement[] sample) {
+        List<StackTraceElement> stack = List.of(Arrays.copyOf(sample, Math.min(sample.length, STACK_DEPTH)));
+        Stall stall = new Stall(LocalDateTime.now(), millis, attribute(sample), stack);
+        byMethod.computeIfAbsent(stall.method(), m -> new MethodStalls()).add(stall);
+        synchronized (recent) {
+            recent.addFirst(stall);
+            if (recent.size() > RECENT_STALLS) {
+                recent.removeLast();
+            }
+        }
+        appendToLog(stall);
+    }
+
+    /**
+     * Names the method a stall belongs to as Class.method: the innermost controller frame on the
+     * stack (the event handler or loader that did the work), else the innermost application frame.
+     * Lambdas are reported under the method that declares them.
+     */
+    static String attribute(StackTraceElement[] stack) {
+        StackTraceElement appFrame = null;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (!className.startsWith(APP_PACKAGE)) {
+                continue;
+            }
+            if (simpleName(className).endsWith("Controller")) {
+                return name(frame);
+            }
+            if (appFrame == null) {
+                appFrame = frame;
+            }
+        }
+        return appFrame == null ? UNATTRIBUTED : name(appFrame);
+    }
+
+    private static String name(StackTraceElement frame) {
+        String method = frame.getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = end > 0 ? method.substring("lambda$".length(), end) : method;
+        }
+        return simpleName(frame.getClassName()) + "." + method;
+    }
+
+    // com.example.Outer$Inner -> Outer
+    private static String simpleName(String className) {
+        String simpleName = className.substring(APP_PACKAGE.length());
+        int nested = simpleName.indexOf('$');
+        return nested >= 0 ? simpleName.substring(0, nested) : simpleName;
+    }
+
+    // --- Rolling log file ---
+
+    private static void appendToLog(Stall stall) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(LOG_STAMP.format(stall.at())).append(" FX thread stalled ").append(stall.millis())
+             .append(" ms in ").append(stall.method()).append('\n');
+        for (StackTraceElement frame : stall.stack()) {
+            entry.append("\tat ").append(frame).append('\n');
+        }
+        try {
+            Files.createDirectories(LOG_FILE.toAbsolutePath().getParent());
+            if (Files.exists(LOG_FILE) && Files.size(LOG_FILE) >= LOG_MAX_BYTES) {
+                roll();
+            }
+            Files.writeString(LOG_FILE, entry, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("ERROR writing FX stall log: " + e.getMessage());
+        }
+    }
+
+    // fx-stalls.log -> fx-stalls.log.1 -> ... -> fx-stalls.log.N (dropped)
+    private static void roll() throws IOException {
+        Files.deleteIfExists(rolled(LOG_RETAIN));
+        for (int i = LOG_RETAIN - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (LOG_RETAIN > 0) {
+            Files.move(LOG_FILE, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(LOG_FILE);
+        }
+    }
+
+    private static Path rolled(int index) {
+        return LOG_FILE.resolveSibling(LOG_FILE.getFileName() + "." + index);
+    }
+
+    // --- Statistics Getters ---
+
+    public static boolean isRunning() { return running; }
+    public static long getThresholdMillis() { return THRESHOLD_MILLIS; }
+    public static Path getLogFile() { return LOG_FILE; }
+    public static long getPulses() { return pulses.get(); }
+    public static double getWorstLatencyMillis() { return worstLatencyNanos.get() / 1e6; }
+
+    public static double getAverageLatencyMillis() {
+        long count = pulses.get();
+        return count == 0 ? 0 : totalLatencyNanos.get() / 1e6 / count;
+    }
+
+    /**
+     * Stalls per method, the methods that cost the most time in total first.
+     */
+    public static List<StallSummary> getSummaries() {
+        return byMethod.entrySet().stream()
+                .map(e -> e.getValue().summary(e.getKey()))
+                .sorted(Comparator.comparingLong(StallSummary::totalMillis).reversed())
+                .toList();
+    }
+
+    /**
+     * The most recent stalls, newest first.
+     */
+    public static List<Stall> getRecentStalls() {
+        synchronized (recent) {
+            return List.copyOf(recent);
+        }
+    }
+
+    /**
+     * One-line summary for the diagnostics output.
+     */
+    public static String describe() {
+        if (pulses.get() == 0) {
+            return running ? "no pulses measured yet" : "not running";
+        }
+        List<StallSummary> summaries = getSummaries();
+        long stalls = summaries.stream().mapToLong(StallSummary::count).sum();
+        return String.format("%d pulses, avg latency %.1f ms, worst %.0f ms, %d stalls over %d ms%s",
+                getPulses(), getAverageLatencyMillis(), getWorstLatencyMillis(), stalls, THRESHOLD_MILLIS,
+                summaries.isEmpty() ? "" : ", top " + summaries.get(0).method()
+                        + " (" + summaries.get(0).totalMillis() + " ms)");
+    }
+}
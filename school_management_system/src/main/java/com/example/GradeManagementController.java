@@ -1,5 +1,6 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -16,7 +17,7 @@ import javafx.util.StringConverter;
 import java.util.Arrays;
 import java.util.List;
 
-public class GradeManagementController {
+public class GradeManagementController implements AutoCloseable {
 
     @FXML private ComboBox<Student> studentComboBox;
     // Updated FXML controls for fixed subjects
@@ -31,12 +32,14 @@ public class GradeManagementController {
     @FXML private Label statusLabel;
 
     private SchoolSystem schoolSystem;
+    private StudentListSync studentSync;
     private final ObservableList<Student> studentList = FXCollections.observableArrayList();
 
     @FXML
     public void initialize() {
         schoolSystem = new SchoolSystem();
         loadStudentData();
+        studentSync = new StudentListSync(studentList);
 
         // Configure the ComboBox to display student names
         studentComboBox.setConverter(new StringConverter<Student>() {
@@ -75,7 +78,7 @@ public class GradeManagementController {
      */
     private void loadStudentData() {
         studentList.clear();
-        studentList.addAll(schoolSystem.getAllStudents());
+        studentList.addAll(ScreenPrefetcher.claimOrLoad(ScreenPrefetcher.STUDENT_LIST, schoolSystem));
     }
     
     /**
@@ -164,10 +167,13 @@ public class GradeManagementController {
             schoolSystem.recordGrade(
                 selectedStudent.getStudentId(),
                 scores[0], scores[1], scores[2], scores[3], scores[4]
-            );
+            ).exceptionally(ex -> {
+                Platform.runLater(() -> statusLabel.setText("Error: Could not save grades for " + selectedStudent.getName() + "."));
+                return null;
+            });
             
-            // Reload students to update the StudentManagement table view (if it were open)
-            // For now, we update the local model for immediate feedback in this view
+            // Update the local model for immediate feedback; other views are patched by the
+            // GradesChanged event once the write commits
             selectedStudent.setMathScore(scores[0]);
             selectedStudent.setScienceScore(scores[1]);
             selectedStudent.setSocialScore(scores[3]);
@@ -183,6 +189,16 @@ public class GradeManagementController {
         }
     }
 
+    /**
+     * Stops listening for change events once the view is navigated away from.
+     */
+    @Override
+    public void close() {
+        if (studentSync != null) {
+            studentSync.close();
+        }
+    }
+
     @FXML
     @SuppressWarnings("unused")
     private void handleBack(ActionEvent event) {
@@ -0,0 +1,75 @@
+package com.example;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage of the five fixed subject scores per student: an append-only history of every entry,
+ * filed by grading term, and each student's latest scores.
+ */
+public interface GradeRepository {
+
+    /**
+     * The five subject scores of one student, in grades table column order.
+     */
+    record Scores(int math, int science, int social, int english, int kannada) {
+
+        public double average() {
+            return (math + science + social + english + kannada) / 5.0;
+        }
+
+        /**
+         * Per-subject change from the given earlier scores to these.
+         */
+        public Scores minus(Scores earlier) {
+            return new Scores(math - earlier.math, science - earlier.science, social - earlier.social,
+                    english - earlier.english, kannada - earlier.kannada);
+        }
+
+        @Override
+        public String toString() {
+            return "math=" + math + " science=" + science + " social=" + social
+                    + " english=" + english + " kannada=" + kannada;
+        }
+    }
+
+    /**
+     * One entry of a student's grade history. recordedAt is an ISO local date-time.
+     */
+    record TermScores(String term, String recordedAt, Scores scores) {}
+
+    /**
+     * One student's latest scores in two terms; from is null if the student has no entry in the earlier term.
+     */
+    record TermComparison(String studentId, String name, String gradeLevel, Scores from, Scores to) {
+
+        /**
+         * Per-subject change between the terms, or null without scores for the earlier term.
+         */
+        public Scores delta() {
+            return from == null ? null : to.minus(from);
+        }
+
+        public double averageDelta() {
+            return from == null ? 0.0 : to.average() - from.average();
+        }
+    }
+
+    /**
+     * Adds an entry to the student's history for the given term and makes it the student's
+     * current scores (arguments in grades table column order).
+     * @return A future completed with the scores that were replaced, or null if the student had none.
+     */
+    CompletableFuture<Scores> recordGrades(String studentId, String term, int math, int science, int social, int english, int kannada);
+
+    /**
+     * Every grade entry of one student, by term, oldest first within a term.
+     */
+    List<TermScores> getGradeHistory(String studentId);
+
+    /**
+     * Compares the latest scores in two terms for every student of a grade level with an entry
+     * in the later term, in student ID order.
+     */
+    List<TermComparison> compareTerms(String gradeLevel, String fromTerm, String toTerm);
+}
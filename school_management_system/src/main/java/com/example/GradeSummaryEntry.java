@@ -64,4 +64,16 @@ public class GradeSummaryEntry {
     public String getStudentId() { return studentId.get(); }
     public String getStudentName() { return studentName.get(); }
     public double getOverallAverage() { return overallAverage.get(); }
+
+    /**
+     * Replaces all five scores (and the average) after a GradesChanged event.
+     */
+    public void setScores(int math, int science, int social, int english, int kannada) {
+        mathScore.set(math);
+        scienceScore.set(science);
+        socialScore.set(social);
+        englishScore.set(english);
+        kannadaScore.set(kannada);
+        overallAverage.set((math + science + social + english + kannada) / 5.0);
+    }
 }
\ No newline at end of file
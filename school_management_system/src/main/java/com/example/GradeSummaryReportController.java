@@ -1,7 +1,9 @@
 package com.example;
 
 import java.text.DecimalFormat;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,7 +14,7 @@ import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
-public class GradeSummaryReportController {
+public class GradeSummaryReportController implements AutoCloseable {
 
     @FXML private TableView<GradeSummaryEntry> reportTableView;
     
@@ -33,11 +35,25 @@ public class GradeSummaryReportController {
     @FXML private Label statusLabel;
     
     private SchoolSystem schoolSystem = new SchoolSystem();
+    private final ObservableList<GradeSummaryEntry> reportEntries = FXCollections.observableArrayList();
+    private final Map<String, GradeSummaryEntry> entriesById = new HashMap<>();
+    private ChangeEventBus.Subscription subscription;
 
     @FXML
     public void initialize() {
         configureTableColumns();
         loadReportData();
+        subscription = ChangeEventBus.getInstance().subscribeOnFxThread(this::applyChange);
+    }
+
+    /**
+     * Stops listening for change events once the view is navigated away from.
+     */
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
     }
     
     private void configureTableColumns() {
@@ -73,15 +89,59 @@ public class GradeSummaryReportController {
 
     private void loadReportData() {
         // Fetch the summary records for ALL students
-        List<GradeSummaryEntry> records = schoolSystem.getGradeSummaryForAll();
+        List<GradeSummaryEntry> records = ScreenPrefetcher.claimOrLoad(ScreenPrefetcher.GRADE_SUMMARY, schoolSystem);
         
         // Populate the TableView
-        ObservableList<GradeSummaryEntry> reportEntries = FXCollections.observableArrayList(records);
+        reportEntries.setAll(records);
+        records.forEach(entry -> entriesById.put(entry.getStudentId(), entry));
         reportTableView.setItems(reportEntries);
         
         statusLabel.setText("Grade summary loaded for " + records.size() + " students.");
     }
-    
+
+    /**
+     * Patches the affected row when a change is committed while the report is open.
+     */
+    private void applyChange(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.StudentAdded added -> {
+                if (!entriesById.containsKey(added.studentId())) {
+                    GradeSummaryEntry newEntry = new GradeSummaryEntry(added.studentId(), added.name(), 0, 0, 0, 0, 0, 0);
+                    entriesById.put(added.studentId(), newEntry);
+                    reportEntries.add(newEntry);
+                }
+            }
+            case ChangeEvent.StudentUpdated updated -> {
+                GradeSummaryEntry entry = entriesById.get(updated.studentId());
+                if (entry != null) {
+                    entry.studentNameProperty().set(updated.name());
+                }
+            }
+            case ChangeEvent.StudentDeleted deleted -> {
+                GradeSummaryEntry entry = entriesById.remove(deleted.studentId());
+                if (entry != null) {
+                    reportEntries.remove(entry);
+                }
+            }
+            case ChangeEvent.StudentsDeleted deleted -> {
+                entriesById.keySet().removeAll(deleted.studentIds());
+                reportEntries.removeIf(entry -> deleted.studentIds().contains(entry.getStudentId()));
+            }
+            case ChangeEvent.GradesChanged grades -> {
+                GradeSummaryEntry entry = entriesById.get(grades.studentId());
+                if (entry != null) {
+                    entry.setScores(grades.math(), grades.science(), grades.social(), grades.english(), grades.kannada());
+                }
+            }
+            case ChangeEvent.GradeLevelsChanged changed -> {
+                // Grade levels are not shown in this report
+            }
+            case ChangeEvent.AttendanceRecorded attendance -> {
+                // Not shown in this report
+            }
+        }
+    }
+
     @FXML
     @SuppressWarnings("unused")
     private void handleBack(ActionEvent event) {
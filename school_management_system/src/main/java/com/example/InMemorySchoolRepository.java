@@ -0,0 +1,547 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Stream;
+
+/**
+ * The in-memory backend: no files, no JDBC, nothing survives the process.
+ *
+ * Students get dense int ordinals; names and grade levels live in arrays indexed by ordinal,
+ * the five scores in one flat int array (five slots per ordinal), and each student's attendance
+ * in a primitive epoch-day -> status-code hash map, so no LocalDate or String is kept per record.
+ * One read/write lock guards everything: reads run concurrently, writes are applied immediately
+ * and their futures are already complete when returned.
+ */
+public class InMemorySchoolRepository implements StudentRepository, GradeRepository, AttendanceRepository {
+
+    private static final int SUBJECTS = 5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Live students only; ordinals of deleted students are retired, never reused
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] ids = new String[64];
+    private String[] names = new String[64];
+    private String[] gradeLevels = new String[64];
+    private int[] scores = new int[64 * SUBJECTS];
+    private DayStatusMap[] attendance = new DayStatusMap[64];
+    // Ordinal -> grade entries in recording order (students without entries have none)
+    private final Map<Integer, List<GradeRepository.TermScores>> gradeHistory = new HashMap<>();
+    private int nextOrdinal;
+
+    // Status code (1-based; 0 = no record) <-> status text
+    private final List<String> statusNames = new ArrayList<>();
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+
+    // =======================================================
+    // --- STUDENTS ---
+    // =======================================================
+
+    @Override
+    public CompletableFuture<Boolean> addStudent(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(student.getStudentId())) {
+                return CompletableFuture.completedFuture(false);
+            }
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal + 1);
+            ordinals.put(student.getStudentId(), ordinal);
+            ids[ordinal] = student.getStudentId();
+            names[ordinal] = student.getName();
+            gradeLevels[ordinal] = student.getGradeLevel();
+            attendance[ordinal] = new DayStatusMap();
+            return CompletableFuture.completedFuture(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> updateStudent(String studentId, String name, String gradeLevel) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(studentId);
+            if (ordinal != null) {
+                names[ordinal] = name;
+                gradeLevels[ordinal] = gradeLevel;
+            }
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteStudent(String studentId) {
+        lock.writeLock().lock();
+        try {
+            remove(studentId);
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> deleteStudents(Collection<String> studentIds, DoubleConsumer progress) {
+        lock.writeLock().lock();
+        try {
+            Set<String> deleted = new LinkedHashSet<>();
+            for (String studentId : studentIds) {
+                if (remove(studentId)) {
+                    deleted.add(studentId);
+                }
+            }
+            report(progress);
+            return CompletableFuture.completedFuture(deleted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> deleteGradeLevel(String gradeLevel, DoubleConsumer progress) {
+        lock.writeLock().lock();
+        try {
+            Set<String> deleted = new LinkedHashSet<>();
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (ids[ordinal] != null && gradeLevel.equals(gradeLevels[ordinal])) {
+                    deleted.add(ids[ordinal]);
+                }
+            }
+            deleted.forEach(this::remove);
+            report(progress);
+            return CompletableFuture.completedFuture(deleted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> renameGradeLevels(Map<String, String> renames, DoubleConsumer progress) {
+        lock.writeLock().lock();
+        try {
+            int updated = 0;
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                String newLevel = ids[ordinal] == null ? null : renames.get(gradeLevels[ordinal]);
+                if (newLevel != null) {
+                    gradeLevels[ordinal] = newLevel;
+                    updated++;
+                }
+            }
+            report(progress);
+            return CompletableFuture.completedFuture(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int countStudents() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams students in ID order. Each student is copied out under the read lock when the
+     * stream reaches it; students deleted in the meantime are skipped.
+     */
+    @Override
+    public Stream<Student> streamStudents(StudentProjection projection) {
+        List<String> sortedIds;
+        lock.readLock().lock();
+        try {
+            if (projection.getStudentId() != null) {
+                sortedIds = ordinals.containsKey(projection.getStudentId()) ? List.of(projection.getStudentId()) : List.of();
+            } else {
+                sortedIds = ordinals.keySet().stream().sorted().toList();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return sortedIds.stream().map(id -> toStudent(id, projection)).filter(s -> s != null);
+    }
+
+    private Student toStudent(String studentId, StudentProjection projection) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(studentId);
+            if (ordinal == null) {
+                return null;
+            }
+            Student s = new Student(studentId, names[ordinal], gradeLevels[ordinal]);
+            if (projection.includesGrades()) {
+                int base = ordinal * SUBJECTS;
+                s.setMathScore(scores[base]);
+                s.setScienceScore(scores[base + 1]);
+                s.setSocialScore(scores[base + 2]);
+                s.setEnglishScore(scores[base + 3]);
+                s.setKannadaScore(scores[base + 4]);
+            }
+            if (projection.includesAttendance()) {
+                long from = projection.getAttendanceFrom() == null ? Long.MIN_VALUE : projection.getAttendanceFrom().toEpochDay();
+                long to = projection.getAttendanceTo() == null ? Long.MAX_VALUE : projection.getAttendanceTo().toEpochDay();
+                attendance[ordinal].forEach((day, code) -> {
+                    if (day >= from && day <= to) {
+                        s.recordAttendance(LocalDate.ofEpochDay(day), statusNames.get(code - 1));
+                    }
+                });
+            }
+            return s;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private boolean remove(String studentId) {
+        Integer ordinal = ordinals.remove(studentId);
+        if (ordinal == null) {
+            return false;
+        }
+        ids[ordinal] = null;
+        names[ordinal] = null;
+        gradeLevels[ordinal] = null;
+        attendance[ordinal] = null;
+        gradeHistory.remove(ordinal);
+        Arrays.fill(scores, ordinal * SUBJECTS, (ordinal + 1) * SUBJECTS, 0);
+        return true;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        gradeLevels = Arrays.copyOf(gradeLevels, capacity);
+        scores = Arrays.copyOf(scores, capacity * SUBJECTS);
+        attendance = Arrays.copyOf(attendance, capacity);
+    }
+
+    private static void report(DoubleConsumer progress) {
+        if (progress != null) {
+            progress.accept(1.0);
+        }
+    }
+
+    // =======================================================
+    // --- GRADES ---
+    // =======================================================
+
+    @Override
+    public CompletableFuture<GradeRepository.Scores> recordGrades(String studentId, String term,
+                                                               int math, int science, int social, int english, int kannada) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(studentId);
+            if (ordinal == null) {
+                // Mirrors the grades table's foreign key
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown student ID: " + studentId));
+            }
+            int base = ordinal * SUBJECTS;
+            // Every student has a grade row from addStudent on, as in the SQLite schema
+            GradeRepository.Scores previous = new GradeRepository.Scores(
+                    scores[base], scores[base + 1], scores[base + 2], scores[base + 3], scores[base + 4]);
+            scores[base] = math;
+            scores[base + 1] = science;
+            scores[base + 2] = social;
+            scores[base + 3] = english;
+            scores[base + 4] = kannada;
+            gradeHistory.computeIfAbsent(ordinal, o -> new ArrayList<>()).add(new GradeRepository.TermScores(
+                    term, LocalDateTime.now().withNano(0).toString(), new GradeRepository.Scores(math, science, social, english, kannada)));
+            return CompletableFuture.completedFuture(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<GradeRepository.TermScores> getGradeHistory(String studentId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(studentId);
+            List<GradeRepository.TermScores> history = ordinal == null ? null : gradeHistory.get(ordinal);
+            if (history == null) {
+                return new ArrayList<>();
+            }
+            List<GradeRepository.TermScores> sorted = new ArrayList<>(history);
+            sorted.sort(Comparator.comparing(GradeRepository.TermScores::term)); // Stable: recording order within a term
+            return sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<GradeRepository.TermComparison> compareTerms(String gradeLevel, String fromTerm, String toTerm) {
+        List<GradeRepository.TermComparison> comparisons = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            gradeHistory.forEach((ordinal, history) -> {
+                if (!gradeLevel.equals(gradeLevels[ordinal])) {
+                    return;
+                }
+                // The last entry of each term wins, as MAX(seq) does in SQLite
+                GradeRepository.Scores from = null;
+                GradeRepository.Scores to = null;
+                for (GradeRepository.TermScores entry : history) {
+                    if (entry.term().equals(fromTerm)) {
+                        from = entry.scores();
+                    }
+                    if (entry.term().equals(toTerm)) {
+                        to = entry.scores();
+                    }
+                }
+                if (to != null) {
+                    comparisons.add(new GradeRepository.TermComparison(ids[ordinal], names[ordinal], gradeLevel, from, to));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        comparisons.sort(Comparator.comparing(GradeRepository.TermComparison::studentId));
+        return comparisons;
+    }
+
+    // =======================================================
+    // --- ATTENDANCE ---
+    // =======================================================
+
+    @Override
+    public CompletableFuture<String> recordAttendance(String studentId, LocalDate date, String status) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(studentId);
+            if (ordinal == null) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown student ID: " + studentId));
+            }
+            byte previous = attendance[ordinal].put((int) date.toEpochDay(), statusCode(status));
+            return CompletableFuture.completedFuture(previous == 0 ? null : statusNames.get(previous - 1));
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private byte statusCode(String status) {
+        Byte code = statusCodes.get(status);
+        if (code == null) {
+            if (statusNames.size() == 255) {
+                throw new IllegalStateException("Too many distinct attendance statuses");
+            }
+            statusNames.add(status);
+            code = (byte) statusNames.size();
+            statusCodes.put(status, code);
+        }
+        return code;
+    }
+
+    @Override
+    public void forEachRecord(RecordVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (ids[ordinal] != null) {
+                    String studentId = ids[ordinal];
+                    attendance[ordinal].forEach((day, code) ->
+                        visitor.visit(studentId, LocalDate.ofEpochDay(day), statusNames.get(code - 1)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<AttendanceReportEntry> getPivotedAttendanceReport(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        List<AttendanceReportEntry> entries = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (ids[ordinal] == null) {
+                    continue;
+                }
+                Map<LocalDate, String> days = new HashMap<>();
+                attendance[ordinal].forEach((day, code) -> {
+                    if (day >= from && day <= to) {
+                        days.put(LocalDate.ofEpochDay(day), statusNames.get(code - 1));
+                    }
+                });
+                entries.add(new AttendanceReportEntry(ids[ordinal], names[ordinal], days));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entries;
+    }
+
+    @Override
+    public List<AttendanceRateEntry> getChronicAbsentees(YearMonth from, YearMonth to, double threshold) {
+        List<AttendanceRateEntry> entries = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (ids[ordinal] == null) {
+                    continue;
+                }
+                int[] counts = countStatuses(ordinal, from, to);
+                AttendanceRateEntry entry = new AttendanceRateEntry(ids[ordinal], names[ordinal], gradeLevels[ordinal],
+                        counts[0], counts[1], counts[2]);
+                if (entry.getRecordedDays() > 0 && entry.getAttendanceRate() < threshold) {
+                    entries.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        entries.sort(Comparator.comparingDouble(AttendanceRateEntry::getAttendanceRate)
+                .thenComparing(AttendanceRateEntry::getStudentName));
+        return entries;
+    }
+
+    @Override
+    public List<AttendanceRateEntry> getAttendanceRatesByGradeLevel(YearMonth from, YearMonth to) {
+        // Grade level -> {present, absent, late}, sorted like ORDER BY grade_level
+        Map<String, int[]> totals = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (ids[ordinal] == null) {
+                    continue;
+                }
+                int[] counts = countStatuses(ordinal, from, to);
+                int[] total = totals.computeIfAbsent(gradeLevels[ordinal], level -> new int[3]);
+                for (int i = 0; i < 3; i++) {
+                    total[i] += counts[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<AttendanceRateEntry> entries = new ArrayList<>();
+        totals.forEach((level, t) -> entries.add(new AttendanceRateEntry(null, null, level, t[0], t[1], t[2])));
+        return entries;
+    }
+
+    // Caller holds the read lock; returns {present, absent, late} over the months
+    private int[] countStatuses(int ordinal, YearMonth from, YearMonth to) {
+        long first = from.atDay(1).toEpochDay();
+        long last = to.atEndOfMonth().toEpochDay();
+        Byte present = statusCodes.get("PRESENT");
+        Byte absent = statusCodes.get("ABSENT");
+        Byte late = statusCodes.get("LATE");
+        int[] counts = new int[3];
+        attendance[ordinal].forEach((day, code) -> {
+            if (day >= first && day <= last) {
+                if (present != null && code == present) {
+                    counts[0]++;
+                } else if (absent != null && code == absent) {
+                    counts[1]++;
+                } else if (late != null && code == late) {
+                    counts[2]++;
+                }
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Open-addressing hash map from epoch day (int) to status code (byte), without boxing.
+     */
+    private static final class DayStatusMap {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] days = newKeys(16);
+        private byte[] codes = new byte[16];
+        private int size;
+
+        @FunctionalInterface
+        interface Visitor {
+            void visit(int day, byte code);
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        /**
+         * @return The code replaced, or 0 if the day had none.
+         */
+        byte put(int day, byte code) {
+            if ((size + 1) * 2 > days.length) {
+                rehash(days.length * 2);
+            }
+            int slot = slot(days, day);
+            byte previous = 0;
+            if (days[slot] == EMPTY) {
+                days[slot] = day;
+                size++;
+            } else {
+                previous = codes[slot];
+            }
+            codes[slot] = code;
+            return previous;
+        }
+
+        void forEach(Visitor visitor) {
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] != EMPTY) {
+                    visitor.visit(days[i], codes[i]);
+                }
+            }
+        }
+
+        private static int slot(int[] keys, int day) {
+            int mask = keys.length - 1;
+            int h = day * 0x9E3779B9;
+            int i = (h ^ (h >>> 16)) & mask;
+            while (keys[i] != EMPTY && keys[i] != day) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldDays = days;
+            byte[] oldCodes = codes;
+            days = newKeys(capacity);
+            codes = new byte[capacity];
+            for (int i = 0; i < oldDays.length; i++) {
+                if (oldDays[i] != EMPTY) {
+                    int slot = slot(days, oldDays[i]);
+                    days[slot] = oldDays[i];
+                    codes[slot] = oldCodes[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example;
+
+/**
+ * Plain entry point for starting the application from the class path (e.g. the AppCDS runs in pom.xml).
+ * The JVM refuses to launch a main class that extends Application unless JavaFX is on the module path,
+ * so this class only delegates to Main.
+ */
+public class Launcher {
+
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+}
@@ -14,13 +14,39 @@ public class Main extends Application {
     private static final int WIDTH = 1100; 
     private static final int HEIGHT = 650;
 
+    // Classes the other views need; loading them early keeps the first navigation snappy
+    private static final String[] WARM_UP_CLASSES = {
+        "com.example.StudentManagementController",
+        "com.example.GradeManagementController",
+        "com.example.AttendanceTrackingController",
+        "com.example.AttendanceReportController",
+        "com.example.GradeSummaryReportController",
+        "com.example.DistrictReportController",
+        "javafx.scene.control.DatePicker",
+        "javafx.scene.control.skin.DatePickerSkin",
+        "javafx.scene.control.skin.ComboBoxListViewSkin",
+        "javafx.scene.control.skin.TableViewSkin",
+        "javafx.scene.control.skin.TextFieldSkin",
+    };
+
     @Override
     @SuppressWarnings("CallToPrintStackTrace")
     public void start(Stage primaryStage) {
+        StartupTimer.mark("fx-start");
+
+        // 1. Open the database in the background; the Dashboard is drawn without waiting for it
+        if (SchoolBackend.current().isPersistent()) {
+            DatabaseManager.initializeDatabaseAsync().thenRun(() -> {
+                StartupTimer.mark("database-ready");
+                BackupManager.start();
+                DatabaseManager.startMaintenance();
+            });
+        } else {
+            StartupTimer.mark("database-ready"); // The in-memory backend needs no setup
+        }
+        warmUpInBackground();
+
         try {
-            // 1. Initialize the database before loading the UI
-            DatabaseManager.initializeDatabase();
-            
             // 2. Load the FXML file for the main application layout (The Dashboard)
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/Dashboard.fxml"));
             Parent root = loader.load();
@@ -28,8 +54,11 @@ public class Main extends Application {
             // 3. Set up the primary stage (the main window)
             primaryStage.setTitle("School Management System");
             // Use the new, larger dimensions
-            primaryStage.setScene(new Scene(root, WIDTH, HEIGHT)); 
+            Scene scene = new Scene(root, WIDTH, HEIGHT);
+            StartupTimer.trackFirstFrame(scene);
+            primaryStage.setScene(scene); 
             primaryStage.show();
+            FxStallDetector.start();
             
         } catch (IOException e) {
             System.err.println("ERROR: Could not load FXML file. Check path and file: " + e.getMessage());
@@ -37,6 +66,37 @@ public class Main extends Application {
         }
     }
 
+    /**
+     * Loads and initializes the classes of the other views on a low-priority thread.
+     */
+    private static void warmUpInBackground() {
+        Thread warmer = new Thread(() -> {
+            for (String className : WARM_UP_CLASSES) {
+                try {
+                    Class.forName(className, true, Main.class.getClassLoader());
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // Warm-up is best effort only
+                }
+            }
+        }, "startup-warmup");
+        warmer.setDaemon(true);
+        warmer.setPriority(Thread.MIN_PRIORITY);
+        warmer.start();
+    }
+
+    /**
+     * Flushes any queued database writes before the JVM exits.
+     */
+    @Override
+    public void stop() {
+        FxStallDetector.stop();
+        System.out.print(Diagnostics.report());
+        DatabaseManager.stopMaintenance();
+        BackupManager.stop();
+        DatabaseManager.shutdown();
+        AuditLog.shutdown(); // After the writer, whose last commits still add audit entries
+    }
+
     /**
      * The main method now simply starts the JavaFX application lifecycle.
      */
@@ -17,6 +17,9 @@ import javafx.stage.Stage;
  */
 public class NavigationManager {
 
+    // Key under which each loaded view's root remembers its controller
+    private static final String CONTROLLER_KEY = "com.example.controller";
+
     /**
      * Switches the current scene to the specified FXML view.
      *
@@ -29,12 +32,31 @@ public class NavigationManager {
         try {
             FXMLLoader loader = new FXMLLoader(NavigationManager.class.getResource(fxmlFile));
             Parent root = loader.load();
-            Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+            root.getProperties().put(CONTROLLER_KEY, loader.getController());
+            Scene oldScene = ((Node) event.getSource()).getScene();
+            Stage stage = (Stage) oldScene.getWindow();
             stage.setScene(new Scene(root));
+            closeController(oldScene.getRoot());
+            // The new screen has claimed what it needed; nothing else prefetched will be used
+            ScreenPrefetcher.cancelAll();
             stage.setTitle(title);
         } catch (IOException e) {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Error loading view: " + fxmlFile, ButtonType.OK).showAndWait();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lets the controller of a view that is being replaced release its resources
+     * (e.g. change event subscriptions), if it holds any.
+     */
+    private static void closeController(Parent root) {
+        if (root.getProperties().get(CONTROLLER_KEY) instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.err.println("ERROR closing view controller: " + e.getMessage());
+            }
+        }
+    }
+}
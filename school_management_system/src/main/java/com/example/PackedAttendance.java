@@ -0,0 +1,211 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The packed attendance layout: one row per student and month in {@code attendance_packed},
+ * whose {@code days} column holds two bits per day of the month (day 1 in the lowest bits;
+ * 0 = no record, 1 = PRESENT, 2 = ABSENT, 3 = LATE). 31 days fit in one 64-bit INTEGER, so
+ * SQLite's own bit operators can read and update a single day without Java in between.
+ *
+ * A database gets this layout when it is created with {@code -Dschool.attendance.layout=packed}
+ * (or {@code school.attendance.layout.<school>} for one school); the layout of an existing file
+ * never changes. Packed databases also have an {@code attendance} view with the daily row shape,
+ * so occasional readers (change log backfill, archiving) work on both layouts; the frequent
+ * readers decode the months themselves with {@link #decode}.
+ */
+public final class PackedAttendance {
+
+    public static final String DAILY = "daily";
+    public static final String PACKED = "packed";
+
+    // Index = code stored in the two bits of a day
+    private static final String[] STATUSES = {null, "PRESENT", "ABSENT", "LATE"};
+
+    // Days of the months decoded so far ("2025-09" -> its LocalDates), shared by all readers
+    private static final Map<String, LocalDate[]> monthDays = new ConcurrentHashMap<>();
+
+    private PackedAttendance() {
+    }
+
+    /**
+     * The layout a new database of the given school is created with.
+     */
+    static String configuredLayout(String school) {
+        String layout = System.getProperty("school.attendance.layout." + school,
+                System.getProperty("school.attendance.layout", DAILY));
+        if (!DAILY.equals(layout) && !PACKED.equals(layout)) {
+            throw new IllegalArgumentException("Unknown school.attendance.layout '" + layout + "' (use daily or packed)");
+        }
+        return layout;
+    }
+
+    // --- Encoding ---
+
+    /**
+     * The two-bit code of a status, or 0 for anything the layout cannot store.
+     */
+    static int code(String status) {
+        for (int code = 1; code < STATUSES.length; code++) {
+            if (STATUSES[code].equals(status)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static int shift(int dayOfMonth) {
+        return 2 * (dayOfMonth - 1);
+    }
+
+    /**
+     * The bits of every day of the month between the two dates (inclusive).
+     */
+    static long mask(YearMonth month, LocalDate from, LocalDate to) {
+        int first = from == null || from.isBefore(month.atDay(1)) ? 1 : from.getDayOfMonth();
+        int last = to == null || to.isAfter(month.atEndOfMonth()) ? month.lengthOfMonth() : to.getDayOfMonth();
+        if (first > last) {
+            return 0;
+        }
+        return ((1L << (2 * last)) - 1) & -(1L << shift(first));
+    }
+
+    /**
+     * The number of days recorded in a month's bits.
+     */
+    static int count(long days) {
+        return Long.bitCount((days | days >>> 1) & 0x5555_5555_5555_5555L);
+    }
+
+    // --- Writing (within the current write) ---
+
+    /**
+     * Records one day, keeping the rest of the month.
+     * @return The status being replaced, or null if the day had no record.
+     * @throws SQLException for a status other than PRESENT, ABSENT or LATE.
+     */
+    static String write(Connection conn, String studentId, LocalDate date, String status) throws SQLException {
+        int code = code(status);
+        if (code == 0) {
+            throw new SQLException("Unknown attendance status '" + status + "' (the packed layout stores PRESENT, ABSENT and LATE)");
+        }
+        String month = YearMonth.from(date).toString();
+        int shift = shift(date.getDayOfMonth());
+
+        int previous = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT days FROM attendance_packed WHERE student_id = ? AND month = ?")) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, month);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    previous = (int) (rs.getLong(1) >>> shift) & 3;
+                }
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                INSERT INTO attendance_packed(student_id, month, days) VALUES(?, ?, ?)
+                ON CONFLICT(student_id, month) DO UPDATE SET days = (days & ~?) | excluded.days""")) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, month);
+            pstmt.setLong(3, (long) code << shift);
+            pstmt.setLong(4, 3L << shift);
+            pstmt.executeUpdate();
+        }
+        return STATUSES[previous];
+    }
+
+    /**
+     * Copies every record between the two dates (inclusive) into a table of the daily shape
+     * (student_id, date, status), reading only the months in range.
+     * @return The number of day records copied.
+     */
+    static int copyRange(Connection conn, String table, LocalDate start, LocalDate end) throws SQLException {
+        int copied = 0;
+        List<Object[]> month = new ArrayList<>(31);
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT student_id, month, days FROM main.attendance_packed WHERE month BETWEEN ? AND ?");
+            PreparedStatement insert = conn.prepareStatement(
+                "INSERT OR REPLACE INTO " + table + "(student_id, date, status) VALUES(?, ?, ?)")) {
+            select.setString(1, YearMonth.from(start).toString());
+            select.setString(2, YearMonth.from(end).toString());
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    month.clear();
+                    decode(rs.getString(1), rs.getString(2), rs.getLong(3), start, end,
+                            (studentId, date, status) -> month.add(new Object[] {studentId, date.toString(), status}));
+                    for (Object[] record : month) {
+                        for (int i = 0; i < record.length; i++) {
+                            insert.setObject(i + 1, record[i]);
+                        }
+                        copied += insert.executeUpdate();
+                    }
+                }
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Removes every record between the two dates (inclusive); months left empty are deleted.
+     * @return The number of day records removed.
+     */
+    static int deleteRange(Connection conn, LocalDate start, LocalDate end) throws SQLException {
+        int removed = 0;
+        for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.from(end)); month = month.plusMonths(1)) {
+            long mask = mask(month, start, end);
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT days FROM attendance_packed WHERE month = ?")) {
+                pstmt.setString(1, month.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        removed += count(rs.getLong(1) & mask);
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE attendance_packed SET days = days & ~? WHERE month = ?")) {
+                pstmt.setLong(1, mask);
+                pstmt.setString(2, month.toString());
+                pstmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM attendance_packed WHERE month BETWEEN ? AND ? AND days = 0")) {
+            pstmt.setString(1, YearMonth.from(start).toString());
+            pstmt.setString(2, YearMonth.from(end).toString());
+            pstmt.executeUpdate();
+        }
+        return removed;
+    }
+
+    // --- Reading ---
+
+    /**
+     * Visits the records of one student-month row that fall between the two dates (inclusive;
+     * null means unbounded), in day order.
+     */
+    static void decode(String studentId, String month, long days, LocalDate from, LocalDate to,
+                       AttendanceRepository.RecordVisitor visitor) {
+        LocalDate[] dates = datesOf(month);
+        if (from != null || to != null) {
+            days &= mask(YearMonth.parse(month), from, to);
+        }
+        while (days != 0) {
+            int shift = Long.numberOfTrailingZeros(days) & ~1;
+            visitor.visit(studentId, dates[shift / 2], STATUSES[(int) (days >>> shift) & 3]);
+            days &= ~(3L << shift);
+        }
+    }
+
+    private static LocalDate[] datesOf(String month) {
+        return monthDays.computeIfAbsent(month, m -> YearMonth.parse(m).atDay(1)
+                .datesUntil(YearMonth.parse(m).plusMonths(1).atDay(1)).toArray(LocalDate[]::new));
+    }
+}
@@ -0,0 +1,190 @@
+package com.example;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * LRU cache of report results, keyed by report type and parameters.
+ *
+ * Every data domain has a generation counter that only ever increases; SchoolSystem bumps it
+ * after each committed write. A cached result remembers the generations of the domains it was
+ * computed from and is served only while none of them has moved, so results stay exact without
+ * any explicit invalidation of individual entries. Writes that never pass through SchoolSystem
+ * (another process committing to the same SQLite file) are covered by an external stamp that
+ * the backend supplies and that counts against every domain.
+ *
+ * Results are shared between callers: treat the returned lists (and the entries in them) as
+ * read-only until the data they came from changes.
+ */
+public class ReportCache {
+
+    /**
+     * The kinds of data a report can depend on.
+     */
+    public enum Domain { STUDENTS, GRADES, ATTENDANCE }
+
+    // --- Limits (overridable with -Dschool.cache.* system properties) ---
+    private final int maxEntries = Integer.getInteger("school.cache.maxEntries", 64);
+    // Total weight (roughly: rows plus cells) of all cached results
+    private final long maxWeight = Long.getLong("school.cache.maxWeight", 2_000_000);
+
+    private final Map<Domain, AtomicLong> generations = new LinkedHashMap<>();
+    // Moves when the data changes outside this process; must only ever grow
+    private final LongSupplier externalChanges;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    private long totalWeight;
+
+    // --- Statistics ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    private record Key(String report, List<Object> parameters) {}
+
+    private record Entry(Object value, long generation, int weight) {}
+
+    public ReportCache() {
+        this(() -> 0);
+    }
+
+    /**
+     * @param externalChanges A count of changes made outside this process (e.g.
+     *        SchoolDatabase::externalCommits), read on every lookup, so it must be cheap.
+     */
+    public ReportCache(LongSupplier externalChanges) {
+        this.externalChanges = externalChanges;
+        for (Domain domain : Domain.values()) {
+            generations.put(domain, new AtomicLong());
+        }
+    }
+
+    /**
+     * Returns the cached result for the report and parameters, or computes and caches it.
+     * The loader runs outside the cache lock; if data changes while it runs, the result is
+     * returned but will not be served again.
+     */
+    public <T> T get(String report, List<Object> parameters, Set<Domain> dependsOn,
+                     Supplier<T> loader, ToIntFunction<T> weigher) {
+        Key key = new Key(report, parameters);
+        long generation = generation(dependsOn);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.generation() == generation) {
+                hits.incrementAndGet();
+                @SuppressWarnings("unchecked")
+                T value = (T) entry.value();
+                return value;
+            }
+        }
+
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        T value = loader.get();
+        loadNanos.addAndGet(System.nanoTime() - start);
+        put(key, new Entry(value, generation, Math.max(1, weigher.applyAsInt(value))));
+        return value;
+    }
+
+    /**
+     * Marks the given domains as changed; cached results that depend on them become stale.
+     */
+    public void bump(Set<Domain> changed) {
+        changed.forEach(domain -> generations.get(domain).incrementAndGet());
+    }
+
+    /**
+     * Bumps the domains a committed change event touches.
+     */
+    public void bump(ChangeEvent event) {
+        bump(switch (event) {
+            case ChangeEvent.StudentAdded e -> EnumSet.of(Domain.STUDENTS, Domain.GRADES);
+            case ChangeEvent.StudentUpdated e -> EnumSet.of(Domain.STUDENTS);
+            case ChangeEvent.GradeLevelsChanged e -> EnumSet.of(Domain.STUDENTS);
+            case ChangeEvent.StudentDeleted e -> EnumSet.allOf(Domain.class);
+            case ChangeEvent.StudentsDeleted e -> EnumSet.allOf(Domain.class);
+            case ChangeEvent.GradesChanged e -> EnumSet.of(Domain.GRADES);
+            case ChangeEvent.AttendanceRecorded e -> EnumSet.of(Domain.ATTENDANCE);
+        });
+    }
+
+    /**
+     * A stamp of the given domains that changes exactly when one of them is bumped or the data
+     * changes outside this process (all counts only grow, so their sum changes exactly when one
+     * of them does).
+     */
+    long generation(Set<Domain> domains) {
+        return externalChanges.getAsLong() + domainGeneration(domains);
+    }
+
+    /**
+     * The part of generation() counted in this process: moves when one of the domains is bumped.
+     * Unlike generation() it never touches the database, so it is safe on the FX thread.
+     */
+    long domainGeneration(Set<Domain> domains) {
+        long sum = 0;
+        for (Domain domain : domains) {
+            sum += generations.get(domain).get();
+        }
+        return sum;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        if (entry.weight() > maxWeight) {
+            return; // Larger than the whole cache; caching it would only evict everything else
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalWeight -= previous.weight();
+        }
+        totalWeight += entry.weight();
+
+        // Evict least recently used entries until both limits hold
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && eldest.hasNext()) {
+            Map.Entry<Key, Entry> victim = eldest.next();
+            if (victim.getKey().equals(key)) {
+                continue;
+            }
+            totalWeight -= victim.getValue().weight();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    // --- Statistics Getters ---
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public synchronized int getSize() { return entries.size(); }
+    public synchronized long getTotalWeight() { return totalWeight; }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * One-line summary for the diagnostics output.
+     */
+    public String describe() {
+        long loads = misses.get();
+        return String.format("%d entries (weight %d), hits %d, misses %d, hit rate %.1f%%, evictions %d, avg load %.1f ms",
+                getSize(), getTotalWeight(), getHits(), loads, getHitRate() * 100, getEvictions(),
+                loads == 0 ? 0.0 : loadNanos.get() / 1e6 / loads);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Writes one report card file per student (five subject scores, total, average and the term's
+ * attendance rate) into a directory.
+ *
+ * One reader thread streams students from the database (see StudentCursor) and hands them to a
+ * fixed pool with one worker per core. A semaphore caps the number of students that have been
+ * read but not yet written, so the reader waits for the workers instead of filling the heap.
+ */
+public class ReportCardGenerator {
+
+    // Students in flight per worker thread (read but not yet rendered)
+    private static final int IN_FLIGHT_PER_WORKER = 8;
+
+    /**
+     * Receives (cards written, total students) after every card, from worker threads.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+
+    /**
+     * Outcome of a run; {@code failed} counts cards that could not be written.
+     */
+    public record Result(Path directory, int written, int failed, long elapsedMillis, boolean cancelled) {
+        public double cardsPerSecond() {
+            return elapsedMillis == 0 ? written : written * 1000.0 / elapsedMillis;
+        }
+    }
+
+    private final SchoolSystem schoolSystem;
+    private final int workers;
+
+    public ReportCardGenerator(SchoolSystem schoolSystem) {
+        this(schoolSystem, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ReportCardGenerator(SchoolSystem schoolSystem, int workers) {
+        this.schoolSystem = schoolSystem;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * A running generation; cancel() stops reading new students and lets the ones in flight finish.
+     */
+    public static final class Job {
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        public CompletableFuture<Result> result() { return result; }
+        public void cancel() { cancelled = true; }
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    /**
+     * Starts generating report cards for every student into {@code directory}.
+     * Attendance is counted between {@code termStart} and {@code termEnd} (inclusive).
+     */
+    public Job start(Path directory, LocalDate termStart, LocalDate termEnd, ProgressListener progress) {
+        Job job = new Job();
+        Thread reader = new Thread(() -> run(job, directory, termStart, termEnd, progress), "report-card-reader");
+        reader.setDaemon(true);
+        reader.start();
+        return job;
+    }
+
+    private void run(Job job, Path directory, LocalDate termStart, LocalDate termEnd, ProgressListener progress) {
+        long start = System.nanoTime();
+        int total = schoolSystem.countStudents();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(workers * IN_FLIGHT_PER_WORKER);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread t = new Thread(runnable, "report-card-worker");
+            t.setDaemon(true);
+            return t;
+        });
+
+        StudentProjection projection = StudentProjection.full().attendanceBetween(termStart, termEnd);
+        try (Stream<Student> students = schoolSystem.streamStudents(projection)) {
+            Files.createDirectories(directory);
+            var iterator = students.iterator();
+            while (!job.isCancelled() && iterator.hasNext()) {
+                inFlight.acquire(); // Backpressure: wait until a worker has finished a card
+                Student student = iterator.next();
+                pool.execute(() -> {
+                    try {
+                        writeCard(directory, student, termStart, termEnd);
+                        written.incrementAndGet();
+                    } catch (IOException | RuntimeException e) {
+                        if (failed.incrementAndGet() == 1) { // Log only the first failure
+                            System.err.println("ERROR writing report card for " + student.getStudentId() + ": " + e.getMessage());
+                        }
+                    } finally {
+                        inFlight.release();
+                        if (progress != null) {
+                            progress.onProgress(written.get() + failed.get(), total);
+                        }
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.HOURS);
+
+            Result result = new Result(directory, written.get(), failed.get(),
+                    (System.nanoTime() - start) / 1_000_000, job.isCancelled());
+            System.out.printf("Report cards: %d written, %d failed in %d ms (%.0f cards/sec)%s.%n",
+                    result.written(), result.failed(), result.elapsedMillis(), result.cardsPerSecond(),
+                    result.cancelled() ? ", cancelled" : "");
+            job.result.complete(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            job.result.completeExceptionally(new CancellationException("Report card generation interrupted"));
+        } catch (IOException | RuntimeException e) {
+            pool.shutdownNow();
+            System.err.println("ERROR generating report cards: " + e.getMessage());
+            job.result.completeExceptionally(e);
+        }
+    }
+
+    private static void writeCard(Path directory, Student student, LocalDate termStart, LocalDate termEnd) throws IOException {
+        Path file = directory.resolve("report-card-" + safeFileName(student.getStudentId()) + ".txt");
+        Files.writeString(file, render(student, termStart, termEnd), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders one plain-text report card.
+     */
+    static String render(Student student, LocalDate termStart, LocalDate termEnd) {
+        int present = 0;
+        int absent = 0;
+        int late = 0;
+        for (Map.Entry<LocalDate, String> day : student.getAttendanceRecords().entrySet()) {
+            switch (day.getValue()) {
+                case "PRESENT" -> present++;
+                case "ABSENT" -> absent++;
+                case "LATE" -> late++;
+                default -> { }
+            }
+        }
+        // Same definition as AttendanceRateEntry: LATE still counts as attending
+        AttendanceRateEntry attendance = new AttendanceRateEntry(student.getStudentId(), student.getName(),
+                student.getGradeLevel(), present, absent, late);
+
+        StringBuilder card = new StringBuilder(512);
+        card.append("REPORT CARD\n");
+        card.append("===========\n");
+        card.append(String.format("Student:      %s (%s)%n", student.getName(), student.getStudentId()));
+        card.append(String.format("Grade Level:  %s%n", student.getGradeLevel()));
+        card.append(String.format("Term:         %s to %s%n%n", termStart, termEnd));
+        card.append(String.format("%-12s %5s%n", "Subject", "Score"));
+        card.append(String.format("%-12s %5d%n", "Math", student.getMathScore()));
+        card.append(String.format("%-12s %5d%n", "Science", student.getScienceScore()));
+        card.append(String.format("%-12s %5d%n", "Social", student.getSocialScore()));
+        card.append(String.format("%-12s %5d%n", "English", student.getEnglishScore()));
+        card.append(String.format("%-12s %5d%n", "Kannada", student.getKannadaScore()));
+        card.append(String.format("%-12s %5d%n", "TOTAL", student.getTotalGrade()));
+        card.append(String.format("%-12s %8.2f%n%n", "Average (%)", student.getAverageGrade()));
+        if (attendance.getRecordedDays() == 0) {
+            card.append("Attendance:   no days recorded this term\n");
+        } else {
+            card.append(String.format("Attendance:   %.1f%% (%d present, %d late, %d absent)%n",
+                    attendance.getAttendanceRate() * 100, present, late, absent));
+        }
+        return card.toString();
+    }
+
+    private static String safeFileName(String studentId) {
+        return studentId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of repositories SchoolSystem works against for one school, chosen once at startup with
+ * {@code -Dschool.backend=sqlite} (the default, persistent) or {@code -Dschool.backend=memory}
+ * (no I/O at all; for UI tests, benchmarks and demo kiosks; everything is lost on exit).
+ *
+ * Every school (see DatabaseManager) gets its own backend with its own report cache, created on
+ * first use and kept for the rest of the run, so switching schools never reloads another one.
+ */
+public record SchoolBackend(String school, String name, StudentRepository students, GradeRepository grades,
+                            AttendanceRepository attendance, ReportCache reportCache) {
+
+    public static final String SQLITE = "sqlite";
+    public static final String MEMORY = "memory";
+
+    private static final Map<String, SchoolBackend> bySchool = new LinkedHashMap<>();
+
+    /**
+     * Returns the backend of the currently selected school, creating it on first use.
+     */
+    public static SchoolBackend current() {
+        return forSchool(DatabaseManager.getCurrentSchool());
+    }
+
+    /**
+     * Returns the backend of one school, creating it on first use.
+     */
+    public static synchronized SchoolBackend forSchool(String school) {
+        SchoolBackend backend = bySchool.get(school);
+        if (backend == null) {
+            backend = create(System.getProperty("school.backend", SQLITE), school);
+            bySchool.put(school, backend);
+            System.out.println("Using the " + backend.name() + " backend for school '" + school + "'.");
+        }
+        return backend;
+    }
+
+    /**
+     * The backends created so far, in creation order (for diagnostics).
+     */
+    public static synchronized Collection<SchoolBackend> all() {
+        return List.copyOf(bySchool.values());
+    }
+
+    /**
+     * Creates a new, unshared backend of the given kind for the currently selected school.
+     */
+    public static SchoolBackend create(String name) {
+        return create(name, DatabaseManager.getCurrentSchool());
+    }
+
+    public static SchoolBackend create(String name, String school) {
+        return switch (name) {
+            case SQLITE -> {
+                SchoolDatabase database = DatabaseManager.forSchool(school);
+                SqliteSchoolRepository repository = new SqliteSchoolRepository(database);
+                yield new SchoolBackend(school, SQLITE, repository, repository, repository, new ReportCache(database::externalCommits));
+            }
+            case MEMORY -> {
+                InMemorySchoolRepository repository = new InMemorySchoolRepository();
+                yield new SchoolBackend(school, MEMORY, repository, repository, repository, new ReportCache());
+            }
+            default -> throw new IllegalArgumentException("Unknown school.backend '" + name + "' (use sqlite or memory)");
+        };
+    }
+
+    /**
+     * True if data lives in the SQLite database (and database maintenance such as backups applies).
+     */
+    public boolean isPersistent() {
+        return SQLITE.equals(name);
+    }
+}
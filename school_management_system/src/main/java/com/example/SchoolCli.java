@@ -0,0 +1,808 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.LinkOption;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.sqlite.SQLiteJDBCLoader;
+import org.sqlite.util.OSInfo;
+
+/**
+ * Headless entry point for cron jobs: runs reports, imports, exports and maintenance without
+ * starting the JavaFX toolkit (only javafx-base is loaded, for the Student properties).
+ *
+ * <pre>
+ * java -cp &lt;class path&gt; com.example.SchoolCli [--school ID] [--format csv|json] [--output FILE] COMMAND [ARGS]
+ *
+ *   attendance-pivot FROM TO   one row per student, one column per day
+ *   export-attendance FROM TO  one row per record: student_id,date,status
+ *   grade-summary              scores and average per student
+ *   export-students            student_id,name,grade_level and the five scores
+ *   import-students FILE       CSV student_id,name,grade_level[,math,science,social,english,kannada]
+ *   import-attendance FILE     CSV student_id,date,status
+ *   archive [YEAR]             archives every closed academic year, or the one starting in YEAR
+ *   backup                     takes a verified snapshot now
+ *   maintenance                runs every DatabaseMaintenance task now, without the idle-time limits
+ * </pre>
+ *
+ * Data goes to stdout (or --output) as CSV with a header row, or as JSON Lines; every log line
+ * the application prints goes to stderr. Students are streamed in ID order and written as they
+ * are read, and imports keep at most IMPORT_WINDOW writes in flight, so memory stays flat
+ * however large the school is. Only a pivot or export reaching into archived years goes
+ * through the in-memory report, as that is the one path that reads the archive files.
+ *
+ * Startup is mostly class loading and sqlite-jdbc's native library, which is kept extracted
+ * between runs (see useCachedSqliteLibrary). Short jobs finish sooner with
+ * -XX:TieredStopAtLevel=1, as they end before the optimizing compiler would pay off.
+ *
+ * Exit codes: 0 success, 1 failure, 2 usage error, 3 finished but some input rows were rejected.
+ */
+public class SchoolCli {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_REJECTED = 3;
+
+    // Writes queued before waiting for them during an import
+    private static final int IMPORT_WINDOW = 1000;
+
+    private static final String USAGE = """
+        Usage: SchoolCli [--school ID] [--format csv|json] [--output FILE] COMMAND [ARGS]
+        Commands:
+          attendance-pivot FROM TO     dates as yyyy-MM-dd
+          export-attendance FROM TO
+          grade-summary
+          export-students
+          import-students FILE         student_id,name,grade_level[,math,science,social,english,kannada]
+          import-attendance FILE       student_id,date,status
+          archive [YEAR]
+          backup
+          maintenance
+        """;
+
+    /**
+     * Thrown for bad arguments or input that should end the run with EXIT_USAGE.
+     */
+    static class UsageException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    private final Output out;
+    private SchoolSystem schoolSystem;
+
+    SchoolCli(Output out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        // stdout carries only data; everything the application logs is sent to stderr
+        PrintWriter data = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16));
+        System.setOut(System.err);
+        System.exit(run(args, data));
+    }
+
+    /**
+     * Parses the options, runs one command and shuts the databases down.
+     * @return The exit code.
+     */
+    static int run(String[] args, PrintWriter stdout) {
+        String format = "csv";
+        String output = null;
+        int i = 0;
+        try {
+            for (; i < args.length && args[i].startsWith("--"); i++) {
+                switch (args[i]) {
+                    case "--school" -> DatabaseManager.switchSchool(value(args, ++i));
+                    case "--format" -> format = value(args, ++i);
+                    case "--output" -> output = value(args, ++i);
+                    case "--help" -> {
+                        System.err.print(USAGE);
+                        return EXIT_OK;
+                    }
+                    default -> throw new UsageException("Unknown option " + args[i]);
+                }
+            }
+            if (i == args.length) {
+                throw new UsageException("No command given");
+            }
+            if (!format.equals("csv") && !format.equals("json")) {
+                throw new UsageException("Unknown format '" + format + "' (use csv or json)");
+            }
+        } catch (UsageException | IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.print(USAGE);
+            return EXIT_USAGE;
+        }
+
+        long start = System.nanoTime();
+        String command = args[i];
+        String[] commandArgs = Arrays.copyOfRange(args, i + 1, args.length);
+        PrintWriter writer = stdout;
+        try {
+            if (output != null) {
+                writer = new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8));
+            }
+            int code = new SchoolCli(new Output(writer, format.equals("json"))).execute(command, commandArgs);
+            writer.flush();
+            if (writer.checkError()) {
+                System.err.println("ERROR writing output");
+                code = EXIT_FAILED;
+            }
+            System.err.printf("%s finished with exit code %d in %d ms.%n", command, code, (System.nanoTime() - start) / 1_000_000);
+            return code;
+        } catch (UsageException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.print(USAGE);
+            return EXIT_USAGE;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR " + command + ": " + rootMessage(e));
+            return EXIT_FAILED;
+        } finally {
+            if (writer != stdout) {
+                writer.close();
+            }
+            stdout.flush();
+            DatabaseManager.shutdown();
+            AuditLog.shutdown(); // After the writer, whose last commits still add audit entries
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new UsageException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+
+    /**
+     * Points sqlite-jdbc at a copy of its native library kept in a directory of the user's own
+     * (~/.cache/school-sqlite-VERSION, created 0700). Left to itself the driver extracts the library
+     * from its jar on every start (about a third of a second); an explicit -Dorg.sqlite.lib.path is
+     * left alone. The copy is used only if the directory is this user's and no one else's and the
+     * file's SHA-256 matches the jar's; otherwise it is rewritten. Best effort: on any problem the
+     * driver simply extracts as usual.
+     */
+    static void useCachedSqliteLibrary() {
+        if (System.getProperty("org.sqlite.lib.path") != null) {
+            return;
+        }
+        String name = System.mapLibraryName("sqlitejdbc");
+        String resource = "/org/sqlite/native/" + OSInfo.getNativeLibFolderPathForCurrentOS() + "/" + name;
+        Path directory = Paths.get(System.getProperty("user.home"), ".cache", "school-sqlite-" + SQLiteJDBCLoader.getVersion());
+        Path library = directory.resolve(name);
+        try {
+            byte[] expected;
+            try (InputStream in = SQLiteJDBCLoader.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    return;
+                }
+                expected = sha256(in);
+            }
+            if (!isPrivateDirectory(directory)) {
+                System.err.println("Not caching the SQLite native library: " + directory + " is not private to this user.");
+                return;
+            }
+            boolean valid = false;
+            if (Files.isRegularFile(library, LinkOption.NOFOLLOW_LINKS)) {
+                try (InputStream in = Files.newInputStream(library)) {
+                    valid = MessageDigest.isEqual(expected, sha256(in));
+                }
+            }
+            if (!valid) {
+                try (InputStream in = SQLiteJDBCLoader.class.getResourceAsStream(resource)) {
+                    Path partial = Files.createTempFile(directory, name, ".tmp");
+                    Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+                    // Concurrent runs may race here; whichever move wins leaves a complete file
+                    Files.move(partial, library, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            System.setProperty("org.sqlite.lib.path", directory.toString());
+            System.setProperty("org.sqlite.lib.name", name);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not cache the SQLite native library, extracting as usual: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the directory (and ~/.cache) accessible to this user only, if missing. On POSIX file
+     * systems an existing directory must be owned by this user, not be a link, and grant nothing to
+     * group or others.
+     */
+    private static boolean isPrivateDirectory(Path directory) throws IOException {
+        boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            if (posix) {
+                FileAttribute<Set<PosixFilePermission>> ownerOnly =
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+                if (!Files.exists(directory.getParent())) {
+                    Files.createDirectories(directory.getParent(), ownerOnly);
+                }
+                Files.createDirectory(directory, ownerOnly);
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+        if (!posix) {
+            return Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS);
+        }
+        PosixFileAttributes attributes = Files.readAttributes(directory, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        Set<PosixFilePermission> others = EnumSet.of(
+                PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+                PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE);
+        return attributes.isDirectory()
+                && attributes.owner().getName().equals(System.getProperty("user.name"))
+                && attributes.permissions().stream().noneMatch(others::contains);
+    }
+
+    private static byte[] sha256(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, n);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int execute(String command, String[] args) throws IOException {
+        SchoolBackend backend = SchoolBackend.current();
+        if (backend.isPersistent()) {
+            useCachedSqliteLibrary();
+            DatabaseManager.initializeDatabase();
+        }
+        schoolSystem = new SchoolSystem(backend);
+
+        return switch (command) {
+            case "attendance-pivot" -> attendancePivot(date(args, 0), date(args, 1), args);
+            case "export-attendance" -> exportAttendance(date(args, 0), date(args, 1), args);
+            case "grade-summary" -> gradeSummary(args);
+            case "export-students" -> exportStudents(args);
+            case "import-students" -> importStudents(file(args));
+            case "import-attendance" -> importAttendance(file(args));
+            case "archive" -> archive(args);
+            case "backup" -> backup(args);
+            case "maintenance" -> maintenance(args);
+            default -> throw new UsageException("Unknown command " + command);
+        };
+    }
+
+    private static void expectArgs(String[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new UsageException("Wrong number of arguments");
+        }
+    }
+
+    private static LocalDate date(String[] args, int index) {
+        if (args.length <= index) {
+            throw new UsageException("Missing date");
+        }
+        try {
+            return LocalDate.parse(args[index]);
+        } catch (DateTimeParseException e) {
+            throw new UsageException("Not a date (yyyy-MM-dd): " + args[index]);
+        }
+    }
+
+    private static Path file(String[] args) {
+        expectArgs(args, 1, 1);
+        Path file = Paths.get(args[0]);
+        if (!Files.isReadable(file)) {
+            throw new UsageException("Cannot read " + file);
+        }
+        return file;
+    }
+
+    // =======================================================
+    // --- REPORTS AND EXPORTS ---
+    // =======================================================
+
+    /**
+     * Receives one student's attendance in the requested range.
+     */
+    @FunctionalInterface
+    private interface AttendanceRow {
+        void accept(String studentId, String name, Map<LocalDate, String> attendance);
+    }
+
+    private int attendancePivot(LocalDate from, LocalDate to, String[] args) {
+        expectArgs(args, 2, 2);
+        checkRange(from, to);
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        List<String> header = new ArrayList<>(List.of("student_id", "name"));
+        for (int d = 0; d < days; d++) {
+            header.add(from.plusDays(d).toString());
+        }
+        out.header(header);
+
+        String[] cells = new String[days + 2];
+        forEachAttendanceRow(from, to, (id, name, attendance) -> {
+            if (out.json) {
+                out.object("student_id", id, "name", name, "attendance", attendance);
+                return;
+            }
+            cells[0] = id;
+            cells[1] = name;
+            for (int d = 0; d < days; d++) {
+                cells[d + 2] = attendance.getOrDefault(from.plusDays(d), "");
+            }
+            out.row(cells);
+        });
+        return EXIT_OK;
+    }
+
+    private int exportAttendance(LocalDate from, LocalDate to, String[] args) {
+        expectArgs(args, 2, 2);
+        checkRange(from, to);
+        out.header(List.of("student_id", "date", "status"));
+        forEachAttendanceRow(from, to, (id, name, attendance) ->
+            attendance.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e ->
+                out.record("student_id", id, "date", e.getKey().toString(), "status", e.getValue())));
+        return EXIT_OK;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new UsageException("FROM must not be after TO");
+        }
+    }
+
+    /**
+     * Streams every current student with their attendance between the dates. Archived years are
+     * only readable through the pivot report, so a range reaching into one is built in memory.
+     */
+    private void forEachAttendanceRow(LocalDate from, LocalDate to, AttendanceRow row) {
+        SchoolBackend backend = SchoolBackend.current();
+        if (backend.isPersistent() && !ArchiveManager.archivesOverlapping(DatabaseManager.current(), from, to).isEmpty()) {
+            System.err.println("Range includes archived years; reading it through the attendance report.");
+            for (AttendanceReportEntry entry : schoolSystem.getPivotedAttendanceReport(from, to)) {
+                row.accept(entry.getStudentId(), entry.getStudentName(), entry.getAttendanceData());
+            }
+            return;
+        }
+        schoolSystem.forEachStudent(StudentProjection.full().withoutGrades().attendanceBetween(from, to),
+            s -> row.accept(s.getStudentId(), s.getName(), s.getAttendanceRecords()));
+    }
+
+    private int gradeSummary(String[] args) {
+        expectArgs(args, 0, 0);
+        out.header(List.of("student_id", "name", "average", "math", "science", "social", "english", "kannada"));
+        schoolSystem.forEachStudent(StudentProjection.full().withoutAttendance(), s ->
+            out.record("student_id", s.getStudentId(), "name", s.getName(),
+                "average", String.format("%.2f", s.getAverageGrade()),
+                "math", s.getMathScore(), "science", s.getScienceScore(), "social", s.getSocialScore(),
+                "english", s.getEnglishScore(), "kannada", s.getKannadaScore()));
+        return EXIT_OK;
+    }
+
+    private int exportStudents(String[] args) {
+        expectArgs(args, 0, 0);
+        out.header(List.of("student_id", "name", "grade_level", "math", "science", "social", "english", "kannada"));
+        schoolSystem.forEachStudent(StudentProjection.full().withoutAttendance(), s ->
+            out.record("student_id", s.getStudentId(), "name", s.getName(), "grade_level", s.getGradeLevel(),
+                "math", s.getMathScore(), "science", s.getScienceScore(), "social", s.getSocialScore(),
+                "english", s.getEnglishScore(), "kannada", s.getKannadaScore()));
+        return EXIT_OK;
+    }
+
+    // =======================================================
+    // --- IMPORTS ---
+    // =======================================================
+
+    /**
+     * Counts of one import, written as the command's only output record.
+     */
+    private static final class ImportResult {
+        int rows;
+        int rejected;
+        int written;
+    }
+
+    /**
+     * Adds or updates students (and records their scores under the current term if the row has them).
+     * A header row starting with "student_id" is skipped.
+     */
+    private int importStudents(Path file) throws IOException {
+        ImportResult result = new ImportResult();
+        importRows(file, result, (line, fields) -> {
+            if (fields.size() != 3 && fields.size() != 8) {
+                return reject(result, line, "expected 3 or 8 fields, found " + fields.size());
+            }
+            String id = fields.get(0).trim();
+            String name = fields.get(1).trim();
+            String gradeLevel = fields.get(2).trim();
+            if (id.isEmpty() || name.isEmpty() || gradeLevel.isEmpty()) {
+                return reject(result, line, "student_id, name and grade_level are required");
+            }
+            int[] scores = null;
+            if (fields.size() == 8) {
+                scores = new int[5];
+                for (int s = 0; s < 5; s++) {
+                    try {
+                        scores[s] = Integer.parseInt(fields.get(3 + s).trim());
+                    } catch (NumberFormatException e) {
+                        return reject(result, line, "score is not a number: " + fields.get(3 + s));
+                    }
+                    if (scores[s] < 0 || scores[s] > 100) {
+                        return reject(result, line, "score out of range 0-100: " + scores[s]);
+                    }
+                }
+            }
+            Student student = new Student(id, name, gradeLevel);
+            int[] grades = scores;
+            CompletableFuture<Void> write = schoolSystem.addStudent(student)
+                .thenCompose(added -> added ? CompletableFuture.<Void>completedFuture(null) : schoolSystem.updateStudent(student));
+            if (grades != null) {
+                // recordGrade takes english, history (social) and art (kannada) in that order
+                write = write.thenCompose(v -> schoolSystem.recordGrade(id, grades[0], grades[1], grades[3], grades[2], grades[4]));
+            }
+            return watch(result, line, write);
+        });
+        return finishImport(result);
+    }
+
+    /**
+     * Records attendance rows; rows for unknown students or with an unknown status are rejected.
+     * Only the student IDs are held in memory to check against, never the students themselves.
+     */
+    private int importAttendance(Path file) throws IOException {
+        Set<String> studentIds = new HashSet<>();
+        schoolSystem.forEachStudent(StudentProjection.basic(), s -> studentIds.add(s.getStudentId()));
+
+        ImportResult result = new ImportResult();
+        importRows(file, result, (line, fields) -> {
+            if (fields.size() != 3) {
+                return reject(result, line, "expected 3 fields, found " + fields.size());
+            }
+            String id = fields.get(0).trim();
+            if (!studentIds.contains(id)) {
+                return reject(result, line, "unknown student " + id);
+            }
+            String status = fields.get(2).trim().toUpperCase();
+            LocalDate date;
+            try {
+                date = LocalDate.parse(fields.get(1).trim());
+            } catch (DateTimeParseException e) {
+                return reject(result, line, "not a date (yyyy-MM-dd): " + fields.get(1));
+            }
+            if (!Arrays.asList(AttendanceIndex.STATUSES).contains(status)) {
+                return reject(result, line, "unknown status " + fields.get(2));
+            }
+            return watch(result, line, schoolSystem.recordAttendance(id, date, status));
+        });
+        return finishImport(result);
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        CompletableFuture<Void> handle(int line, List<String> fields);
+    }
+
+    /**
+     * Reads the file line by line and hands each row to the handler. The returned writes are
+     * awaited every IMPORT_WINDOW rows, so neither the file nor the queued writes pile up in memory.
+     */
+    private void importRows(Path file, ImportResult result, RowHandler handler) throws IOException {
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>(IMPORT_WINDOW);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String text;
+            int line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank() || (line == 1 && text.startsWith("student_id"))) {
+                    continue;
+                }
+                result.rows++;
+                CompletableFuture<Void> write = handler.handle(line, parseCsv(text));
+                if (write != null) {
+                    inFlight.add(write);
+                }
+                if (inFlight.size() >= IMPORT_WINDOW) {
+                    CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+                    inFlight.clear();
+                }
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static CompletableFuture<Void> reject(ImportResult result, int line, String reason) {
+        synchronized (result) {
+            result.rejected++;
+        }
+        System.err.println("REJECTED line " + line + ": " + reason);
+        return null;
+    }
+
+    // Counts the write once it is durable; a failed write rejects its row instead of failing the import
+    private static CompletableFuture<Void> watch(ImportResult result, int line, CompletableFuture<Void> write) {
+        return write.handle((v, ex) -> {
+            if (ex == null) {
+                synchronized (result) {
+                    result.written++;
+                }
+            } else {
+                reject(result, line, rootMessage(ex));
+            }
+            return null;
+        });
+    }
+
+    private int finishImport(ImportResult result) {
+        out.header(List.of("rows", "written", "rejected"));
+        out.record("rows", result.rows, "written", result.written, "rejected", result.rejected);
+        return result.rejected == 0 ? EXIT_OK : EXIT_REJECTED;
+    }
+
+    // =======================================================
+    // --- MAINTENANCE ---
+    // =======================================================
+
+    private int archive(String[] args) {
+        expectArgs(args, 0, 1);
+        requirePersistent("archive");
+        List<ArchiveManager.ArchiveInfo> archived;
+        if (args.length == 1) {
+            int year;
+            try {
+                year = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                throw new UsageException("Not a year: " + args[0]);
+            }
+            ArchiveManager.ArchiveInfo info = ArchiveManager.archiveAcademicYear(year).join();
+            archived = List.of(info);
+        } else {
+            archived = ArchiveManager.archiveClosedYears().join();
+        }
+        out.header(List.of("academic_year", "file", "start_date", "end_date", "attendance_rows"));
+        for (ArchiveManager.ArchiveInfo info : archived) {
+            out.record("academic_year", info.academicYear(), "file", info.file().toString(),
+                "start_date", info.startDate().toString(), "end_date", info.endDate().toString(),
+                "attendance_rows", info.attendanceRows());
+        }
+        return EXIT_OK;
+    }
+
+    private int backup(String[] args) throws IOException {
+        expectArgs(args, 0, 0);
+        requirePersistent("backup");
+        BackupManager.BackupResult result;
+        try {
+            result = BackupManager.backupNow();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        out.header(List.of("file", "size_bytes", "duration_millis", "verified", "message"));
+        out.record("file", result.file().toString(), "size_bytes", result.sizeBytes(),
+            "duration_millis", result.durationMillis(), "verified", result.verified(),
+            "message", result.message() == null ? "" : result.message());
+        return result.verified() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    /**
+     * Runs a maintenance round with an hour per task, converting the file to incremental
+     * auto_vacuum if needed (nobody is waiting on the writer here).
+     */
+    private int maintenance(String[] args) {
+        expectArgs(args, 0, 0);
+        requirePersistent("maintenance");
+        List<DatabaseMaintenance.TaskResult> results =
+                DatabaseMaintenance.run(DatabaseManager.current(), TimeUnit.HOURS.toMillis(1), true);
+        out.header(List.of("task", "started_at", "duration_ms", "pages_reclaimed", "completed", "finding"));
+        boolean healthy = true;
+        for (DatabaseMaintenance.TaskResult result : results) {
+            out.record("task", result.task(), "started_at", result.startedAt().toString(),
+                "duration_ms", result.durationMillis(), "pages_reclaimed", result.pagesReclaimed(),
+                "completed", result.completed(), "finding", result.finding());
+            healthy &= result.completed() && !result.finding().startsWith("PROBLEMS");
+        }
+        return healthy ? EXIT_OK : EXIT_FAILED;
+    }
+
+    private static void requirePersistent(String command) {
+        if (!SchoolBackend.current().isPersistent()) {
+            throw new UsageException(command + " needs the sqlite backend");
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getMessage();
+    }
+
+    // =======================================================
+    // --- OUTPUT FORMATS ---
+    // =======================================================
+
+    /**
+     * Writes records as CSV (RFC 4180 quoting, header first) or as JSON Lines (no header).
+     * Each record is one line, written as soon as it is produced.
+     */
+    static final class Output {
+
+        private final PrintWriter writer;
+        private final boolean json;
+        private final StringBuilder line = new StringBuilder(256);
+
+        Output(PrintWriter writer, boolean json) {
+            this.writer = writer;
+            this.json = json;
+        }
+
+        void header(List<String> columns) {
+            if (!json) {
+                row(columns.toArray(String[]::new));
+            }
+        }
+
+        void row(String[] cells) {
+            line.setLength(0);
+            for (int c = 0; c < cells.length; c++) {
+                if (c > 0) {
+                    line.append(',');
+                }
+                appendCsv(cells[c]);
+            }
+            writer.println(line);
+        }
+
+        /**
+         * Writes alternating field names and values (String, Number, Boolean or Map) as one record.
+         */
+        void record(Object... fields) {
+            if (json) {
+                object(fields);
+                return;
+            }
+            String[] cells = new String[fields.length / 2];
+            for (int f = 1; f < fields.length; f += 2) {
+                cells[f / 2] = String.valueOf(fields[f]);
+            }
+            row(cells);
+        }
+
+        void object(Object... fields) {
+            line.setLength(0);
+            appendJson(fieldMap(fields));
+            writer.println(line);
+        }
+
+        private static Map<String, Object> fieldMap(Object[] fields) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int f = 0; f < fields.length; f += 2) {
+                map.put((String) fields[f], fields[f + 1]);
+            }
+            return map;
+        }
+
+        private void appendCsv(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                line.append(value);
+                return;
+            }
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        private void appendJson(Object value) {
+            if (value instanceof Number || value instanceof Boolean) {
+                line.append(value);
+            } else if (value instanceof Map<?, ?> map) {
+                // Date keys sort chronologically as ISO strings
+                line.append('{');
+                Stream<? extends Map.Entry<?, ?>> entries = map.entrySet().stream();
+                if (!(map instanceof LinkedHashMap)) {
+                    entries = entries.sorted((a, b) -> a.getKey().toString().compareTo(b.getKey().toString()));
+                }
+                boolean[] first = {true};
+                entries.forEachOrdered(e -> {
+                    if (!first[0]) {
+                        line.append(',');
+                    }
+                    first[0] = false;
+                    appendJsonString(e.getKey().toString());
+                    line.append(':');
+                    appendJson(e.getValue());
+                });
+                line.append('}');
+            } else {
+                appendJsonString(String.valueOf(value));
+            }
+        }
+
+        private void appendJsonString(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> line.append("\\\"");
+                    case '\\' -> line.append("\\\\");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    case '\t' -> line.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                    }
+                }
+            }
+            line.append('"');
+        }
+    }
+
+    /**
+     * Splits one CSV line (RFC 4180 quoting; quoted fields may not span lines).
+     */
+    static List<String> parseCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
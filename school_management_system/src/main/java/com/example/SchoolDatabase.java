@@ -0,0 +1,751 @@
+package com.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One school's SQLite database: its file, its writer thread and its own pool of read connections.
+ * Nothing is shared between schools, so a slow report or a long write batch in one school never
+ * holds up another. DatabaseManager routes to the database of the selected school.
+ */
+public class SchoolDatabase {
+
+    // How long a connection waits on SQLite's lock before failing with SQLITE_BUSY
+    private static final String BUSY_TIMEOUT_MILLIS = System.getProperty("school.db.busyTimeoutMs", "5000");
+    // Idle read connections kept open per school
+    private static final int POOL_SIZE = Integer.getInteger("school.db.poolSize", 4);
+
+    // --- Snapshot (overridable with -Dschool.snapshot.* system properties) ---
+    private static final boolean SNAPSHOTS_DEFAULT = Boolean.parseBoolean(System.getProperty("school.snapshot.enabled", "true"));
+    // Quiet time after the last commit before the snapshot is rewritten
+    private static final long SNAPSHOT_DELAY_SECONDS = Long.getLong("school.snapshot.delaySeconds", 10);
+
+    // Data version while it is unknown (never matches a snapshot)
+    private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+
+    // Rewrites snapshots of all schools, one at a time, after writes
+    private static final ScheduledExecutorService snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread t = new Thread(runnable, "snapshot-writer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final String id;
+    private final String url;
+    private final boolean scoped;
+
+    // Mutations of this school, queued on one writer thread (started on first use)
+    private DatabaseWriter writer;
+
+    // Completes once the tables exist (null until initialization is started)
+    private volatile CompletableFuture<Void> ready;
+
+    private final BlockingQueue<Connection> idle = new ArrayBlockingQueue<>(Math.max(1, POOL_SIZE));
+
+    // The version stamp of the last commit, and the snapshot (valid only while its version matches)
+    private volatile long dataVersion = UNKNOWN_VERSION;
+    // Commits seen on disk that did not come from this process's writer (see externalCommits())
+    private final AtomicLong externalCommits = new AtomicLong();
+    // How often externalCommits() may read the file (-Dschool.cache.externalCheckMillis);
+    // the count from the last read is served in between
+    private final long externalCheckNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("school.cache.externalCheckMillis", 1000));
+    private final AtomicLong nextExternalCheckNanos = new AtomicLong(System.nanoTime());
+    private final Object versionLock = new Object();
+    private volatile StudentSnapshot snapshot;
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private volatile long lastCommitNanos = System.nanoTime();
+    private final Object snapshotLock = new Object();
+    private volatile boolean closed;
+    private volatile boolean snapshotsEnabled = SNAPSHOTS_DEFAULT;
+    // Attendance layout of the file (see PackedAttendance), known once the tables exist
+    private volatile boolean attendancePacked;
+
+    // --- Statistics ---
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong connectionsReused = new AtomicLong();
+
+    /**
+     * @param scoped True if several schools share the installation; per-school files such as
+     *               backups and archives then go into a subdirectory named after the school.
+     */
+    SchoolDatabase(String id, String url, boolean scoped) {
+        this.id = id;
+        this.url = url;
+        this.scoped = scoped;
+    }
+
+    public String getId() { return id; }
+    public String getUrl() { return url; }
+
+    /**
+     * True if this school's attendance is stored one packed row per student and month (see PackedAttendance).
+     */
+    public boolean isAttendancePacked() {
+        initializeAsync().join();
+        return attendancePacked;
+    }
+
+    /**
+     * Returns where this school keeps its files under a shared base directory.
+     */
+    public Path scopedDirectory(Path base) {
+        return scoped ? base.resolve(id) : base;
+    }
+
+    // --- Connections ---
+
+    /**
+     * Borrows a read connection from this school's pool, creating the tables first if this is the
+     * school's first use. Closing the connection returns it to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        CompletableFuture<Void> pending = initializeAsync();
+        if (!pending.isDone()) {
+            pending.join();
+        }
+        Connection conn = idle.poll();
+        if (conn != null) {
+            connectionsReused.incrementAndGet();
+        } else {
+            conn = openConnection();
+        }
+        return pooled(conn);
+    }
+
+    /**
+     * Opens a new physical connection that is not pooled (the writer keeps its own for good).
+     */
+    Connection openConnection() throws SQLException {
+        connectionsOpened.incrementAndGet();
+        // DriverManager will create the database file if it doesn't exist.
+        return SlowQueryLog.wrap(DriverManager.getConnection(url, connectionProperties()), id);
+    }
+
+    private static Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("busy_timeout", BUSY_TIMEOUT_MILLIS);
+        return props;
+    }
+
+    /**
+     * Wraps a physical connection so that close() hands it back to the pool instead of closing it.
+     */
+    private Connection pooled(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!closed) {
+                            closed = true;
+                            release(physical);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed || physical.isClosed();
+                    }
+                    default -> {
+                        if (closed) {
+                            throw new SQLException("Connection is closed");
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+    }
+
+    // A connection goes back in the state it was handed out in, or is closed
+    private void release(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (!idle.offer(physical)) {
+                physical.close();
+            }
+        } catch (SQLException e) {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // Already broken; nothing more to release
+            }
+        }
+    }
+
+    // --- Writer ---
+
+    /**
+     * Returns the writer thread through which this school's mutations are queued, starting it on first use.
+     */
+    public synchronized DatabaseWriter getWriter() {
+        if (writer == null) {
+            writer = new DatabaseWriter(this);
+        }
+        return writer;
+    }
+
+    /**
+     * Returns the writer if one has been started, without starting it (for diagnostics).
+     */
+    public synchronized DatabaseWriter peekWriter() {
+        return writer;
+    }
+
+    /**
+     * Commits any queued writes, stops the writer thread, brings the snapshot up to date and
+     * closes the pooled connections.
+     */
+    public synchronized void shutdown() {
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        if (ready != null && ready.isDone() && isSnapshotStale()) {
+            writeSnapshot();
+        }
+        closed = true;
+        Connection conn;
+        while ((conn = idle.poll()) != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("ERROR closing connection for school '" + id + "': " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Initialization ---
+
+    /**
+     * Creates the tables on a background thread, once.
+     * @return A future completed once the tables exist; getConnection() waits on it as well.
+     */
+    public synchronized CompletableFuture<Void> initializeAsync() {
+        if (ready == null) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            Thread init = new Thread(() -> {
+                createTables();
+                loadSnapshot();
+                future.complete(null);
+            }, "database-init-" + id);
+            init.setDaemon(true);
+            ready = future;
+            init.start();
+        }
+        return ready;
+    }
+
+    /**
+     * Creates the tables on the calling thread (if that has not happened yet).
+     */
+    public void initialize() {
+        CompletableFuture<Void> future;
+        boolean mustCreate = false;
+        synchronized (this) {
+            if (ready == null) {
+                ready = new CompletableFuture<>();
+                mustCreate = true;
+            }
+            future = ready;
+        }
+        if (mustCreate) {
+            createTables();
+            loadSnapshot();
+            future.complete(null);
+        } else {
+            future.join();
+        }
+    }
+
+    /**
+     * One-line summary for the diagnostics output. Reads nothing from the file (the developer panel
+     * calls it on the FX thread every second), so the snapshot state is as of the last commit or read.
+     */
+    public String describe() {
+        StudentSnapshot current = snapshot;
+        String snapshotState = current == null ? "none" : (current.getDataVersion() == dataVersion ? "current" : "stale");
+        return String.format("%s, %s attendance, %d connections opened, %d reused, %d idle, snapshot %s",
+                url, attendancePacked ? PackedAttendance.PACKED : PackedAttendance.DAILY,
+                connectionsOpened.get(), connectionsReused.get(), idle.size(), snapshotState);
+    }
+
+    // --- Data version and snapshot ---
+
+    /**
+     * Reads the data version stamp (changed by every commit) on the given connection.
+     */
+    static long readDataVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT version FROM data_version WHERE id = 1");
+            ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : UNKNOWN_VERSION;
+        }
+    }
+
+    /**
+     * Gives the data a new version stamp inside the writer's transaction (called by DatabaseWriter
+     * before every commit). A random stamp rather than a counter, so a database restored from a
+     * backup can never arrive at the version of a snapshot taken from different data.
+     * @return The new stamp; pass it to committed() once the transaction has committed.
+     */
+    long bumpDataVersion(Connection conn) throws SQLException {
+        noteDataVersion(readDataVersion(conn));
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE data_version SET version = random() WHERE id = 1")) {
+            pstmt.executeUpdate();
+        }
+        return readDataVersion(conn);
+    }
+
+    /**
+     * Reads the data version as committed to the file, which also reflects commits made outside
+     * this process (SchoolCli runs, a second instance) that committed() never hears about.
+     * @return The stamp, or UNKNOWN_VERSION if it cannot be read.
+     */
+    long readCommittedDataVersion() {
+        try (Connection conn = getConnection()) {
+            long version = readDataVersion(conn);
+            noteDataVersion(version);
+            return version;
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR reading the data version of school '" + id + "': " + e.getMessage());
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    /**
+     * A count that moves whenever the file turns out to hold data committed by someone other
+     * than this process's writer. Caches keyed on in-process change events include it in their
+     * stamps (see ReportCache), so it is called on every cache lookup: the file is read at most
+     * once per school.cache.externalCheckMillis, by one caller, and never before the tables
+     * exist; everyone else gets the count from the last read. A commit by another process is
+     * therefore noticed within that interval rather than immediately.
+     */
+    long externalCommits() {
+        long now = System.nanoTime();
+        long due = nextExternalCheckNanos.get();
+        CompletableFuture<Void> initialized = ready;
+        if (initialized != null && initialized.isDone() && now - due >= 0
+                && nextExternalCheckNanos.compareAndSet(due, now + externalCheckNanos)) {
+            readCommittedDataVersion();
+        }
+        return externalCommits.get();
+    }
+
+    // A stamp differing from the last one committed here means another connection wrote. A read
+    // racing with our own commit may count once too often, which only costs a cache miss.
+    private void noteDataVersion(long version) {
+        synchronized (versionLock) {
+            if (version != dataVersion && version != UNKNOWN_VERSION && dataVersion != UNKNOWN_VERSION) {
+                dataVersion = version;
+                externalCommits.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Turns the snapshot off for this database (reads always go to SQL), e.g. for tests of the SQL paths.
+     */
+    void setSnapshotsEnabled(boolean enabled) {
+        snapshotsEnabled = enabled;
+        if (!enabled) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Records that a commit stamped the data with a new version: the snapshot stops being used
+     * and is rewritten once writes have been quiet for a while.
+     */
+    void committed(long version) {
+        synchronized (versionLock) {
+            dataVersion = version;
+        }
+        lastCommitNanos = System.nanoTime();
+        scheduleSnapshot();
+    }
+
+    /**
+     * Time since the last commit (or since this database object was created), for idle detection.
+     */
+    long millisSinceLastCommit() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastCommitNanos);
+    }
+
+    /**
+     * Returns the snapshot if it matches the committed data, or null (read from SQL instead). The
+     * stamp is read from the file on each call, so one call covers one read; a commit by another
+     * process makes the snapshot stale and schedules its rebuild like a commit of our own.
+     */
+    StudentSnapshot currentSnapshot() {
+        StudentSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        if (current.getDataVersion() == readCommittedDataVersion()) {
+            return current;
+        }
+        scheduleSnapshot();
+        return null;
+    }
+
+    private boolean isSnapshotStale() {
+        return snapshotsEnabled && snapshotFile() != null && dataVersion != UNKNOWN_VERSION
+                && (snapshot == null || snapshot.getDataVersion() != readCommittedDataVersion());
+    }
+
+    /**
+     * Where the snapshot of a file database lives: next to the database file, so it travels with
+     * it. In-memory databases have none.
+     */
+    private Path snapshotFile() {
+        String path = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : "";
+        path = path.startsWith("file:") ? path.substring("file:".length()) : path;
+        int query = path.indexOf('?');
+        path = query >= 0 ? path.substring(0, query) : path;
+        if (path.isEmpty() || path.contains(":memory:") || path.startsWith(":")) {
+            return null;
+        }
+        return Paths.get(path + ".snapshot");
+    }
+
+    // Called once the tables exist, on the initializing thread
+    private void loadSnapshot() {
+        try (Connection conn = openConnection()) {
+            dataVersion = readDataVersion(conn);
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR reading data version for school '" + id + "': " + e.getMessage());
+            return;
+        }
+        Path file = snapshotFile();
+        if (!snapshotsEnabled || file == null) {
+            return;
+        }
+        if (!Files.exists(file)) {
+            scheduleSnapshot();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            StudentSnapshot loaded = StudentSnapshot.read(file);
+            if (loaded.getDataVersion() != dataVersion) {
+                System.out.println("Snapshot for school '" + id + "' is stale; reading from SQL until it is rebuilt.");
+                scheduleSnapshot();
+                return;
+            }
+            snapshot = loaded;
+            System.out.printf("Snapshot for school '%s' loaded: %d students, %d days in %d ms.%n",
+                    id, loaded.getStudentCount(), loaded.getDayCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            System.err.println("ERROR reading snapshot " + file + ": " + e.getMessage() + "; rebuilding it.");
+            scheduleSnapshot();
+        }
+    }
+
+    private void scheduleSnapshot() {
+        if (snapshotsEnabled && !closed && snapshotFile() != null && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotWriter.schedule(this::snapshotWhenQuiet, SNAPSHOT_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // Waits until no commit has happened for the whole delay, so a busy period costs one snapshot
+    private void snapshotWhenQuiet() {
+        long quietNanos = System.nanoTime() - lastCommitNanos;
+        long delayNanos = TimeUnit.SECONDS.toNanos(SNAPSHOT_DELAY_SECONDS);
+        if (quietNanos < delayNanos && !closed) {
+            snapshotWriter.schedule(this::snapshotWhenQuiet, delayNanos - quietNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        snapshotScheduled.set(false);
+        if (!closed && isSnapshotStale()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Captures the committed data and replaces the snapshot file. Reads only, so the writer keeps
+     * committing meanwhile; a snapshot overtaken by a commit is simply not used.
+     */
+    private void writeSnapshot() {
+        synchronized (snapshotLock) {
+            long start = System.nanoTime();
+            try (Connection conn = getConnection()) {
+                StudentSnapshot captured = StudentSnapshot.capture(conn, attendancePacked);
+                if (captured == null) {
+                    System.err.println("ERROR: Snapshot for school '" + id + "' not written: unknown attendance status in the data.");
+                    return;
+                }
+                captured.write(snapshotFile());
+                snapshot = captured;
+                System.out.printf("Snapshot for school '%s' written: %d students, %d days in %d ms.%n",
+                        id, captured.getStudentCount(), captured.getDayCount(), (System.nanoTime() - start) / 1_000_000);
+            } catch (SQLException | IOException e) {
+                System.err.println("ERROR writing snapshot for school '" + id + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates all necessary tables if they don't already exist.
+     */
+    private void createTables() {
+        // SQL statements to create tables
+        String sqlStudents = """
+                            CREATE TABLE IF NOT EXISTS students (
+                            id TEXT PRIMARY KEY,
+                            name TEXT NOT NULL,
+                            grade_level TEXT NOT NULL
+                            );""";
+
+        // Grades table linked to students using a Foreign Key (student_id)
+        // FIX: Changed schema from FLEXIBLE (row per subject) to FIXED (columns per subject)
+        String sqlGrades = """
+                        CREATE TABLE IF NOT EXISTS grades (
+                            student_id TEXT PRIMARY KEY,
+                            math_score INTEGER DEFAULT 0,
+                            science_score INTEGER DEFAULT 0,
+                            social_score INTEGER DEFAULT 0,
+                            english_score INTEGER DEFAULT 0,
+                            kannada_score INTEGER DEFAULT 0,
+                            FOREIGN KEY(student_id) REFERENCES students(id) ON DELETE CASCADE
+                        );""";
+
+        // Every grade entry ever made, per term; grades above holds each student's latest entry
+        // (a materialized "current" row, so today's screens read one row per student)
+        String sqlGradeHistory = """
+                            CREATE TABLE IF NOT EXISTS grade_history (
+                                seq INTEGER PRIMARY KEY,
+                                student_id TEXT NOT NULL,
+                                term TEXT NOT NULL,
+                                recorded_at TEXT NOT NULL,
+                                math_score INTEGER NOT NULL,
+                                science_score INTEGER NOT NULL,
+                                social_score INTEGER NOT NULL,
+                                english_score INTEGER NOT NULL,
+                                kannada_score INTEGER NOT NULL,
+                                FOREIGN KEY (student_id) REFERENCES students (id)
+                            );""";
+        // The latest entry of a student in a term is one index seek (MAX(seq) of the prefix)
+        String sqlGradeHistoryIndex = "CREATE INDEX IF NOT EXISTS idx_grade_history_term ON grade_history(student_id, term, seq);";
+        // One-time backfill for databases created before the history: the current scores are
+        // filed under the current term (all-zero rows are only the placeholders from addStudent)
+        String sqlBackfillGradeHistory = """
+                            INSERT INTO grade_history(student_id, term, recorded_at, math_score, science_score,
+                                social_score, english_score, kannada_score)
+                            SELECT student_id, ?, datetime('now'), math_score, science_score,
+                                social_score, english_score, kannada_score
+                            FROM grades
+                            WHERE NOT EXISTS (SELECT 1 FROM grade_history)
+                                AND (math_score <> 0 OR science_score <> 0 OR social_score <> 0
+                                    OR english_score <> 0 OR kannada_score <> 0);""";
+
+        // Attendance table linked to students using a Foreign Key (student_id)
+        String sqlAttendance = """
+                            CREATE TABLE IF NOT EXISTS attendance (
+                                student_id TEXT NOT NULL,
+                                date TEXT NOT NULL,
+                                status TEXT NOT NULL,
+                                PRIMARY KEY (student_id, date),
+                                FOREIGN KEY (student_id) REFERENCES students (id)
+                            );""";
+        // PRESENT, ABSENT, LATE
+
+        // Date range reads (attendance reports, archiving) would otherwise scan the whole table;
+        // student_id and status make the index covering, so those reads never touch the table
+        String sqlAttendanceDateIndex = "CREATE INDEX IF NOT EXISTS idx_attendance_date ON attendance(date, student_id, status);";
+
+        // The packed layout (see PackedAttendance): one row per student and month, two bits per day
+        String sqlAttendancePacked = """
+                            CREATE TABLE IF NOT EXISTS attendance_packed (
+                                student_id TEXT NOT NULL,
+                                month TEXT NOT NULL,
+                                days INTEGER NOT NULL,
+                                PRIMARY KEY (student_id, month),
+                                FOREIGN KEY (student_id) REFERENCES students (id)
+                            ) WITHOUT ROWID;""";
+        // Month reads (reports, archiving) would otherwise scan every month ever recorded
+        String sqlAttendancePackedMonthIndex = "CREATE INDEX IF NOT EXISTS idx_attendance_packed_month ON attendance_packed(month, student_id, days);";
+        // ...read in the daily shape by the queries that do not decode it themselves
+        String sqlAttendanceView = """
+                            CREATE VIEW IF NOT EXISTS attendance(student_id, date, status) AS
+                            WITH RECURSIVE day(d) AS (SELECT 1 UNION ALL SELECT d + 1 FROM day WHERE d < 31)
+                            SELECT p.student_id, p.month || '-' || printf('%02d', day.d),
+                                CASE (p.days >> (2 * (day.d - 1))) & 3 WHEN 1 THEN 'PRESENT' WHEN 2 THEN 'ABSENT' ELSE 'LATE' END
+                            FROM attendance_packed p JOIN day ON (p.days >> (2 * (day.d - 1))) & 3 <> 0;""";
+
+        // Per-student, per-month attendance counters, kept current by SchoolSystem.recordAttendance
+        // so attendance rates never have to scan the attendance table
+        String sqlAttendanceMonthly = """
+                            CREATE TABLE IF NOT EXISTS attendance_monthly (
+                                student_id TEXT NOT NULL,
+                                month TEXT NOT NULL,
+                                present_count INTEGER NOT NULL DEFAULT 0,
+                                absent_count INTEGER NOT NULL DEFAULT 0,
+                                late_count INTEGER NOT NULL DEFAULT 0,
+                                PRIMARY KEY (student_id, month)
+                            );""";
+
+        // Closed academic years moved out to per-year archive files (see ArchiveManager)
+        String sqlArchives = """
+                            CREATE TABLE IF NOT EXISTS archives (
+                                academic_year INTEGER PRIMARY KEY,
+                                file TEXT NOT NULL,
+                                start_date TEXT NOT NULL,
+                                end_date TEXT NOT NULL,
+                                attendance_rows INTEGER NOT NULL,
+                                archived_at TEXT NOT NULL
+                            );""";
+
+        // A stamp changed by every commit; a snapshot is used only while its stamp matches
+        String sqlDataVersion = """
+                            CREATE TABLE IF NOT EXISTS data_version (
+                                id INTEGER PRIMARY KEY CHECK (id = 1),
+                                version INTEGER NOT NULL
+                            );""";
+        String sqlDataVersionRow = "INSERT OR IGNORE INTO data_version(id, version) VALUES (1, random());";
+
+        // Replication between installations (see ChangeLog and SyncEngine): this installation's
+        // ID, every change made or received, and how far each peer has been synced
+        String sqlInstallation = """
+                            CREATE TABLE IF NOT EXISTS installation (
+                                id INTEGER PRIMARY KEY CHECK (id = 1),
+                                installation_id TEXT NOT NULL
+                            );""";
+        String sqlInstallationRow = "INSERT OR IGNORE INTO installation(id, installation_id) VALUES (1, lower(hex(randomblob(8))));";
+        String sqlChangeLog = """
+                            CREATE TABLE IF NOT EXISTS change_log (
+                                seq INTEGER PRIMARY KEY,
+                                origin TEXT NOT NULL,
+                                origin_seq INTEGER NOT NULL,
+                                changed_at INTEGER NOT NULL,
+                                entity TEXT NOT NULL,
+                                entity_key TEXT NOT NULL,
+                                payload TEXT
+                            );""";
+        String sqlChangeLogOrigin = "CREATE UNIQUE INDEX IF NOT EXISTS idx_change_log_origin ON change_log(origin, origin_seq);";
+        String sqlChangeLogKey = "CREATE INDEX IF NOT EXISTS idx_change_log_key ON change_log(entity, entity_key, changed_at);";
+        // applied_seq: the peer's log position received up to; acked_seq: ours the peer has confirmed
+        String sqlSyncPeers = """
+                            CREATE TABLE IF NOT EXISTS sync_peers (
+                                peer TEXT PRIMARY KEY,
+                                applied_seq INTEGER NOT NULL DEFAULT 0,
+                                acked_seq INTEGER NOT NULL DEFAULT 0,
+                                last_sync TEXT
+                            );""";
+
+        // One row per task of every maintenance round (see DatabaseMaintenance)
+        String sqlMaintenanceLog = """
+                            CREATE TABLE IF NOT EXISTS maintenance_log (
+                                id INTEGER PRIMARY KEY,
+                                run_at TEXT NOT NULL,
+                                task TEXT NOT NULL,
+                                duration_ms INTEGER NOT NULL,
+                                pages_reclaimed INTEGER NOT NULL,
+                                completed INTEGER NOT NULL,
+                                finding TEXT
+                            );""";
+
+        // One-time backfill for databases created before the summary table existed
+        String sqlBackfillMonthly = """
+                            INSERT INTO attendance_monthly(student_id, month, present_count, absent_count, late_count)
+                            SELECT student_id, substr(date, 1, 7),
+                                SUM(status = 'PRESENT'), SUM(status = 'ABSENT'), SUM(status = 'LATE')
+                            FROM attendance
+                            WHERE NOT EXISTS (SELECT 1 FROM attendance_monthly)
+                            GROUP BY student_id, substr(date, 1, 7);""";
+        
+
+        try (Connection conn = DriverManager.getConnection(url, connectionProperties());
+            Statement stmt = conn.createStatement()) {
+
+            // Only takes effect in a new, empty file; DatabaseMaintenance converts older files.
+            // Free pages can then be handed back a few at a time instead of by a full VACUUM
+            stmt.execute("PRAGMA auto_vacuum=INCREMENTAL");
+
+            // WAL lets readers keep working while the writer thread commits
+            stmt.execute("PRAGMA journal_mode=WAL");
+
+            // Execute SQL statements to create tables
+            stmt.execute(sqlStudents);
+            stmt.execute(sqlGrades);
+            stmt.execute(sqlGradeHistory);
+            stmt.execute(sqlGradeHistoryIndex);
+            try (PreparedStatement backfill = conn.prepareStatement(sqlBackfillGradeHistory)) {
+                backfill.setString(1, SchoolSystem.termOf(LocalDate.now()));
+                backfill.executeUpdate();
+            }
+            // The layout is chosen when the file is created and kept from then on
+            String existing = null;
+            try (ResultSet rs = stmt.executeQuery("SELECT type FROM sqlite_master WHERE name = 'attendance'")) {
+                if (rs.next()) {
+                    existing = rs.getString(1);
+                }
+            }
+            attendancePacked = existing == null
+                    ? PackedAttendance.PACKED.equals(PackedAttendance.configuredLayout(id))
+                    : "view".equals(existing);
+            if (attendancePacked) {
+                stmt.execute(sqlAttendancePacked);
+                stmt.execute(sqlAttendancePackedMonthIndex);
+                stmt.execute(sqlAttendanceView);
+            } else {
+                stmt.execute(sqlAttendance);
+                stmt.execute(sqlAttendanceDateIndex);
+            }
+            stmt.execute(sqlAttendanceMonthly);
+            stmt.execute(sqlBackfillMonthly);
+            stmt.execute(sqlArchives);
+            stmt.execute(sqlDataVersion);
+            stmt.execute(sqlDataVersionRow);
+            stmt.execute(sqlInstallation);
+            stmt.execute(sqlInstallationRow);
+            stmt.execute(sqlChangeLog);
+            stmt.execute(sqlChangeLogOrigin);
+            stmt.execute(sqlChangeLogKey);
+            stmt.execute(sqlSyncPeers);
+            stmt.execute(sqlMaintenanceLog);
+            ChangeLog.backfill(conn);
+
+            // Log the correct schema type to confirm
+            System.out.println("Database for school '" + id + "' (" + url + ") initialized and tables verified (Fixed Grades Schema"
+                    + (attendancePacked ? ", packed attendance" : "") + ").");
+
+        } catch (SQLException e) {
+            System.err.println(" Error initializing database for school '" + id + "': " + e.getMessage());
+        }
+    }
+}
@@ -1,253 +1,305 @@
 package com.example;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map; // ADDED: Required for reporting methods
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * The Manager/Service class, refactored to use JDBC for permanent data storage.
+ * The Manager/Service class used by all controllers.
+ * Storage is delegated to the repositories of one school's SchoolBackend. That is the currently
+ * selected school unless a backend is passed in, and SQLite unless -Dschool.backend says otherwise.
+ * This class adds what every backend shares: logging, keeping the attendance index current,
+ * auditing grade and attendance changes and publishing change events once a write has been committed.
  * UPDATED for fixed 5-subject grading.
  */
 public class SchoolSystem {
 
+    // First month of the academic year (June by default)
+    public static final int ACADEMIC_YEAR_START_MONTH = Integer.getInteger("school.academicYearStartMonth", 6);
+    // Grading terms per academic year, of equal length in months (3 by default)
+    public static final int TERMS_PER_YEAR = Integer.getInteger("school.termsPerYear", 3);
+
+    private final StudentRepository students;
+    private final GradeRepository grades;
+    private final AttendanceRepository attendance;
+    private final ReportCache reportCache;
+    private final SchoolBackend backend;
+    private final AuditLog audit = AuditLog.getInstance();
+
     // --- Constructor ---
     public SchoolSystem() {
+        this(SchoolBackend.current());
+    }
+
+    public SchoolSystem(SchoolBackend backend) {
+        this.backend = backend;
+        this.students = backend.students();
+        this.grades = backend.grades();
+        this.attendance = backend.attendance();
+        this.reportCache = backend.reportCache();
         System.out.println(" School System Manager ready.");
     }
 
     // --- Student Management (CREATE/READ/UPDATE/DELETE) ---
 
-    // ... (addStudent, updateStudent, deleteStudent, getAllStudents, findStudentById, recordGrade remain unchanged) ...
-
-    public void addStudent(Student newStudent) {
-        if (findStudentById(newStudent.getStudentId()) != null) {
-            System.out.println(" Error: Student with ID " + newStudent.getStudentId() + " already exists.");
-            return;
-        }
-
-        String sqlStudent = "INSERT INTO students(id, name, grade_level) VALUES(?, ?, ?)";
-        String sqlGrades = "INSERT INTO grades(student_id) VALUES(?)"; // Insert initial grade record
-
-        try (Connection conn = DatabaseManager.getConnection()) {
-            conn.setAutoCommit(false); // Start transaction
+    // Each mutation returns a CompletableFuture that completes once the change is durable.
 
-            // 1. Insert into students table
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlStudent)) {
-                pstmt.setString(1, newStudent.getStudentId());
-                pstmt.setString(2, newStudent.getName());
-                pstmt.setString(3, newStudent.getGradeLevel());
-                pstmt.executeUpdate();
-            }
-
-            // 2. Insert initial record into grades table
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlGrades)) {
-                pstmt.setString(1, newStudent.getStudentId());
-                pstmt.executeUpdate();
+    /**
+     * Adds a new student and an initial (all zero) grade record.
+     * @return A future completed with false if a student with the same ID already exists.
+     */
+    public CompletableFuture<Boolean> addStudent(Student newStudent) {
+        return logged("adding student", students.addStudent(newStudent)).thenApply(added -> {
+            if (added) {
+                AttendanceIndex.onStudentAdded(backend.school(), newStudent.getStudentId());
+                publish(new ChangeEvent.StudentAdded(newStudent.getStudentId(), newStudent.getName(), newStudent.getGradeLevel()));
             }
+            return added;
+        });
+    }
 
-            conn.commit(); // Commit transaction
-            System.out.println("Student and initial grade record saved to DB: " + newStudent.getName());
+    public CompletableFuture<Void> updateStudent(Student student) {
+        // Capture the values now; the Student object may be edited again before the write runs
+        String name = student.getName();
+        String gradeLevel = student.getGradeLevel();
+        String studentId = student.getStudentId();
 
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR adding student: " + e.getMessage());
-        }
+        return logged("updating student", students.updateStudent(studentId, name, gradeLevel))
+            .thenRun(() -> publish(new ChangeEvent.StudentUpdated(studentId, name, gradeLevel)));
     }
 
-    public void updateStudent(Student student) {
-        String sql = "UPDATE students SET name = ?, grade_level = ? WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Deletes a student together with their grades and attendance.
+     */
+    public CompletableFuture<Void> deleteStudent(String studentId) {
+        return logged("deleting student", students.deleteStudent(studentId)).thenRun(() -> {
+            AttendanceIndex.onStudentDeleted(backend.school(), studentId);
+            publish(new ChangeEvent.StudentDeleted(studentId));
+        });
+    }
+    
+    // --- Bulk Operations (year-end promotion and graduation) ---
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getGradeLevel());
-            pstmt.setString(3, student.getStudentId());
-            pstmt.executeUpdate();
+    // Each runs as one set-based transaction. Progress (0.0 to 1.0) is reported on the writing
+    // thread; the callback may be null.
 
-            System.out.println("Student updated in DB: " + student.getName());
+    /**
+     * Moves every student of one grade level to another (e.g. "9" -> "10").
+     * @return A future completed with the number of students moved.
+     */
+    public CompletableFuture<Integer> promoteGradeLevel(String fromLevel, String toLevel, DoubleConsumer progress) {
+        return renameGradeLevels(Map.of(fromLevel, toLevel), progress);
+    }
 
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR updating student: " + e.getMessage());
+    /**
+     * Renames several grade levels at once. All renames apply simultaneously, so a whole
+     * school can be promoted with {"11" -> "12", "10" -> "11", ...} without chaining.
+     * @return A future completed with the number of students whose grade level changed.
+     */
+    public CompletableFuture<Integer> renameGradeLevels(Map<String, String> renames, DoubleConsumer progress) {
+        if (renames.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
         }
+        Map<String, String> mapping = Map.copyOf(renames);
+        return logged("renaming grade levels", students.renameGradeLevels(mapping, progress)).thenApply(updated -> {
+            System.out.println("Grade levels renamed " + mapping + ": " + updated + " students updated.");
+            publish(new ChangeEvent.GradeLevelsChanged(mapping));
+            return updated;
+        });
     }
 
-    public void deleteStudent(String studentId) {
-        // Delete records in grades, attendance, then students (due to foreign key constraints)
-        String sqlGrades = "DELETE FROM grades WHERE student_id = ?";
-        String sqlAttendance = "DELETE FROM attendance WHERE student_id = ?";
-        String sqlStudent = "DELETE FROM students WHERE id = ?";
-
-        try (Connection conn = DatabaseManager.getConnection()) {
-            conn.setAutoCommit(false); // Start transaction
+    /**
+     * Deletes a list of students together with their grades, attendance and monthly counters.
+     * @return A future completed with the IDs that existed and were deleted.
+     */
+    public CompletableFuture<Set<String>> deleteStudents(Collection<String> studentIds, DoubleConsumer progress) {
+        if (studentIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Set.of());
+        }
+        return afterBulkDelete(logged("deleting students", students.deleteStudents(studentIds, progress)));
+    }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlGrades)) {
-                pstmt.setString(1, studentId);
-                pstmt.executeUpdate();
-            }
+    /**
+     * Deletes every student of a grade level (e.g. a graduating class) with all related records.
+     * @return A future completed with the IDs of the deleted students.
+     */
+    public CompletableFuture<Set<String>> deleteCohort(String gradeLevel, DoubleConsumer progress) {
+        return afterBulkDelete(logged("deleting cohort " + gradeLevel, students.deleteGradeLevel(gradeLevel, progress)));
+    }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlAttendance)) {
-                pstmt.setString(1, studentId);
-                pstmt.executeUpdate();
-            }
+    private CompletableFuture<Set<String>> afterBulkDelete(CompletableFuture<Set<String>> delete) {
+        return delete.thenApply(deleted -> {
+            System.out.println("Bulk delete: " + deleted.size() + " students and their records removed.");
+            deleted.forEach(id -> AttendanceIndex.onStudentDeleted(backend.school(), id));
+            publish(new ChangeEvent.StudentsDeleted(Set.copyOf(deleted)));
+            return deleted;
+        });
+    }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlStudent)) {
-                pstmt.setString(1, studentId);
-                pstmt.executeUpdate();
-            }
+    // --- Reading Students ---
 
-            conn.commit();
-            System.out.println("Student and all related records deleted from DB: ID " + studentId);
+    /**
+     * Loads every student with grades and full attendance history.
+     * Prefer streamStudents/forEachStudent (or a narrower projection) for large schools.
+     */
+    public List<Student> getAllStudents() {
+        return getAllStudents(StudentProjection.full());
+    }
 
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR deleting student: " + e.getMessage());
+    /**
+     * Loads every student with only the parts named by the projection.
+     */
+    public List<Student> getAllStudents(StudentProjection projection) {
+        try (Stream<Student> stream = streamStudents(projection)) {
+            return stream.collect(Collectors.toList());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return new ArrayList<>();
         }
     }
-    
-    // ... (getAllStudents remains unchanged) ...
-    
-    public List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT id, name, grade_level FROM students";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Student s = new Student(
-                    rs.getString("id"),
-                    rs.getString("name"),
-                    rs.getString("grade_level")
-                );
-                // Load additional data (grades and attendance)
-                loadStudentGrades(conn, s);
-                loadStudentAttendance(conn, s);
-                students.add(s);
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR retrieving students: " + e.getMessage());
+
+    public Student findStudentById(String studentId) {
+        try (Stream<Student> stream = streamStudents(StudentProjection.full().onlyStudent(studentId))) {
+            return stream.findFirst().orElse(null);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return null;
         }
-        return students;
     }
 
-    public Student findStudentById(String studentId) {
-        // Uses the list loading mechanism to find a single student efficiently for UI purposes
-        return getAllStudents().stream()
-                .filter(s -> s.getStudentId().equals(studentId))
-                .findFirst()
-                .orElse(null);
+    public int countStudents() {
+        return students.countStudents();
+    }
+
+    /**
+     * Streams students lazily in ID order; with the SQLite backend only the current student is in
+     * memory. The stream may hold a database connection and MUST be closed (use try-with-resources).
+     * Read errors while streaming surface as IllegalStateException.
+     */
+    public Stream<Student> streamStudents(StudentProjection projection) {
+        return students.streamStudents(projection);
+    }
+
+    /**
+     * Calls the action for every student in ID order, closing the stream afterwards.
+     */
+    public void forEachStudent(StudentProjection projection, Consumer<Student> action) {
+        try (Stream<Student> stream = streamStudents(projection)) {
+            stream.forEach(action);
+        }
     }
     
     // --- Grade Management (CREATE/UPDATE) ---
 
     /**
-     * Records all 5 fixed subject grades for a student in a single operation (INSERT/UPDATE).
-     * Since the grades table uses student_id as the primary key, we use REPLACE.
+     * Records all 5 fixed subject grades for a student in a single operation (INSERT/UPDATE),
+     * filed under the current term.
      * FIX: Replaced 'social' and 'kannada' with the correct parameters 'history' and 'art'.
      */
-    public void recordGrade(String studentId, int math, int science, int english, int history, int art) {
-        String sql = """
-            INSERT OR REPLACE INTO grades(student_id, math_score, science_score, social_score,english_score, kannada_score)
-            VALUES(?, ?, ?, ?, ?, ?)
-            """;
-        
-        try (Connection conn = DatabaseManager.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, studentId);
-            pstmt.setInt(2, math);
-            pstmt.setInt(3, science);
-            pstmt.setInt(4, history); // Maps to social_score column (FIXED)
-            pstmt.setInt(5, english);
-            pstmt.setInt(6, art); // Maps to kannada_score column (FIXED)
-            pstmt.executeUpdate();
-            
-            System.out.println("Fixed grades recorded/updated for student ID: " + studentId);
-
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR recording grades: " + e.getMessage());
-        }
+    public CompletableFuture<Void> recordGrade(String studentId, int math, int science, int english, int history, int art) {
+        return recordGrade(studentId, termOf(LocalDate.now()), math, science, english, history, art);
     }
-    
+
     /**
-     * Loads the 5 fixed subject grades from the DB into the Student object's properties.
+     * Records grades for the given term (e.g. late entries for the previous one). They become
+     * the student's current scores and are added to the grade history; earlier entries are kept.
      */
-    private void loadStudentGrades(Connection conn, Student s) throws SQLException {
-        String sql = "SELECT math_score, science_score, social_score, english_score, kannada_score FROM grades WHERE student_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, s.getStudentId());
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                // Set the fixed properties on the Student object
-                s.setMathScore(rs.getInt("math_score"));
-                s.setScienceScore(rs.getInt("science_score"));
-                s.setSocialScore(rs.getInt("social_score"));
-                s.setEnglishScore(rs.getInt("english_score"));
-                s.setKannadaScore(rs.getInt("kannada_score"));
-            }
-            // If rs.next() is false, the scores remain 0 (from Student constructor default)
-        }
+    public CompletableFuture<Void> recordGrade(String studentId, String term, int math, int science, int english, int history, int art) {
+        // history maps to the social_score column, art to kannada_score
+        return logged("recording grades", grades.recordGrades(studentId, term, math, science, history, english, art))
+            .thenAccept(previous -> {
+                audit.record(backend.school(), "grades", studentId, previous, new GradeRepository.Scores(math, science, history, english, art));
+                publish(new ChangeEvent.GradesChanged(studentId, math, science, history, english, art));
+            });
     }
 
-    // --- Attendance Management (CREATE) ---
+    /**
+     * Every grade entry of one student, by term, oldest first within a term.
+     */
+    public List<GradeRepository.TermScores> getGradeHistory(String studentId) {
+        return grades.getGradeHistory(studentId);
+    }
 
-    public void recordAttendance(String studentId, LocalDate date, String status) {
-        // Use INSERT OR REPLACE to allow updating an existing attendance record for the same day
-        String sql = "INSERT OR REPLACE INTO attendance(student_id, date, status) VALUES(?, ?, ?)";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, studentId);
-            pstmt.setString(2, date.toString()); // Convert LocalDate to String (YYYY-MM-DD)
-            pstmt.setString(3, status);
-            pstmt.executeUpdate();
-            
-            System.out.println("Attendance recorded/updated for student ID: " + studentId);
-
-        } catch (SQLException e) {
-            System.err.println("SQL ERROR recording attendance: " + e.getMessage());
-        }
+    /**
+     * Term-over-term comparison for a grade level: the latest scores of each student in both
+     * terms and the change between them. Students without grades in toTerm are left out.
+     */
+    public List<GradeRepository.TermComparison> compareTerms(String gradeLevel, String fromTerm, String toTerm) {
+        return reportCache.get("term-comparison", List.of(gradeLevel, fromTerm, toTerm),
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.GRADES),
+            () -> List.copyOf(grades.compareTerms(gradeLevel, fromTerm, toTerm)), List::size);
     }
 
-    // --- Data Loading for Attendance ---
+    // --- Attendance Management (CREATE) ---
 
-    private void loadStudentAttendance(Connection conn, Student s) throws SQLException {
-        String sql = "SELECT date, status FROM attendance WHERE student_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, s.getStudentId());
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                s.recordAttendance(LocalDate.parse(rs.getString("date")), rs.getString("status"));
+    public CompletableFuture<Void> recordAttendance(String studentId, LocalDate date, String status) {
+        return logged("recording attendance", attendance.recordAttendance(studentId, date, status)).thenAccept(previous -> {
+            audit.record(backend.school(), "attendance", studentId + " " + date, previous, status);
+            AttendanceIndex.onAttendanceRecorded(backend.school(), studentId, date, status);
+            publish(new ChangeEvent.AttendanceRecorded(studentId, date, status));
+        });
+    }
+
+    /**
+     * Logs a failed mutation. The returned future still completes exceptionally so callers can report the error.
+     */
+    private <T> CompletableFuture<T> logged(String action, CompletableFuture<T> result) {
+        result.whenComplete((value, ex) -> {
+            if (ex != null) {
+                System.err.println("ERROR " + action + ": " + ex.getMessage());
             }
+        });
+        return result;
+    }
+
+    /**
+     * Announces a change that SyncEngine applied from another installation, after its commit:
+     * the attendance index is patched as for a local write, then the change is published.
+     */
+    void announceReplicated(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.StudentAdded added -> AttendanceIndex.onStudentAdded(backend.school(), added.studentId());
+            case ChangeEvent.StudentDeleted deleted -> AttendanceIndex.onStudentDeleted(backend.school(), deleted.studentId());
+            case ChangeEvent.AttendanceRecorded recorded ->
+                AttendanceIndex.onAttendanceRecorded(backend.school(), recorded.studentId(), recorded.date(), recorded.status());
+            default -> { }
         }
+        publish(event);
     }
-    
+
+    /**
+     * Announces a committed change (called from the write futures, after commit): cached reports
+     * built from the changed data go stale first, then open views are told.
+     */
+    private void publish(ChangeEvent event) {
+        reportCache.bump(event);
+        ChangeEventBus.forSchool(backend.school()).publish(event);
+    }
+
     // --- Reporting and Calculations (RE-ADDED) ---
 
+    // Reports are served from the backend's ReportCache until the data they depend on changes.
+    // The returned lists are shared and unmodifiable.
+
     /**
      * Implements the method required by AttendanceReportController.java.
-     * Fetches all students and pivots their attendance data for the given date range.
+     * With SQLite, archived academic years are read only when the range reaches into them.
      */
     public List<AttendanceReportEntry> getPivotedAttendanceReport(LocalDate startDate, LocalDate endDate) {
-        List<Student> students = getAllStudents();
-        
-        return students.stream().map(s -> {
-            // Filter the attendance map in Student based on the date range
-            Map<LocalDate, String> filteredAttendance = s.getAttendanceRecords().entrySet().stream()
-                .filter(e -> !e.getKey().isBefore(startDate) && !e.getKey().isAfter(endDate))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-                
-            // Uses the constructor signature: (String studentId, String studentName, Map<LocalDate, String> attendanceData).
-            return new AttendanceReportEntry(s.getStudentId(), s.getName(), filteredAttendance);
-        }).collect(Collectors.toList());
+        return reportCache.get("attendance-pivot", List.of(startDate, endDate),
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.ATTENDANCE),
+            () -> List.copyOf(attendance.getPivotedAttendanceReport(startDate, endDate)),
+            entries -> entries.size() + entries.stream().mapToInt(e -> e.getAttendanceData().size()).sum());
     }
 
     /**
@@ -255,7 +307,14 @@ public class SchoolSystem {
      * UPDATED to pass all five subject scores to the new GradeSummaryEntry constructor.
      */
     public List<GradeSummaryEntry> getGradeSummaryForAll() {
-        List<Student> students = getAllStudents();
+        return reportCache.get("grade-summary", List.of(),
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.GRADES),
+            () -> List.copyOf(loadGradeSummary()), List::size);
+    }
+
+    private List<GradeSummaryEntry> loadGradeSummary() {
+        // Attendance is not part of the summary, so it is never loaded
+        List<Student> students = getAllStudents(StudentProjection.full().withoutAttendance());
         
         return students.stream().map(s -> {
             // Uses the new 8-argument constructor
@@ -271,4 +330,59 @@ public class SchoolSystem {
             );
         }).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // --- Attendance Set Queries ---
+
+    public String getSchool() {
+        return backend.school();
+    }
+
+    /**
+     * Returns the school's shared attendance bitmap index, building it from the backend on first use.
+     * Kept current by recordAttendance and deleteStudent once built.
+     */
+    public AttendanceIndex getAttendanceIndex() {
+        return AttendanceIndex.getShared(backend);
+    }
+
+    // --- Attendance Rates ---
+
+    /**
+     * Returns the first day of the academic year containing the given date.
+     * The starting month defaults to June and can be changed with -Dschool.academicYearStartMonth.
+     */
+    public static LocalDate academicYearStart(LocalDate day) {
+        int year = day.getMonthValue() >= ACADEMIC_YEAR_START_MONTH ? day.getYear() : day.getYear() - 1;
+        return LocalDate.of(year, ACADEMIC_YEAR_START_MONTH, 1);
+    }
+
+    /**
+     * Returns the grading term containing the given date, e.g. "2025-26 T1". Labels sort in
+     * chronological order; the number of terms is set with -Dschool.termsPerYear.
+     */
+    public static String termOf(LocalDate day) {
+        LocalDate start = academicYearStart(day);
+        int month = (day.getYear() - start.getYear()) * 12 + day.getMonthValue() - start.getMonthValue();
+        return String.format("%d-%02d T%d", start.getYear(), (start.getYear() + 1) % 100, month * TERMS_PER_YEAR / 12 + 1);
+    }
+
+    /**
+     * Lists students whose attendance rate over the given months is below the threshold
+     * (e.g. 0.9 for the usual "missed 10% or more" definition), lowest rate first.
+     */
+    public List<AttendanceRateEntry> getChronicAbsentees(YearMonth from, YearMonth to, double threshold) {
+        return reportCache.get("chronic-absentees", List.of(from, to, threshold),
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.ATTENDANCE),
+            () -> List.copyOf(attendance.getChronicAbsentees(from, to, threshold)), List::size);
+    }
+
+    /**
+     * Aggregates attendance counts per grade level over the given months.
+     * The returned entries carry no student ID or name.
+     */
+    public List<AttendanceRateEntry> getAttendanceRatesByGradeLevel(YearMonth from, YearMonth to) {
+        return reportCache.get("grade-level-rates", List.of(from, to),
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.ATTENDANCE),
+            () -> List.copyOf(attendance.getAttendanceRatesByGradeLevel(from, to)), List::size);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Loads the data of a screen while the user is still deciding to open it. The Dashboard starts a
+ * prefetch when the pointer rests on (or the keyboard focuses) a navigation button and cancels it
+ * when both leave; the screen's controller claims the result in initialize, so the query overlaps
+ * the click and the FXML loading instead of following them.
+ *
+ * A claimed result is used only if it belongs to the current school and day and none of the data
+ * domains it was computed from has changed since it started (see ReportCache generations);
+ * otherwise the controller loads as it always did. Results are handed over once, and whatever is
+ * not claimed by the next navigation is dropped.
+ *
+ * start() runs on the FX thread and only compares in-memory generations; the full stamp, which
+ * also looks for commits by other processes in the database, is taken on the prefetch thread
+ * and checked again when the result is claimed.
+ */
+public final class ScreenPrefetcher {
+
+    /**
+     * One kind of screen data: what it depends on and how to load it for a school.
+     */
+    public record Key<T>(String name, Set<ReportCache.Domain> dependsOn, Function<SchoolSystem, T> loader) {}
+
+    /** Students with grades, as listed by Student Management, Grade Management and Attendance Tracking. */
+    public static final Key<List<Student>> STUDENT_LIST = new Key<>("student list",
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.GRADES),
+            school -> school.getAllStudents(StudentProjection.full().withoutAttendance()));
+
+    /** The attendance report over the last DEFAULT_REPORT_DAYS days, the report screen's default range. */
+    public static final Key<List<AttendanceReportEntry>> DEFAULT_ATTENDANCE_REPORT = new Key<>("attendance report",
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.ATTENDANCE),
+            school -> school.getPivotedAttendanceReport(defaultReportStart(), LocalDate.now()));
+
+    /** The grade summary of every student. */
+    public static final Key<List<GradeSummaryEntry>> GRADE_SUMMARY = new Key<>("grade summary",
+            EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.GRADES),
+            SchoolSystem::getGradeSummaryForAll);
+
+    public static final int DEFAULT_REPORT_DAYS = 30;
+
+    // Two threads, so a prefetch still running for a button the pointer has left does not hold up the next
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread t = new Thread(runnable, "screen-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // A loaded value and the full generation taken just before loading it
+    private record Loaded(long generation, Object value) {}
+
+    private record Prefetch(String school, LocalDate day, long domainGeneration, CompletableFuture<Loaded> result) {}
+
+    private static final Map<Key<?>, Prefetch> pending = new HashMap<>();
+
+    // --- Statistics ---
+    private static final AtomicLong started = new AtomicLong();
+    private static final AtomicLong used = new AtomicLong();
+    private static final AtomicLong stale = new AtomicLong();
+    private static final AtomicLong cancelled = new AtomicLong();
+
+    private ScreenPrefetcher() {
+    }
+
+    public static LocalDate defaultReportStart() {
+        return LocalDate.now().minusDays(DEFAULT_REPORT_DAYS);
+    }
+
+    /**
+     * Starts loading the data for the current school, unless a usable prefetch of it is already pending.
+     */
+    public static synchronized <T> void start(Key<T> key) {
+        String schoolId = DatabaseManager.getCurrentSchool();
+        ReportCache cache = SchoolBackend.current().reportCache();
+        long domainGeneration = cache.domainGeneration(key.dependsOn());
+        Prefetch existing = pending.get(key);
+        if (existing != null && existing.school().equals(schoolId) && existing.day().equals(LocalDate.now())
+                && existing.domainGeneration() == domainGeneration && !existing.result().isCompletedExceptionally()) {
+            return;
+        }
+        cancel(key);
+        started.incrementAndGet();
+        SchoolSystem school = new SchoolSystem();
+        pending.put(key, new Prefetch(schoolId, LocalDate.now(), domainGeneration, CompletableFuture.supplyAsync(
+                () -> new Loaded(cache.generation(key.dependsOn()), key.loader().apply(school)), executor)));
+    }
+
+    /**
+     * Drops a prefetch that will not be used. One not started yet never runs; a running query
+     * finishes on its thread and its result is discarded.
+     */
+    public static synchronized void cancel(Key<?> key) {
+        Prefetch prefetch = pending.remove(key);
+        if (prefetch != null) {
+            prefetch.result().cancel(false);
+            cancelled.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every unclaimed prefetch (called after each navigation).
+     */
+    public static synchronized void cancelAll() {
+        for (Key<?> key : List.copyOf(pending.keySet())) {
+            cancel(key);
+        }
+    }
+
+    /**
+     * Takes the prefetched data of the current school, waiting for it if it is still loading.
+     * @return The data, or null if there is no prefetch or it failed or no longer matches the data.
+     */
+    public static <T> T claim(Key<T> key) {
+        Prefetch prefetch;
+        synchronized (ScreenPrefetcher.class) {
+            prefetch = pending.remove(key);
+        }
+        if (prefetch == null) {
+            return null;
+        }
+        if (!prefetch.school().equals(DatabaseManager.getCurrentSchool()) || !prefetch.day().equals(LocalDate.now())) {
+            prefetch.result().cancel(false);
+            stale.incrementAndGet();
+            return null;
+        }
+        Loaded loaded;
+        try {
+            loaded = prefetch.result().join();
+        } catch (CancellationException | CompletionException e) {
+            System.err.println("ERROR prefetching " + key.name() + ": " + e.getMessage());
+            return null;
+        }
+        // Compared after the load: a change committed while it ran makes the result stale too
+        if (SchoolBackend.forSchool(prefetch.school()).reportCache().generation(key.dependsOn()) != loaded.generation()) {
+            stale.incrementAndGet();
+            return null;
+        }
+        used.incrementAndGet();
+        @SuppressWarnings("unchecked")
+        T result = (T) loaded.value();
+        return result;
+    }
+
+    /**
+     * The prefetched data if it can be used, otherwise the data loaded now through the given school system.
+     */
+    public static <T> T claimOrLoad(Key<T> key, SchoolSystem school) {
+        T prefetched = claim(key);
+        return prefetched != null ? prefetched : key.loader().apply(school);
+    }
+
+    /**
+     * One-line summary for the diagnostics output.
+     */
+    public static String describe() {
+        return String.format("%d started, %d used, %d stale, %d cancelled",
+                started.get(), used.get(), stale.get(), cancelled.get());
+    }
+}
@@ -0,0 +1,339 @@
+package com.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Logs every SQL statement that takes longer than {@code -Dschool.db.slowQueryMillis} (default 100;
+ * a negative value turns the log off) together with its bind parameters, row count and the
+ * EXPLAIN QUERY PLAN output, so a slow screen shows at once whether SQLite scanned a table or
+ * used an index.
+ *
+ * SchoolDatabase wraps each physical connection (read pool and writer alike), so every statement
+ * of the data layer is measured. The time counted is the time spent inside SQLite: executing the
+ * statement plus every ResultSet.next(), not the caller's work between rows. A query is reported
+ * when its ResultSet (or statement) is closed; the plan is taken on the same connection with the
+ * same parameters, and only for slow statements.
+ */
+public class SlowQueryLog {
+
+    private static final int RECENT_LIMIT = 50;
+
+    /**
+     * One logged statement. Plan lines are indented by depth, as the sqlite3 shell prints them.
+     */
+    public record SlowQuery(LocalTime at, String school, String sql, List<Object> parameters,
+                            long rows, long millis, List<String> plan) {
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.format("SLOW QUERY %d ms, %d rows, school '%s': %s", millis, rows, school, sql));
+            if (!parameters.isEmpty()) {
+                out.append("\n  parameters: ").append(parameters);
+            }
+            for (String line : plan) {
+                out.append("\n  plan: ").append(line);
+            }
+            return out.toString();
+        }
+    }
+
+    private static volatile long thresholdNanos = toNanos(Long.getLong("school.db.slowQueryMillis", 100));
+
+    // Where slow statements go; System.err and the recent list unless replaced (the plan tests capture them)
+    private static volatile Consumer<SlowQuery> sink = SlowQueryLog::log;
+
+    private static final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private static final AtomicLong slowCount = new AtomicLong();
+    private static final AtomicLong slowestMillis = new AtomicLong();
+
+    private SlowQueryLog() {}
+
+    private static long toNanos(long millis) {
+        return millis < 0 ? -1 : millis * 1_000_000;
+    }
+
+    public static boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    public static long getThresholdMillis() {
+        return thresholdNanos < 0 ? -1 : thresholdNanos / 1_000_000;
+    }
+
+    /**
+     * Changes the threshold for connections opened from now on as well as already wrapped ones;
+     * 0 logs every statement. Connections opened while the log was off stay unmeasured.
+     */
+    public static void setThresholdMillis(long millis) {
+        thresholdNanos = toNanos(millis);
+    }
+
+    /**
+     * Sends slow statements to the given consumer instead of the log.
+     * @return The previous consumer, to restore afterwards.
+     */
+    static Consumer<SlowQuery> setSink(Consumer<SlowQuery> newSink) {
+        Consumer<SlowQuery> previous = sink;
+        sink = newSink;
+        return previous;
+    }
+
+    /**
+     * The most recent slow statements, oldest first.
+     */
+    public static List<SlowQuery> getRecent() {
+        synchronized (recent) {
+            return List.copyOf(recent);
+        }
+    }
+
+    /**
+     * One-line summary for the diagnostics output.
+     */
+    public static String describe() {
+        if (!isEnabled()) {
+            return "off";
+        }
+        return String.format("%d statements over %d ms, slowest %d ms", slowCount.get(), getThresholdMillis(), slowestMillis.get());
+    }
+
+    private static void log(SlowQuery query) {
+        slowCount.incrementAndGet();
+        slowestMillis.accumulateAndGet(query.millis(), Math::max);
+        synchronized (recent) {
+            if (recent.size() == RECENT_LIMIT) {
+                recent.removeFirst();
+            }
+            recent.addLast(query);
+        }
+        System.err.println(query);
+    }
+
+    // --- Query plans ---
+
+    /**
+     * Runs EXPLAIN QUERY PLAN for a statement with the given parameters.
+     * @return The plan lines, or an empty list for statements SQLite cannot explain (PRAGMA, VACUUM, ...).
+     */
+    public static List<String> explain(Connection conn, String sql, List<Object> parameters) throws SQLException {
+        String verb = sql.stripLeading().split("\\s", 2)[0].toUpperCase();
+        if (!List.of("SELECT", "WITH", "INSERT", "REPLACE", "UPDATE", "DELETE").contains(verb)) {
+            return List.of();
+        }
+        Map<Integer, Integer> depthById = new TreeMap<>();
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = unwrapped(conn).prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int depth = depthById.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depthById.put(rs.getInt("id"), depth);
+                    plan.add("  ".repeat(depth) + rs.getString("detail"));
+                }
+            }
+        }
+        return plan;
+    }
+
+    // The plan query itself must not be measured (and logged) again
+    private static Connection unwrapped(Connection conn) {
+        return Proxy.isProxyClass(conn.getClass()) && Proxy.getInvocationHandler(conn) instanceof ConnectionHandler handler
+                ? handler.physical : conn;
+    }
+
+    // --- Measuring statements ---
+
+    /**
+     * Wraps a physical connection so that its statements are measured; returns it unchanged if
+     * the log is off.
+     */
+    static Connection wrap(Connection physical, String school) {
+        if (!isEnabled()) {
+            return physical;
+        }
+        return proxy(Connection.class, new ConnectionHandler(physical, school));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final String school;
+
+        ConnectionHandler(Connection physical, String school) {
+            this.physical = physical;
+            this.school = school;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(physical, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" ->
+                    proxy(PreparedStatement.class, new StatementHandler(this, (Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler(this, (Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    /**
+     * Measures one statement. For a PreparedStatement the SQL is fixed and the parameters are
+     * collected from the setters; a plain Statement gets its SQL with each execute call.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final Statement target;
+        private final String preparedSql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        // The execution being measured (sql == null when none is open)
+        private String sql;
+        private List<Object> boundParameters;
+        private long nanos;
+        private long rows;
+
+        StatementHandler(ConnectionHandler connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && preparedSql != null) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+                return forward(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameters.clear();
+                return forward(target, method, args);
+            }
+            if (name.equals("close")) {
+                finish();
+                return forward(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+
+            finish(); // Re-executing a statement closes its previous result
+            sql = preparedSql != null ? preparedSql : (String) args[0];
+            boundParameters = Collections.unmodifiableList(new ArrayList<>(parameters.values())); // May hold nulls
+            rows = 0;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(target, method, args);
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+            if (result instanceof ResultSet rs) {
+                return proxy(ResultSet.class, new ResultSetHandler(this, rs));
+            }
+            if (result instanceof Integer count) {
+                rows = count;
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            finish();
+            return result;
+        }
+
+        void finish() {
+            if (sql == null) {
+                return;
+            }
+            String finished = sql;
+            sql = null;
+            if (thresholdNanos < 0 || nanos < thresholdNanos) {
+                return;
+            }
+            List<String> plan;
+            try {
+                plan = explain(connection.physical, finished, boundParameters);
+            } catch (SQLException e) {
+                plan = List.of("(no plan: " + e.getMessage() + ")");
+            }
+            sink.accept(new SlowQuery(LocalTime.now().truncatedTo(ChronoUnit.MILLIS), connection.school,
+                    normalize(finished), boundParameters, rows, nanos / 1_000_000, plan));
+        }
+    }
+
+    /**
+     * Adds the time spent in next() to its statement and counts the rows.
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final StatementHandler statement;
+        private final ResultSet target;
+
+        ResultSetHandler(StatementHandler statement, ResultSet target) {
+            this.statement = statement;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    try {
+                        Object hasRow = forward(target, method, args);
+                        if (Boolean.TRUE.equals(hasRow)) {
+                            statement.rows++;
+                        }
+                        return hasRow;
+                    } finally {
+                        statement.nanos += System.nanoTime() - start;
+                    }
+                }
+                case "close" -> {
+                    statement.finish();
+                    return forward(target, method, args);
+                }
+                default -> {
+                    return forward(target, method, args);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,824 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The SQLite backend for one school: all reads use connections from the school's SchoolDatabase,
+ * all mutations are queued on its DatabaseWriter and committed in groups.
+ */
+public class SqliteSchoolRepository implements StudentRepository, GradeRepository, AttendanceRepository {
+
+    private final SchoolDatabase database;
+
+    public SqliteSchoolRepository(SchoolDatabase database) {
+        this.database = database;
+    }
+
+    // --- Students (CREATE/READ/UPDATE/DELETE) ---
+
+    /**
+     * Adds a new student and an initial (all zero) grade record.
+     * @return A future completed with false if a student with the same ID already exists.
+     */
+    @Override
+    public CompletableFuture<Boolean> addStudent(Student newStudent) {
+        String sqlExists = "SELECT 1 FROM students WHERE id = ?";
+
+        return submit(conn -> {
+            // 1. Reject duplicates (checked inside the write so two callers cannot race)
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlExists)) {
+                pstmt.setString(1, newStudent.getStudentId());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        System.out.println(" Error: Student with ID " + newStudent.getStudentId() + " already exists.");
+                        return false;
+                    }
+                }
+            }
+
+            // 2. Insert into students table, with an initial record in the grades table
+            writeStudent(conn, newStudent.getStudentId(), newStudent.getName(), newStudent.getGradeLevel());
+            ChangeLog.recordLocal(conn, ChangeLog.STUDENT, newStudent.getStudentId(),
+                    ChangeLog.studentPayload(newStudent.getName(), newStudent.getGradeLevel()));
+
+            System.out.println("Student and initial grade record saved to DB: " + newStudent.getName());
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateStudent(String studentId, String name, String gradeLevel) {
+        String sql = "UPDATE students SET name = ?, grade_level = ? WHERE id = ?";
+
+        return submit(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, name);
+                pstmt.setString(2, gradeLevel);
+                pstmt.setString(3, studentId);
+                if (pstmt.executeUpdate() > 0) {
+                    ChangeLog.recordLocal(conn, ChangeLog.STUDENT, studentId, ChangeLog.studentPayload(name, gradeLevel));
+                }
+            }
+            System.out.println("Student updated in DB: " + name);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteStudent(String studentId) {
+        return submit(conn -> {
+            if (deleteStudentRows(conn, database.isAttendancePacked(), studentId)) {
+                ChangeLog.recordLocal(conn, ChangeLog.STUDENT, studentId, null);
+            }
+            System.out.println("Student and all related records deleted from DB: ID " + studentId);
+            return null;
+        });
+    }
+
+    // --- Single-row writes, shared with SyncEngine (which applies other installations' changes) ---
+
+    /**
+     * Inserts a student with an initial (all zero) grade record, or updates the name and grade
+     * level if the student exists.
+     */
+    static void writeStudent(Connection conn, String studentId, String name, String gradeLevel) throws SQLException {
+        String sqlStudent = """
+            INSERT INTO students(id, name, grade_level) VALUES(?, ?, ?)
+            ON CONFLICT(id) DO UPDATE SET name = excluded.name, grade_level = excluded.grade_level
+            """;
+        String sqlGrades = "INSERT OR IGNORE INTO grades(student_id) VALUES(?)"; // Initial grade record
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlStudent)) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, name);
+            pstmt.setString(3, gradeLevel);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlGrades)) {
+            pstmt.setString(1, studentId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static boolean studentExists(Connection conn, String studentId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM students WHERE id = ?")) {
+            pstmt.setString(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Deletes a student's grades, attendance and monthly counters, then the student.
+     * @return false if there was no such student.
+     */
+    static boolean deleteStudentRows(Connection conn, boolean packed, String studentId) throws SQLException {
+        // Delete records in grades, attendance, then students (due to foreign key constraints)
+        String[] deletes = {
+            "DELETE FROM grades WHERE student_id = ?",
+            "DELETE FROM grade_history WHERE student_id = ?",
+            packed ? "DELETE FROM attendance_packed WHERE student_id = ?" : "DELETE FROM attendance WHERE student_id = ?",
+            "DELETE FROM attendance_monthly WHERE student_id = ?",
+            "DELETE FROM students WHERE id = ?"
+        };
+        int deleted = 0;
+        for (String sql : deletes) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, studentId);
+                deleted = pstmt.executeUpdate();
+            }
+        }
+        return deleted > 0; // Rows removed by the last statement, the students table
+    }
+
+    // --- Bulk Operations (year-end promotion and graduation) ---
+
+    // Rows per JDBC batch when loading IDs for a bulk delete; progress is reported per chunk
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * Renames several grade levels at once. All renames apply simultaneously, so a whole
+     * school can be promoted with {"11" -> "12", "10" -> "11", ...} without chaining.
+     * @return A future completed with the number of students whose grade level changed.
+     */
+    @Override
+    public CompletableFuture<Integer> renameGradeLevels(Map<String, String> renames, DoubleConsumer progress) {
+        if (renames.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        Map<String, String> mapping = Map.copyOf(renames);
+        // UPDATE students SET grade_level = CASE grade_level WHEN ? THEN ? ... END WHERE grade_level IN (?, ...)
+        String sql = "UPDATE students SET grade_level = CASE grade_level"
+                + " WHEN ? THEN ?".repeat(mapping.size())
+                + " END WHERE grade_level IN (" + placeholders(mapping.size()) + ")";
+
+        String sqlAffected = "SELECT id, name, grade_level FROM students WHERE grade_level IN (" + placeholders(mapping.size()) + ")";
+
+        return submit(conn -> {
+            // The students being moved, to log each one's new grade level
+            List<String[]> moved = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlAffected)) {
+                int i = 1;
+                for (String oldLevel : mapping.keySet()) {
+                    pstmt.setString(i++, oldLevel);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        moved.add(new String[] {rs.getString(1), rs.getString(2), mapping.get(rs.getString(3))});
+                    }
+                }
+            }
+
+            int updated;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int i = 1;
+                for (Map.Entry<String, String> rename : mapping.entrySet()) {
+                    pstmt.setString(i++, rename.getKey());
+                    pstmt.setString(i++, rename.getValue());
+                }
+                for (String oldLevel : mapping.keySet()) {
+                    pstmt.setString(i++, oldLevel);
+                }
+                updated = pstmt.executeUpdate();
+            }
+            for (String[] student : moved) {
+                ChangeLog.recordLocal(conn, ChangeLog.STUDENT, student[0], ChangeLog.studentPayload(student[1], student[2]));
+            }
+            report(progress, 1.0);
+            return updated;
+        });
+    }
+
+    /**
+     * Deletes a list of students together with their grades, attendance and monthly counters,
+     * using one set-based DELETE per table inside a single transaction.
+     * @return A future completed with the IDs that existed and were deleted.
+     */
+    @Override
+    public CompletableFuture<Set<String>> deleteStudents(Collection<String> studentIds, DoubleConsumer progress) {
+        List<String> ids = List.copyOf(new LinkedHashSet<>(studentIds));
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Set.of());
+        }
+        return bulkDelete(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT OR IGNORE INTO temp.bulk_ids(id) VALUES(?)")) {
+                for (int i = 0; i < ids.size(); i++) {
+                    pstmt.setString(1, ids.get(i));
+                    pstmt.addBatch();
+                    if ((i + 1) % BULK_CHUNK_SIZE == 0 || i == ids.size() - 1) {
+                        pstmt.executeBatch();
+                        report(progress, 0.5 * (i + 1) / ids.size());
+                    }
+                }
+            }
+        }, progress);
+    }
+
+    /**
+     * Deletes every student of a grade level (e.g. a graduating class) with all related records.
+     * @return A future completed with the IDs of the deleted students.
+     */
+    @Override
+    public CompletableFuture<Set<String>> deleteGradeLevel(String gradeLevel, DoubleConsumer progress) {
+        return bulkDelete(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO temp.bulk_ids(id) SELECT id FROM students WHERE grade_level = ?")) {
+                pstmt.setString(1, gradeLevel);
+                pstmt.executeUpdate();
+            }
+            report(progress, 0.5);
+        }, progress);
+    }
+
+    /**
+     * Fills a temporary ID table, then removes those students from every table in one transaction.
+     * The first half of the progress range belongs to {@code selectIds}, the second to the deletes.
+     */
+    private CompletableFuture<Set<String>> bulkDelete(IdSelector selectIds, DoubleConsumer progress) {
+        String[] deletes = {
+            "DELETE FROM grades WHERE student_id IN (SELECT id FROM temp.bulk_ids)",
+            "DELETE FROM grade_history WHERE student_id IN (SELECT id FROM temp.bulk_ids)",
+            "DELETE FROM " + (database.isAttendancePacked() ? "attendance_packed" : "attendance")
+                + " WHERE student_id IN (SELECT id FROM temp.bulk_ids)",
+            "DELETE FROM attendance_monthly WHERE student_id IN (SELECT id FROM temp.bulk_ids)",
+            "DELETE FROM students WHERE id IN (SELECT id FROM temp.bulk_ids)"
+        };
+
+        return submit(conn -> {
+            // 1. Collect the target IDs
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TEMP TABLE IF NOT EXISTS bulk_ids(id TEXT PRIMARY KEY)");
+                stmt.execute("DELETE FROM temp.bulk_ids");
+            }
+            selectIds.fill(conn);
+
+            // 2. Remember which of them actually exist, for the index and the change event
+            Set<String> deleted = new LinkedHashSet<>();
+            try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT id FROM students WHERE id IN (SELECT id FROM temp.bulk_ids)")) {
+                while (rs.next()) {
+                    deleted.add(rs.getString("id"));
+                }
+            }
+
+            // 3. One statement per table, children before the students table
+            try (Statement stmt = conn.createStatement()) {
+                for (int i = 0; i < deletes.length; i++) {
+                    stmt.executeUpdate(deletes[i]);
+                    report(progress, 0.5 + 0.5 * (i + 1) / deletes.length);
+                }
+                stmt.execute("DELETE FROM temp.bulk_ids");
+            }
+            for (String id : deleted) {
+                ChangeLog.recordLocal(conn, ChangeLog.STUDENT, id, null);
+            }
+            return deleted;
+        });
+    }
+
+    @FunctionalInterface
+    private interface IdSelector {
+        void fill(Connection conn) throws SQLException;
+    }
+
+    private static void report(DoubleConsumer progress, double fraction) {
+        if (progress != null) {
+            progress.accept(fraction);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    // --- Reading Students ---
+
+    @Override
+    public int countStudents() {
+        StudentSnapshot snapshot = database.currentSnapshot();
+        if (snapshot != null) {
+            return snapshot.getStudentCount();
+        }
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM students")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR counting students: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Streams students from the snapshot while it matches the data, else from a forward-only
+     * cursor (see StudentCursor). SQL errors surface as IllegalStateException.
+     */
+    @Override
+    public Stream<Student> streamStudents(StudentProjection projection) {
+        StudentSnapshot snapshot = database.currentSnapshot();
+        if (snapshot != null) {
+            return snapshot.stream(projection);
+        }
+        StudentCursor cursor;
+        try {
+            cursor = new StudentCursor(database, projection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("SQL ERROR streaming students: " + e.getMessage(), e);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    // --- Grades ---
+
+    /**
+     * Records all 5 fixed subject grades for a student in a single operation (INSERT/UPDATE).
+     * Since the grades table uses student_id as the primary key, we use REPLACE.
+     */
+    @Override
+    public CompletableFuture<GradeRepository.Scores> recordGrades(String studentId, String term,
+                                                               int math, int science, int social, int english, int kannada) {
+        return submit(conn -> {
+            GradeRepository.Scores previous = writeGrades(conn, studentId, term, LocalDateTime.now(), math, science, social, english, kannada);
+            ChangeLog.recordLocal(conn, ChangeLog.GRADES, studentId, ChangeLog.gradesPayload(term, math, science, social, english, kannada));
+            System.out.println("Fixed grades recorded/updated for student ID: " + studentId);
+            return previous;
+        });
+    }
+
+    /**
+     * Appends an entry to a student's grade history and replaces their current grade record,
+     * within the current write.
+     * @return The record being replaced (for the audit log), or null if there was none.
+     */
+    static GradeRepository.Scores writeGrades(Connection conn, String studentId, String term, LocalDateTime recordedAt,
+                                              int math, int science, int social, int english, int kannada) throws SQLException {
+        String sqlHistory = """
+            INSERT INTO grade_history(student_id, term, recorded_at, math_score, science_score, social_score, english_score, kannada_score)
+            VALUES(?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        String sqlPrevious = "SELECT math_score, science_score, social_score, english_score, kannada_score FROM grades WHERE student_id = ?";
+        String sql = """
+            INSERT OR REPLACE INTO grades(student_id, math_score, science_score, social_score,english_score, kannada_score)
+            VALUES(?, ?, ?, ?, ?, ?)
+            """;
+
+        GradeRepository.Scores previous = null;
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlPrevious)) {
+            pstmt.setString(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    previous = new GradeRepository.Scores(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                }
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            pstmt.setInt(2, math);
+            pstmt.setInt(3, science);
+            pstmt.setInt(4, social);
+            pstmt.setInt(5, english);
+            pstmt.setInt(6, kannada);
+            pstmt.executeUpdate();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlHistory)) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, term);
+            pstmt.setString(3, recordedAt.withNano(0).toString());
+            pstmt.setInt(4, math);
+            pstmt.setInt(5, science);
+            pstmt.setInt(6, social);
+            pstmt.setInt(7, english);
+            pstmt.setInt(8, kannada);
+            pstmt.executeUpdate();
+        }
+        return previous;
+    }
+
+    /**
+     * Archived academic years are attached one after the other and read before the hot table;
+     * their terms sort before the current ones.
+     */
+    @Override
+    public List<GradeRepository.TermScores> getGradeHistory(String studentId) {
+        String sql = """
+            SELECT term, recorded_at, math_score, science_score, social_score, english_score, kannada_score
+            FROM %s.grade_history WHERE student_id = ? ORDER BY term, seq
+            """;
+        List<GradeRepository.TermScores> history = new ArrayList<>();
+        try (Connection conn = database.getConnection()) {
+            for (ArchiveManager.ArchiveInfo archive : ArchiveManager.listArchives(database)) {
+                ArchiveManager.attach(conn, archive, "archive");
+                try {
+                    if (hasTable(conn, "archive", "grade_history")) { // Archived before the history existed
+                        readGradeHistory(conn, String.format(sql, "archive"), studentId, history);
+                    }
+                } finally {
+                    ArchiveManager.detach(conn, "archive");
+                }
+            }
+            readGradeHistory(conn, String.format(sql, "main"), studentId, history);
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR reading grade history: " + e.getMessage());
+        }
+        return history;
+    }
+
+    private static void readGradeHistory(Connection conn, String sql, String studentId,
+                                         List<GradeRepository.TermScores> history) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    history.add(new GradeRepository.TermScores(rs.getString(1), rs.getString(2), scoresAt(rs, 3)));
+                }
+            }
+        }
+    }
+
+    private static boolean hasTable(Connection conn, String schema, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM " + schema + ".sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * One pass over the grade level's students; each student's latest entry per term is a
+     * single seek in idx_grade_history_term, so the history's length does not matter. A term of
+     * an archived academic year is read from that year's archive, attached for the query.
+     */
+    @Override
+    public List<GradeRepository.TermComparison> compareTerms(String gradeLevel, String fromTerm, String toTerm) {
+        String sql = """
+            SELECT s.id, s.name, s.grade_level,
+                t.math_score, t.science_score, t.social_score, t.english_score, t.kannada_score,
+                f.math_score, f.science_score, f.social_score, f.english_score, f.kannada_score
+            FROM main.students s
+            JOIN %1$s.grade_history t ON t.seq = (SELECT MAX(seq) FROM %1$s.grade_history WHERE student_id = s.id AND term = ?)
+            LEFT JOIN %2$s.grade_history f ON f.seq = (SELECT MAX(seq) FROM %2$s.grade_history WHERE student_id = s.id AND term = ?)
+            WHERE s.grade_level = ?
+            ORDER BY s.id
+            """;
+        List<GradeRepository.TermComparison> comparisons = new ArrayList<>();
+        try (Connection conn = database.getConnection()) {
+            // Academic year -> schema it is attached as
+            Map<Integer, String> attached = new LinkedHashMap<>();
+            try {
+                String toSchema = attachTermArchive(conn, toTerm, attached);
+                String fromSchema = attachTermArchive(conn, fromTerm, attached);
+                try (PreparedStatement pstmt = conn.prepareStatement(String.format(sql, toSchema, fromSchema))) {
+                    pstmt.setString(1, toTerm);
+                    pstmt.setString(2, fromTerm);
+                    pstmt.setString(3, gradeLevel);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            GradeRepository.Scores to = scoresAt(rs, 4);
+                            rs.getInt(9);
+                            GradeRepository.Scores from = rs.wasNull() ? null : scoresAt(rs, 9);
+                            comparisons.add(new GradeRepository.TermComparison(rs.getString(1), rs.getString(2), rs.getString(3), from, to));
+                        }
+                    }
+                }
+            } finally {
+                for (String schema : attached.values()) {
+                    ArchiveManager.detach(conn, schema);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR comparing terms: " + e.getMessage());
+        }
+        return comparisons;
+    }
+
+    // The schema holding the term's history: its year's archive (attached once) or main
+    private String attachTermArchive(Connection conn, String term, Map<Integer, String> attached) throws SQLException {
+        ArchiveManager.ArchiveInfo archive = ArchiveManager.archiveOfTerm(database, term);
+        if (archive == null) {
+            return "main";
+        }
+        String schema = attached.get(archive.academicYear());
+        if (schema == null) {
+            schema = "archive" + attached.size();
+            ArchiveManager.attach(conn, archive, schema);
+            attached.put(archive.academicYear(), schema);
+        }
+        // Archived before the history existed: its terms never left the hot table
+        return hasTable(conn, schema, "grade_history") ? schema : "main";
+    }
+
+    // Five score columns starting at the given index
+    private static GradeRepository.Scores scoresAt(ResultSet rs, int column) throws SQLException {
+        return new GradeRepository.Scores(rs.getInt(column), rs.getInt(column + 1), rs.getInt(column + 2),
+                rs.getInt(column + 3), rs.getInt(column + 4));
+    }
+    
+    // --- Attendance ---
+
+    @Override
+    public CompletableFuture<String> recordAttendance(String studentId, LocalDate date, String status) {
+        return submit(conn -> {
+            String previous = writeAttendance(conn, database.isAttendancePacked(), studentId, date, status);
+            ChangeLog.recordLocal(conn, ChangeLog.ATTENDANCE, ChangeLog.attendanceKey(studentId, date.toString()), status);
+            System.out.println("Attendance recorded/updated for student ID: " + studentId);
+            return previous;
+        });
+    }
+
+    /**
+     * Writes one day's attendance record within the current write, keeping the monthly counters exact.
+     * @return The status being replaced, or null if the day had no record.
+     */
+    static String writeAttendance(Connection conn, boolean packed, String studentId, LocalDate date, String status) throws SQLException {
+        String sqlPrevious = "SELECT status FROM attendance WHERE student_id = ? AND date = ?";
+        // Use INSERT OR REPLACE to allow updating an existing attendance record for the same day
+        String sql = "INSERT OR REPLACE INTO attendance(student_id, date, status) VALUES(?, ?, ?)";
+
+        // 1-2. Replace the day's record, keeping the status being replaced (if any) so the monthly counters stay exact
+        String previous = null;
+        if (packed) {
+            previous = PackedAttendance.write(conn, studentId, date, status);
+        } else {
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlPrevious)) {
+                pstmt.setString(1, studentId);
+                pstmt.setString(2, date.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        previous = rs.getString("status");
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, studentId);
+                pstmt.setString(2, date.toString()); // Convert LocalDate to String (YYYY-MM-DD)
+                pstmt.setString(3, status);
+                pstmt.executeUpdate();
+            }
+        }
+
+        // 3. Move the day from the old status counter to the new one
+        if (!status.equals(previous)) {
+            adjustMonthlyAttendance(conn, studentId, YearMonth.from(date), previous, status);
+        }
+        return previous;
+    }
+
+    /**
+     * Applies a status change to the attendance_monthly counters within the current write.
+     */
+    private static void adjustMonthlyAttendance(Connection conn, String studentId, YearMonth month,
+                                        String oldStatus, String newStatus) throws SQLException {
+        String sql = """
+            INSERT INTO attendance_monthly(student_id, month, present_count, absent_count, late_count)
+            VALUES(?, ?, ?, ?, ?)
+            ON CONFLICT(student_id, month) DO UPDATE SET
+                present_count = present_count + excluded.present_count,
+                absent_count = absent_count + excluded.absent_count,
+                late_count = late_count + excluded.late_count
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, month.toString()); // YYYY-MM
+            pstmt.setInt(3, countDelta("PRESENT", oldStatus, newStatus));
+            pstmt.setInt(4, countDelta("ABSENT", oldStatus, newStatus));
+            pstmt.setInt(5, countDelta("LATE", oldStatus, newStatus));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static int countDelta(String counter, String oldStatus, String newStatus) {
+        return (counter.equals(newStatus) ? 1 : 0) - (counter.equals(oldStatus) ? 1 : 0);
+    }
+
+    /**
+     * Queues a mutation on the shared writer.
+     */
+    private <T> CompletableFuture<T> submit(DatabaseWriter.WriteTask<T> task) {
+        return database.getWriter().submit(task);
+    }
+
+    @Override
+    public void forEachRecord(RecordVisitor visitor) {
+        StudentSnapshot snapshot = database.currentSnapshot();
+        if (snapshot != null) {
+            snapshot.forEachRecord(visitor);
+            return;
+        }
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(10_000);
+            if (database.isAttendancePacked()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT student_id, month, days FROM attendance_packed")) {
+                    while (rs.next()) {
+                        PackedAttendance.decode(rs.getString(1), rs.getString(2), rs.getLong(3), null, null, visitor);
+                    }
+                }
+                return;
+            }
+            // Parse each distinct date string once; there are only a few hundred per year
+            Map<String, LocalDate> dates = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT student_id, date, status FROM attendance")) {
+                while (rs.next()) {
+                    LocalDate date = dates.computeIfAbsent(rs.getString("date"), LocalDate::parse);
+                    visitor.visit(rs.getString("student_id"), date, rs.getString("status"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("SQL ERROR reading attendance: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Attendance Reports ---
+
+    /**
+     * Implements the method required by AttendanceReportController.java.
+     * Reads only the attendance rows inside the date range; archived academic years are attached
+     * and read only when the range reaches into them, so current-year reports never touch them.
+     */
+    @Override
+    public List<AttendanceReportEntry> getPivotedAttendanceReport(LocalDate startDate, LocalDate endDate) {
+        String sqlStudents = "SELECT id, name FROM students";
+        String sqlRange = "SELECT student_id, date, status FROM %s.attendance WHERE date BETWEEN ? AND ?";
+
+        // Student ID -> (Date -> Status), in the same order as the students table
+        Map<String, Map<LocalDate, String>> attendanceById = new LinkedHashMap<>();
+        Map<String, String> namesById = new HashMap<>();
+
+        try (Connection conn = database.getConnection()) {
+            try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sqlStudents)) {
+                while (rs.next()) {
+                    namesById.put(rs.getString("id"), rs.getString("name"));
+                    attendanceById.put(rs.getString("id"), new HashMap<>());
+                }
+            }
+
+            if (database.isAttendancePacked()) {
+                readPackedAttendanceRange(conn, startDate, endDate, attendanceById);
+            } else {
+                readAttendanceRange(conn, String.format(sqlRange, "main"), startDate, endDate, attendanceById);
+            }
+
+            for (ArchiveManager.ArchiveInfo archive : ArchiveManager.archivesOverlapping(database, startDate, endDate)) {
+                ArchiveManager.attach(conn, archive, "archive");
+                try {
+                    // Students who have since left are still listed for the years they attended
+                    try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery("SELECT id, name FROM archive.students")) {
+                        while (rs.next()) {
+                            namesById.putIfAbsent(rs.getString("id"), rs.getString("name"));
+                        }
+                    }
+                    readAttendanceRange(conn, String.format(sqlRange, "archive"), startDate, endDate, attendanceById);
+                } finally {
+                    ArchiveManager.detach(conn, "archive");
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR generating attendance report: " + e.getMessage());
+        }
+
+        // Uses the constructor signature: (String studentId, String studentName, Map<LocalDate, String> attendanceData).
+        return attendanceById.entrySet().stream()
+            .map(e -> new AttendanceReportEntry(e.getKey(), namesById.getOrDefault(e.getKey(), e.getKey()), e.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    private void readAttendanceRange(Connection conn, String sql, LocalDate startDate, LocalDate endDate,
+                                    Map<String, Map<LocalDate, String>> attendanceById) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, startDate.toString());
+            pstmt.setString(2, endDate.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    attendanceById.computeIfAbsent(rs.getString("student_id"), id -> new HashMap<>())
+                        .put(LocalDate.parse(rs.getString("date")), rs.getString("status"));
+                }
+            }
+        }
+    }
+
+    // Same as readAttendanceRange, for the months of the packed layout (archives always use daily rows)
+    private void readPackedAttendanceRange(Connection conn, LocalDate startDate, LocalDate endDate,
+                                    Map<String, Map<LocalDate, String>> attendanceById) throws SQLException {
+        String sql = "SELECT student_id, month, days FROM attendance_packed WHERE month BETWEEN ? AND ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, YearMonth.from(startDate).toString());
+            pstmt.setString(2, YearMonth.from(endDate).toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<LocalDate, String> days = attendanceById.computeIfAbsent(rs.getString(1), id -> new HashMap<>());
+                    PackedAttendance.decode(rs.getString(1), rs.getString(2), rs.getLong(3), startDate, endDate,
+                            (id, date, status) -> days.put(date, status));
+                }
+            }
+        }
+    }
+
+    // --- Attendance Rates (served from the attendance_monthly summary table) ---
+
+    /**
+     * Lists students whose attendance rate over the given months is below the threshold
+     * (e.g. 0.9 for the usual "missed 10% or more" definition), lowest rate first.
+     * Reads one summary row per student and month, never the attendance table itself.
+     */
+    @Override
+    public List<AttendanceRateEntry> getChronicAbsentees(YearMonth from, YearMonth to, double threshold) {
+        String sql = """
+            SELECT s.id, s.name, s.grade_level,
+                SUM(m.present_count) AS present, SUM(m.absent_count) AS absent, SUM(m.late_count) AS late
+            FROM students s
+            JOIN attendance_monthly m ON m.student_id = s.id AND m.month BETWEEN ? AND ?
+            GROUP BY s.id
+            HAVING present + absent + late > 0
+                AND (present + late) * 1.0 / (present + absent + late) < ?
+            ORDER BY (present + late) * 1.0 / (present + absent + late), s.name
+            """;
+        List<AttendanceRateEntry> entries = new ArrayList<>();
+
+        try (Connection conn = database.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            pstmt.setDouble(3, threshold);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new AttendanceRateEntry(
+                        rs.getString("id"), rs.getString("name"), rs.getString("grade_level"),
+                        rs.getInt("present"), rs.getInt("absent"), rs.getInt("late")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR retrieving chronic absentees: " + e.getMessage());
+        }
+        return entries;
+    }
+
+    /**
+     * Aggregates attendance counts per grade level over the given months.
+     * The returned entries carry no student ID or name.
+     */
+    @Override
+    public List<AttendanceRateEntry> getAttendanceRatesByGradeLevel(YearMonth from, YearMonth to) {
+        String sql = """
+            SELECT s.grade_level,
+                COALESCE(SUM(m.present_count), 0) AS present,
+                COALESCE(SUM(m.absent_count), 0) AS absent,
+                COALESCE(SUM(m.late_count), 0) AS late
+            FROM students s
+            LEFT JOIN attendance_monthly m ON m.student_id = s.id AND m.month BETWEEN ? AND ?
+            GROUP BY s.grade_level
+            ORDER BY s.grade_level
+            """;
+        List<AttendanceRateEntry> entries = new ArrayList<>();
+
+        try (Connection conn = database.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new AttendanceRateEntry(
+                        null, null, rs.getString("grade_level"),
+                        rs.getInt("present"), rs.getInt("absent"), rs.getInt("late")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR retrieving grade level attendance: " + e.getMessage());
+        }
+        return entries;
+    }
+}
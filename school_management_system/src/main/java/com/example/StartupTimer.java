@@ -0,0 +1,99 @@
+package com.example;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Records cold-start milestones, measured in milliseconds since the JVM was launched:
+ * fx-start (Application.start entered), first-frame (first pulse of the Dashboard scene),
+ * database-ready, and interactive (Dashboard data shown with the database usable).
+ * The report is printed and appended to a CSV file so regressions show up over time.
+ */
+public class StartupTimer {
+
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    // --- Configuration (overridable with -Dschool.startup.* system properties) ---
+    private static final Path LOG_FILE = Paths.get(System.getProperty("school.startup.log", "startup-timings.csv"));
+    // Time-to-interactive budget; a slower start prints a warning (0 disables the check)
+    private static final long BUDGET_MILLIS = Long.getLong("school.startup.budgetMs", 3000);
+
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+    private static boolean reported;
+
+    /**
+     * Records a milestone the first time it is reached; later calls are ignored.
+     */
+    public static synchronized void mark(String milestone) {
+        marks.putIfAbsent(milestone, System.currentTimeMillis() - JVM_START_MILLIS);
+    }
+
+    /**
+     * Marks first-frame on the scene's first layout pulse.
+     */
+    public static void trackFirstFrame(Scene scene) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            mark("first-frame");
+            // Removing a pulse listener from inside itself is not allowed; defer it
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    /**
+     * Marks the application as interactive and writes the startup report (once per launch).
+     * With -Dschool.startup.exitAfterStartup=true the application then exits, which is used
+     * for AppCDS training runs and automated startup measurements.
+     */
+    public static void interactive() {
+        String report;
+        synchronized (StartupTimer.class) {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            mark("interactive");
+            report = marks.entrySet().stream()
+                    .map(e -> e.getKey() + " " + e.getValue() + " ms")
+                    .collect(Collectors.joining(", "));
+        }
+        System.out.println("Startup timings: " + report);
+
+        long interactiveMillis = marks.get("interactive");
+        if (BUDGET_MILLIS > 0 && interactiveMillis > BUDGET_MILLIS) {
+            System.err.println("WARNING: Startup took " + interactiveMillis + " ms, over the " + BUDGET_MILLIS + " ms budget.");
+        }
+        appendToLog();
+
+        if (Boolean.getBoolean("school.startup.exitAfterStartup")) {
+            Platform.exit();
+        }
+    }
+
+    private static synchronized void appendToLog() {
+        try {
+            if (!Files.exists(LOG_FILE)) {
+                Files.writeString(LOG_FILE, "timestamp,fx-start,first-frame,database-ready,interactive\n", StandardCharsets.UTF_8);
+            }
+            String line = String.join(",", LocalDateTime.now().toString(),
+                    String.valueOf(marks.get("fx-start")), String.valueOf(marks.get("first-frame")),
+                    String.valueOf(marks.get("database-ready")), String.valueOf(marks.get("interactive")));
+            Files.writeString(LOG_FILE, line + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write startup timings: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward-only iterator over students that holds at most one student in memory.
+ *
+ * Students and their grades come from one query ordered by ID; attendance comes from a second
+ * query in the same order, which the cursor merge-joins as it advances. Both queries are joined
+ * to students and sorted by students.id, so the two cursors always agree on the order and every
+ * attendance row belongs to a student the first cursor will return. In the packed layout the
+ * second query returns one row per student and month, decoded as the cursor reaches it.
+ *
+ * The cursor owns its connection (and with it an open read transaction); always close it.
+ */
+public class StudentCursor implements Iterator<Student>, AutoCloseable {
+
+    private final Connection conn;
+    private final List<PreparedStatement> statements = new ArrayList<>();
+    private final ResultSet students;
+    private final ResultSet attendance;
+    private final boolean grades;
+    private final boolean packed;
+    private final LocalDate attendanceFrom;
+    private final LocalDate attendanceTo;
+
+    // Parsing the same few hundred date strings once each instead of once per row
+    private final Map<String, LocalDate> dates = new HashMap<>();
+
+    private boolean attendancePending; // attendance is positioned on an unread row
+    private Student next;
+    private boolean closed;
+
+    StudentCursor(SchoolDatabase database, StudentProjection projection) throws SQLException {
+        this.grades = projection.includesGrades();
+        this.packed = projection.includesAttendance() && database.isAttendancePacked();
+        this.attendanceFrom = projection.getAttendanceFrom();
+        this.attendanceTo = projection.getAttendanceTo();
+        this.conn = database.getConnection();
+        try {
+            students = open(studentsSql(projection), projection, false);
+            attendance = projection.includesAttendance()
+                    ? open(packed ? packedAttendanceSql(projection) : attendanceSql(projection), projection, true) : null;
+            attendancePending = attendance != null && attendance.next();
+            advance();
+        } catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static String studentsSql(StudentProjection projection) {
+        String sql = projection.includesGrades()
+                ? """
+                  SELECT s.id, s.name, s.grade_level,
+                      g.math_score, g.science_score, g.social_score, g.english_score, g.kannada_score
+                  FROM students s LEFT JOIN grades g ON g.student_id = s.id"""
+                : "SELECT s.id, s.name, s.grade_level FROM students s";
+        return sql + (projection.getStudentId() != null ? " WHERE s.id = ?" : "") + " ORDER BY s.id";
+    }
+
+    private static String attendanceSql(StudentProjection projection) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.student_id, a.date, a.status
+                FROM students s JOIN attendance a ON a.student_id = s.id
+                WHERE 1 = 1""");
+        if (projection.getStudentId() != null) {
+            sql.append(" AND s.id = ?");
+        }
+        if (projection.getAttendanceFrom() != null) {
+            sql.append(" AND a.date BETWEEN ? AND ?");
+        }
+        return sql.append(" ORDER BY s.id").toString();
+    }
+
+    private static String packedAttendanceSql(StudentProjection projection) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT p.student_id, p.month, p.days
+                FROM students s JOIN attendance_packed p ON p.student_id = s.id
+                WHERE 1 = 1""");
+        if (projection.getStudentId() != null) {
+            sql.append(" AND s.id = ?");
+        }
+        if (projection.getAttendanceFrom() != null) {
+            sql.append(" AND p.month BETWEEN substr(?, 1, 7) AND substr(?, 1, 7)");
+        }
+        return sql.append(" ORDER BY s.id").toString();
+    }
+
+    private ResultSet open(String sql, StudentProjection projection, boolean dateWindow) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statements.add(pstmt);
+        pstmt.setFetchSize(projection.getFetchSize());
+        int i = 1;
+        if (projection.getStudentId() != null) {
+            pstmt.setString(i++, projection.getStudentId());
+        }
+        if (dateWindow && projection.getAttendanceFrom() != null) {
+            pstmt.setString(i++, projection.getAttendanceFrom().toString());
+            pstmt.setString(i, projection.getAttendanceTo().toString());
+        }
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Reads the next student and its attendance rows, or sets {@code next} to null at the end.
+     */
+    private void advance() throws SQLException {
+        if (!students.next()) {
+            next = null;
+            close();
+            return;
+        }
+        Student s = new Student(students.getString("id"), students.getString("name"), students.getString("grade_level"));
+        if (grades) {
+            // Missing grade rows (LEFT JOIN) read as 0, like the Student defaults
+            s.setMathScore(students.getInt("math_score"));
+            s.setScienceScore(students.getInt("science_score"));
+            s.setSocialScore(students.getInt("social_score"));
+            s.setEnglishScore(students.getInt("english_score"));
+            s.setKannadaScore(students.getInt("kannada_score"));
+        }
+        while (attendancePending && s.getStudentId().equals(attendance.getString("student_id"))) {
+            if (packed) {
+                PackedAttendance.decode(s.getStudentId(), attendance.getString("month"), attendance.getLong("days"),
+                        attendanceFrom, attendanceTo, (id, date, status) -> s.recordAttendance(date, status));
+            } else {
+                String date = attendance.getString("date");
+                s.recordAttendance(dates.computeIfAbsent(date, LocalDate::parse), attendance.getString("status"));
+            }
+            attendancePending = attendance.next();
+        }
+        next = s;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Student next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Student current = next;
+        try {
+            advance();
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("SQL ERROR streaming students: " + e.getMessage(), e);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (PreparedStatement pstmt : statements) {
+                pstmt.close();
+            }
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("SQL ERROR closing student cursor: " + e.getMessage());
+        }
+    }
+}
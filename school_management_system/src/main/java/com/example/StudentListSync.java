@@ -0,0 +1,100 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Keeps an ObservableList of Students in step with the ChangeEventBus.
+ * Each event patches one element in place (found through an ID index), so a single edit costs
+ * O(1) UI work instead of a full reload. The index follows the list, so controllers can keep
+ * adding, removing and replacing elements directly.
+ */
+public class StudentListSync implements ChangeEventBus.Subscription {
+
+    private final ObservableList<Student> students;
+    private final Map<String, Student> byId = new HashMap<>();
+    private final ListChangeListener<Student> indexUpdater = this::updateIndex;
+    private final ChangeEventBus.Subscription subscription;
+
+    public StudentListSync(ObservableList<Student> students) {
+        this.students = students;
+        students.forEach(s -> byId.put(s.getStudentId(), s));
+        students.addListener(indexUpdater);
+        subscription = ChangeEventBus.getInstance().subscribeOnFxThread(this::apply);
+    }
+
+    /**
+     * Stops listening; call when the view owning the list goes away.
+     */
+    @Override
+    public void close() {
+        subscription.close();
+        students.removeListener(indexUpdater);
+    }
+
+    public Student find(String studentId) {
+        return byId.get(studentId);
+    }
+
+    private void updateIndex(ListChangeListener.Change<? extends Student> change) {
+        while (change.next()) {
+            List<? extends Student> removed = change.getRemoved();
+            removed.forEach(s -> byId.remove(s.getStudentId(), s));
+            change.getAddedSubList().forEach(s -> byId.put(s.getStudentId(), s));
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.StudentAdded added -> {
+                if (!byId.containsKey(added.studentId())) {
+                    students.add(new Student(added.studentId(), added.name(), added.gradeLevel()));
+                }
+            }
+            case ChangeEvent.StudentUpdated updated -> {
+                Student student = byId.get(updated.studentId());
+                if (student != null) {
+                    student.setName(updated.name());
+                    student.setGradeLevel(updated.gradeLevel());
+                }
+            }
+            case ChangeEvent.StudentDeleted deleted -> {
+                Student student = byId.get(deleted.studentId());
+                if (student != null) {
+                    students.remove(student);
+                }
+            }
+            case ChangeEvent.StudentsDeleted deleted ->
+                // One list change for the whole cohort
+                students.removeIf(s -> deleted.studentIds().contains(s.getStudentId()));
+            case ChangeEvent.GradeLevelsChanged changed -> {
+                for (Student student : students) {
+                    String newLevel = changed.renames().get(student.getGradeLevel());
+                    if (newLevel != null) {
+                        student.setGradeLevel(newLevel);
+                    }
+                }
+            }
+            case ChangeEvent.GradesChanged grades -> {
+                Student student = byId.get(grades.studentId());
+                if (student != null) {
+                    student.setMathScore(grades.math());
+                    student.setScienceScore(grades.science());
+                    student.setSocialScore(grades.social());
+                    student.setEnglishScore(grades.english());
+                    student.setKannadaScore(grades.kannada());
+                }
+            }
+            case ChangeEvent.AttendanceRecorded attendance -> {
+                Student student = byId.get(attendance.studentId());
+                if (student != null) {
+                    student.recordAttendance(attendance.date(), attendance.status());
+                }
+            }
+        }
+    }
+}
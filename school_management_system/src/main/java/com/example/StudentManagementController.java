@@ -1,7 +1,15 @@
 package com.example;
 
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -11,12 +19,15 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.DirectoryChooser;
 
-public class StudentManagementController {
+public class StudentManagementController implements AutoCloseable {
 
     @FXML private TableView<Student> studentTableView;
     @FXML private TableColumn<Student, String> idColumn;
@@ -44,8 +55,22 @@ public class StudentManagementController {
     @FXML private Button backButton;
     @FXML private Label statusLabel;
 
+    // Bulk operations
+    @FXML private TextField bulkFromLevelField;
+    @FXML private TextField bulkToLevelField;
+    @FXML private Button promoteButton;
+    @FXML private Button deleteCohortButton;
+    @FXML private ProgressBar bulkProgressBar;
+
+    // Report cards
+    @FXML private Button reportCardsButton;
+    @FXML private ProgressBar reportCardProgressBar;
+    private ReportCardGenerator.Job reportCardJob;
+
     private SchoolSystem schoolSystem;
     private final ObservableList<Student> studentList = FXCollections.observableArrayList();
+    // Applies committed changes (from this or any other view) to studentList in place
+    private StudentListSync studentSync;
 
     /**
      * Initializes the controller class. This method is automatically called
@@ -74,6 +99,8 @@ public class StudentManagementController {
         // 2. Load Data
         loadStudentData();
         studentTableView.setItems(studentList);
+        studentTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        studentSync = new StudentListSync(studentList);
 
         // 3. Setup Listener for Table Selection
         studentTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -90,7 +117,28 @@ public class StudentManagementController {
      */
     private void loadStudentData() {
         studentList.clear();
-        studentList.addAll(schoolSystem.getAllStudents());
+        studentList.addAll(ScreenPrefetcher.claimOrLoad(ScreenPrefetcher.STUDENT_LIST, schoolSystem));
+    }
+
+    /**
+     * Stops listening for change events once the view is navigated away from.
+     */
+    @Override
+    public void close() {
+        if (studentSync != null) {
+            studentSync.close();
+        }
+        if (reportCardJob != null) {
+            reportCardJob.cancel();
+        }
+    }
+
+    /**
+     * Restores the table from the database after a background write failed.
+     */
+    private void reloadAfterFailure(String message) {
+        loadStudentData();
+        statusLabel.setText("Error: " + message);
     }
 
     /**
@@ -133,14 +181,20 @@ public class StudentManagementController {
 
         Student newStudent = new Student(id.trim(), name.trim(), gradeLevel.trim());
         
-        // Check if student already exists before adding
-        if (schoolSystem.findStudentById(id.trim()) != null) {
+        // Check if student already exists before adding (the list is kept current by change events)
+        if (studentSync.find(id.trim()) != null) {
             new Alert(AlertType.ERROR, "Student with ID " + id + " already exists.").showAndWait();
             statusLabel.setText("Error: Student ID already in use.");
             return;
         }
 
-        schoolSystem.addStudent(newStudent);
+        schoolSystem.addStudent(newStudent).whenComplete((added, ex) -> Platform.runLater(() -> {
+            // The write is committed in the background; undo the optimistic row if it was rejected
+            if (ex != null || !added) {
+                studentList.remove(newStudent);
+                statusLabel.setText("Error: Could not save student " + newStudent.getName() + ".");
+            }
+        }));
         studentList.add(newStudent); // Add to the ObservableList to update the TableView
         clearStudentDetails();
         statusLabel.setText("Successfully added new student: " + newStudent.getName());
@@ -173,7 +227,10 @@ public class StudentManagementController {
         selectedStudent.setGradeLevel(gradeLevel.trim());
         
         // Persist changes to the database
-        schoolSystem.updateStudent(selectedStudent);
+        schoolSystem.updateStudent(selectedStudent).exceptionally(ex -> {
+            Platform.runLater(() -> reloadAfterFailure("Could not update student " + selectedStudent.getName() + "."));
+            return null;
+        });
         
         // Refresh the TableView to show the updated values
         studentTableView.getColumns().get(0).setVisible(false);
@@ -184,17 +241,23 @@ public class StudentManagementController {
     }
 
     /**
-     * Handles deleting the currently selected student.
+     * Handles deleting the currently selected student(s).
+     * Several selected students are removed with one bulk delete.
      */
     @FXML
     private void handleDeleteStudent(ActionEvent event) {
-        Student selectedStudent = studentTableView.getSelectionModel().getSelectedItem();
+        List<Student> selectedStudents = List.copyOf(studentTableView.getSelectionModel().getSelectedItems());
 
-        if (selectedStudent == null) {
+        if (selectedStudents.isEmpty()) {
             new Alert(AlertType.ERROR, "Please select a student to delete.").showAndWait();
             statusLabel.setText("Error: No student selected for deletion.");
             return;
         }
+        if (selectedStudents.size() > 1) {
+            deleteSelectedStudents(selectedStudents);
+            return;
+        }
+        Student selectedStudent = selectedStudents.get(0);
 
         // Show confirmation dialog
         Alert confirmation = new Alert(AlertType.CONFIRMATION, "Are you sure you want to delete " + selectedStudent.getName() + "?", ButtonType.YES, ButtonType.NO);
@@ -205,7 +268,10 @@ public class StudentManagementController {
 
         if (result.isPresent() && result.get() == ButtonType.YES) {
             String deletedStudentName = selectedStudent.getName();
-            schoolSystem.deleteStudent(selectedStudent.getStudentId());
+            schoolSystem.deleteStudent(selectedStudent.getStudentId()).exceptionally(ex -> {
+                Platform.runLater(() -> reloadAfterFailure("Could not delete student " + deletedStudentName + "."));
+                return null;
+            });
             
             // Remove the item directly from the list (which updates the TableView)
             studentList.remove(selectedStudent);
@@ -215,6 +281,138 @@ public class StudentManagementController {
         }
     }
 
+    private void deleteSelectedStudents(List<Student> selectedStudents) {
+        if (!confirm("Delete " + selectedStudents.size() + " students with all their grades and attendance?")) {
+            return;
+        }
+        List<String> ids = selectedStudents.stream().map(Student::getStudentId).toList();
+        runBulk("Deleting " + ids.size() + " students...",
+            progress -> schoolSystem.deleteStudents(ids, progress),
+            deleted -> "Deleted " + deleted.size() + " students.");
+    }
+
+    /**
+     * Moves every student of the "From" grade level to the "To" grade level.
+     */
+    @FXML
+    @SuppressWarnings("unused")
+    private void handlePromoteGradeLevel(ActionEvent event) {
+        String fromLevel = trimmed(bulkFromLevelField);
+        String toLevel = trimmed(bulkToLevelField);
+        if (fromLevel.isEmpty() || toLevel.isEmpty()) {
+            new Alert(AlertType.ERROR, "Please enter both the current and the new grade level.").showAndWait();
+            statusLabel.setText("Error: Missing grade levels.");
+            return;
+        }
+        runBulk("Moving grade level " + fromLevel + " to " + toLevel + "...",
+            progress -> schoolSystem.promoteGradeLevel(fromLevel, toLevel, progress),
+            moved -> "Moved " + moved + " students from grade level " + fromLevel + " to " + toLevel + ".");
+    }
+
+    /**
+     * Deletes every student of the "From" grade level, e.g. the graduating class.
+     */
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleDeleteCohort(ActionEvent event) {
+        String gradeLevel = trimmed(bulkFromLevelField);
+        if (gradeLevel.isEmpty()) {
+            new Alert(AlertType.ERROR, "Please enter the grade level to delete.").showAndWait();
+            statusLabel.setText("Error: Missing grade level.");
+            return;
+        }
+        if (!confirm("Delete ALL students of grade level " + gradeLevel + " with their grades and attendance?")) {
+            return;
+        }
+        runBulk("Deleting grade level " + gradeLevel + "...",
+            progress -> schoolSystem.deleteCohort(gradeLevel, progress),
+            deleted -> "Deleted " + deleted.size() + " students of grade level " + gradeLevel + ".");
+    }
+
+    /**
+     * Runs a bulk operation with the progress bar shown and the bulk buttons disabled.
+     * The table itself is patched by the change event the operation publishes.
+     */
+    private <T> void runBulk(String startMessage, Function<DoubleConsumer, CompletableFuture<T>> operation,
+                            Function<T, String> doneMessage) {
+        setBulkRunning(true);
+        statusLabel.setText(startMessage);
+        DoubleConsumer progress = fraction -> Platform.runLater(() -> bulkProgressBar.setProgress(fraction));
+        operation.apply(progress).whenComplete((result, ex) -> Platform.runLater(() -> {
+            setBulkRunning(false);
+            clearStudentDetails();
+            statusLabel.setText(ex == null ? doneMessage.apply(result) : "Error: Bulk operation failed and was rolled back.");
+        }));
+    }
+
+    /**
+     * Generates a report card file per student for the current academic year, or cancels the
+     * generation if one is already running.
+     */
+    @FXML
+    @SuppressWarnings("unused")
+    private void handleGenerateReportCards(ActionEvent event) {
+        if (reportCardJob != null) {
+            reportCardJob.cancel();
+            statusLabel.setText("Cancelling report card generation...");
+            return;
+        }
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Choose a folder for the report cards");
+        File directory = chooser.showDialog(studentTableView.getScene().getWindow());
+        if (directory == null) {
+            return;
+        }
+
+        LocalDate termEnd = LocalDate.now();
+        LocalDate termStart = SchoolSystem.academicYearStart(termEnd);
+        // Workers report after every card; only hand whole-percent changes to the FX thread
+        AtomicInteger lastPercent = new AtomicInteger(-1);
+        ReportCardGenerator.ProgressListener progress = (done, total) -> {
+            int percent = total == 0 ? 100 : done * 100 / total;
+            if (lastPercent.getAndSet(percent) != percent) {
+                Platform.runLater(() -> reportCardProgressBar.setProgress(percent / 100.0));
+            }
+        };
+
+        reportCardJob = new ReportCardGenerator(schoolSystem).start(directory.toPath(), termStart, termEnd, progress);
+        reportCardsButton.setText("Cancel Report Cards");
+        reportCardProgressBar.setProgress(0);
+        reportCardProgressBar.setVisible(true);
+        statusLabel.setText("Generating report cards into " + directory + "...");
+
+        reportCardJob.result().whenComplete((result, ex) -> Platform.runLater(() -> {
+            reportCardJob = null;
+            reportCardsButton.setText("Generate Report Cards");
+            reportCardProgressBar.setVisible(false);
+            if (ex != null) {
+                statusLabel.setText("Error: Report card generation failed.");
+            } else {
+                statusLabel.setText(String.format("%s %d report cards (%.0f cards/sec)%s.",
+                    result.cancelled() ? "Cancelled after" : "Generated", result.written(), result.cardsPerSecond(),
+                    result.failed() > 0 ? ", " + result.failed() + " failed" : ""));
+            }
+        }));
+    }
+
+    private void setBulkRunning(boolean running) {
+        bulkProgressBar.setProgress(0);
+        bulkProgressBar.setVisible(running);
+        promoteButton.setDisable(running);
+        deleteCohortButton.setDisable(running);
+        deleteButton.setDisable(running);
+    }
+
+    private boolean confirm(String question) {
+        Alert confirmation = new Alert(AlertType.CONFIRMATION, question, ButtonType.YES, ButtonType.NO);
+        confirmation.setHeaderText("Confirm Deletion");
+        return confirmation.showAndWait().filter(ButtonType.YES::equals).isPresent();
+    }
+
+    private static String trimmed(TextField field) {
+        return field.getText() == null ? "" : field.getText().trim();
+    }
+
     /**
      * Handles the action of clicking the 'Back to Dashboard' button.
      * Navigates the user back to the main dashboard view.
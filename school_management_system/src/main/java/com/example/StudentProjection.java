@@ -0,0 +1,82 @@
+package com.example;
+
+import java.time.LocalDate;
+
+/**
+ * Describes which parts of each student a streaming read should load.
+ * Immutable: every {@code with...}/{@code without...} call returns a new projection.
+ *
+ * <pre>
+ * StudentProjection.full().withoutAttendance()           // names and grades only
+ * StudentProjection.full().attendanceBetween(from, to)  // attendance inside a window
+ * </pre>
+ */
+public final class StudentProjection {
+
+    // Rows SQLite hands to the driver per round trip; large enough to amortize, small enough to stay flat
+    public static final int DEFAULT_FETCH_SIZE = Integer.getInteger("school.stream.fetchSize", 1000);
+
+    private final boolean grades;
+    private final boolean attendance;
+    private final LocalDate attendanceFrom;
+    private final LocalDate attendanceTo;
+    private final String studentId;
+    private final int fetchSize;
+
+    private StudentProjection(boolean grades, boolean attendance, LocalDate attendanceFrom, LocalDate attendanceTo,
+                              String studentId, int fetchSize) {
+        this.grades = grades;
+        this.attendance = attendance;
+        this.attendanceFrom = attendanceFrom;
+        this.attendanceTo = attendanceTo;
+        this.studentId = studentId;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Every student with grades and their complete attendance history (what getAllStudents returns).
+     */
+    public static StudentProjection full() {
+        return new StudentProjection(true, true, null, null, null, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Student rows only (ID, name, grade level).
+     */
+    public static StudentProjection basic() {
+        return new StudentProjection(false, false, null, null, null, DEFAULT_FETCH_SIZE);
+    }
+
+    public StudentProjection withoutGrades() {
+        return new StudentProjection(false, attendance, attendanceFrom, attendanceTo, studentId, fetchSize);
+    }
+
+    public StudentProjection withoutAttendance() {
+        return new StudentProjection(grades, false, null, null, studentId, fetchSize);
+    }
+
+    /**
+     * Loads only the attendance records between the two dates (inclusive).
+     */
+    public StudentProjection attendanceBetween(LocalDate from, LocalDate to) {
+        return new StudentProjection(grades, true, from, to, studentId, fetchSize);
+    }
+
+    /**
+     * Restricts the read to a single student.
+     */
+    public StudentProjection onlyStudent(String id) {
+        return new StudentProjection(grades, attendance, attendanceFrom, attendanceTo, id, fetchSize);
+    }
+
+    public StudentProjection fetchSize(int rows) {
+        return new StudentProjection(grades, attendance, attendanceFrom, attendanceTo, studentId, rows);
+    }
+
+    public boolean includesGrades() { return grades; }
+    public boolean includesAttendance() { return attendance; }
+    public LocalDate getAttendanceFrom() { return attendanceFrom; }
+    public LocalDate getAttendanceTo() { return attendanceTo; }
+    public String getStudentId() { return studentId; }
+    public int getFetchSize() { return fetchSize; }
+}
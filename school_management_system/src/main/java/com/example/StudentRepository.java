@@ -0,0 +1,44 @@
+package com.example;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage of student records. Deleting a student also removes their grades and attendance.
+ * Mutations complete their future once the change is durable in the backing store.
+ */
+public interface StudentRepository {
+
+    /**
+     * @return A future completed with false if a student with the same ID already exists.
+     */
+    CompletableFuture<Boolean> addStudent(Student student);
+
+    CompletableFuture<Void> updateStudent(String studentId, String name, String gradeLevel);
+
+    CompletableFuture<Void> deleteStudent(String studentId);
+
+    /**
+     * @return A future completed with the IDs that existed and were deleted.
+     */
+    CompletableFuture<Set<String>> deleteStudents(Collection<String> studentIds, DoubleConsumer progress);
+
+    CompletableFuture<Set<String>> deleteGradeLevel(String gradeLevel, DoubleConsumer progress);
+
+    /**
+     * Applies all renames (old grade level -> new grade level) simultaneously.
+     * @return A future completed with the number of students whose grade level changed.
+     */
+    CompletableFuture<Integer> renameGradeLevels(Map<String, String> renames, DoubleConsumer progress);
+
+    int countStudents();
+
+    /**
+     * Streams students in ID order with the parts named by the projection. The stream must be closed.
+     */
+    Stream<Student> streamStudents(StudentProjection projection);
+}
@@ -0,0 +1,383 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary copy of one school's working set: every student with their current scores,
+ * and the attendance as one bitset per (day, status) over the students' positions. Read at
+ * startup through a memory-mapped file, it serves the student lists and the attendance index
+ * in milliseconds instead of a full SQL load.
+ *
+ * The snapshot records the database's data version (a stamp the writer changes with every
+ * commit) and is only used while the database still has that version; SchoolDatabase falls
+ * back to SQL otherwise and writes a fresh snapshot in the background.
+ *
+ * File layout (big-endian): magic, format, data version, student count, then per student
+ * ID, name, grade level (UTF-8 with an int length) and the five scores; day count, then per day
+ * the epoch day and three bitsets (PRESENT, ABSENT, LATE) as a word count and words; last a CRC32
+ * of everything before it.
+ */
+public class StudentSnapshot {
+
+    private static final int MAGIC = 0x534D5353; // "SMSS"
+    private static final int FORMAT = 1;
+    private static final int SUBJECTS = 5;
+    private static final String[] STATUSES = AttendanceIndex.STATUSES;
+
+    private final long dataVersion;
+    private final String[] ids;
+    private final String[] names;
+    private final String[] gradeLevels;
+    private final int[] scores; // SUBJECTS per student, in the column order of the grades table
+    private final LocalDate[] days; // Ascending
+    private final BitSet[] bits; // [day * STATUSES.length + status], over student positions
+
+    private StudentSnapshot(long dataVersion, String[] ids, String[] names, String[] gradeLevels,
+                            int[] scores, LocalDate[] days, BitSet[] bits) {
+        this.dataVersion = dataVersion;
+        this.ids = ids;
+        this.names = names;
+        this.gradeLevels = gradeLevels;
+        this.scores = scores;
+        this.days = days;
+        this.bits = bits;
+    }
+
+    public long getDataVersion() { return dataVersion; }
+    public int getStudentCount() { return ids.length; }
+    public int getDayCount() { return days.length; }
+
+    // =======================================================
+    // --- CAPTURING AND WRITING ---
+    // =======================================================
+
+    /**
+     * Reads the working set from a database with the given attendance layout (see
+     * SchoolDatabase.isAttendancePacked). Runs in one read transaction, so the students,
+     * attendance and data version all belong to the same committed state.
+     * @return The snapshot, or null if the data holds something the format cannot represent
+     *         (an attendance status other than PRESENT, ABSENT or LATE).
+     */
+    static StudentSnapshot capture(Connection conn, boolean packed) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            long version = SchoolDatabase.readDataVersion(conn);
+
+            List<String> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<String> gradeLevels = new ArrayList<>();
+            int[] scores = new int[1024];
+            try (PreparedStatement pstmt = conn.prepareStatement("""
+                    SELECT s.id, s.name, s.grade_level,
+                        g.math_score, g.science_score, g.social_score, g.english_score, g.kannada_score
+                    FROM students s LEFT JOIN grades g ON g.student_id = s.id ORDER BY s.id""");
+                ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if ((ids.size() + 1) * SUBJECTS > scores.length) {
+                        scores = Arrays.copyOf(scores, scores.length * 2);
+                    }
+                    for (int i = 0; i < SUBJECTS; i++) {
+                        scores[ids.size() * SUBJECTS + i] = rs.getInt(4 + i); // Missing grade rows read as 0
+                    }
+                    ids.add(rs.getString(1));
+                    names.add(rs.getString(2));
+                    gradeLevels.add(rs.getString(3));
+                }
+            }
+
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                positions.put(ids.get(i), i);
+            }
+            List<LocalDate> days = new ArrayList<>();
+            List<BitSet> bits = new ArrayList<>();
+            if (packed) {
+                readPackedDays(conn, positions, ids.size(), days, bits);
+            } else {
+                // Ordered by date through the covering date index
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT date, student_id, status FROM attendance ORDER BY date");
+                    ResultSet rs = pstmt.executeQuery()) {
+                    String currentDate = null;
+                    while (rs.next()) {
+                        String date = rs.getString(1);
+                        if (!date.equals(currentDate)) {
+                            currentDate = date;
+                            days.add(LocalDate.parse(date));
+                            for (int i = 0; i < STATUSES.length; i++) {
+                                bits.add(new BitSet(ids.size()));
+                            }
+                        }
+                        Integer position = positions.get(rs.getString(2));
+                        int status = Arrays.asList(STATUSES).indexOf(rs.getString(3));
+                        if (status < 0) {
+                            return null;
+                        }
+                        if (position != null) { // Rows of students that no longer exist are not part of any view
+                            bits.get(bits.size() - STATUSES.length + status).set(position);
+                        }
+                    }
+                }
+            }
+            return new StudentSnapshot(version, ids.toArray(String[]::new), names.toArray(String[]::new),
+                    gradeLevels.toArray(String[]::new), Arrays.copyOf(scores, ids.size() * SUBJECTS),
+                    days.toArray(LocalDate[]::new), bits.toArray(BitSet[]::new));
+        } finally {
+            conn.rollback(); // Read only; ends the read transaction
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * The packed layout's equivalent of the date-ordered scan in capture: months are read in
+     * order and each is expanded into its days' bitsets once all its rows are in.
+     */
+    private static void readPackedDays(Connection conn, Map<String, Integer> positions, int size,
+                                       List<LocalDate> days, List<BitSet> bits) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT month, student_id, days FROM attendance_packed ORDER BY month");
+            ResultSet rs = pstmt.executeQuery()) {
+            String currentMonth = null;
+            // Per day of the current month and status; null until a record needs it
+            BitSet[] monthBits = new BitSet[31 * STATUSES.length];
+            LocalDate[] monthDates = new LocalDate[31];
+            while (true) {
+                boolean more = rs.next();
+                String month = more ? rs.getString(1) : null;
+                if (currentMonth != null && !currentMonth.equals(month)) {
+                    for (int d = 0; d < monthDates.length; d++) {
+                        if (monthDates[d] == null) {
+                            continue;
+                        }
+                        days.add(monthDates[d]);
+                        for (int status = 0; status < STATUSES.length; status++) {
+                            BitSet set = monthBits[d * STATUSES.length + status];
+                            bits.add(set == null ? new BitSet(size) : set);
+                        }
+                    }
+                    Arrays.fill(monthBits, null);
+                    Arrays.fill(monthDates, null);
+                }
+                if (!more) {
+                    break;
+                }
+                currentMonth = month;
+                Integer position = positions.get(rs.getString(2));
+                if (position == null) { // Rows of students that no longer exist are not part of any view
+                    continue;
+                }
+                PackedAttendance.decode(rs.getString(2), month, rs.getLong(3), null, null, (id, date, status) -> {
+                    int d = date.getDayOfMonth() - 1;
+                    int slot = d * STATUSES.length + PackedAttendance.code(status) - 1;
+                    monthDates[d] = date;
+                    if (monthBits[slot] == null) {
+                        monthBits[slot] = new BitSet(size);
+                    }
+                    monthBits[slot].set(position);
+                });
+            }
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and moves it into place, so a reader never sees a
+     * partial file.
+     */
+    void write(Path file) throws IOException {
+        List<byte[]> strings = new ArrayList<>(ids.length * 3);
+        int size = 4 + 4 + 8 + 4 + ids.length * SUBJECTS * 4 + 4 + 4;
+        for (int i = 0; i < ids.length; i++) {
+            for (String s : new String[] {ids[i], names[i], gradeLevels[i]}) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                strings.add(utf8);
+                size += 4 + utf8.length;
+            }
+        }
+        long[][] words = new long[bits.length][];
+        size += days.length * 8;
+        for (int i = 0; i < bits.length; i++) {
+            words[i] = bits[i].toLongArray();
+            size += 4 + words[i].length * 8;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(FORMAT).putLong(dataVersion).putInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            for (int s = 0; s < 3; s++) {
+                byte[] utf8 = strings.get(i * 3 + s);
+                out.putInt(utf8.length).put(utf8);
+            }
+            for (int subject = 0; subject < SUBJECTS; subject++) {
+                out.putInt(scores[i * SUBJECTS + subject]);
+            }
+        }
+        out.putInt(days.length);
+        for (int d = 0; d < days.length; d++) {
+            out.putLong(days[d].toEpochDay());
+            for (int status = 0; status < STATUSES.length; status++) {
+                long[] w = words[d * STATUSES.length + status];
+                out.putInt(w.length);
+                for (long word : w) {
+                    out.putLong(word);
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // =======================================================
+    // --- READING ---
+    // =======================================================
+
+    /**
+     * Maps a snapshot file into memory and decodes it.
+     * @throws IOException If the file cannot be read or is not a complete, intact snapshot of this format.
+     */
+    static StudentSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 24 || size > Integer.MAX_VALUE) {
+                throw new IOException("not a snapshot (" + size + " bytes)");
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT) {
+                throw new IOException("unknown snapshot format");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(in.duplicate().position(0).limit((int) size - 4));
+            if ((int) crc.getValue() != in.getInt((int) size - 4)) {
+                throw new IOException("checksum mismatch");
+            }
+
+            long version = in.getLong();
+            int count = in.getInt();
+            String[] ids = new String[count];
+            String[] names = new String[count];
+            String[] gradeLevels = new String[count];
+            int[] scores = new int[count * SUBJECTS];
+            for (int i = 0; i < count; i++) {
+                ids[i] = readString(in);
+                names[i] = readString(in);
+                gradeLevels[i] = readString(in);
+                for (int subject = 0; subject < SUBJECTS; subject++) {
+                    scores[i * SUBJECTS + subject] = in.getInt();
+                }
+            }
+            int dayCount = in.getInt();
+            LocalDate[] days = new LocalDate[dayCount];
+            BitSet[] bits = new BitSet[dayCount * STATUSES.length];
+            for (int d = 0; d < dayCount; d++) {
+                days[d] = LocalDate.ofEpochDay(in.getLong());
+                for (int status = 0; status < STATUSES.length; status++) {
+                    long[] words = new long[in.getInt()];
+                    in.asLongBuffer().get(words);
+                    in.position(in.position() + words.length * 8);
+                    bits[d * STATUSES.length + status] = BitSet.valueOf(words);
+                }
+            }
+            return new StudentSnapshot(version, ids, names, gradeLevels, scores, days, bits);
+        } catch (RuntimeException e) { // BufferUnderflowException etc. from a damaged file
+            throw new IOException("damaged snapshot: " + e, e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] utf8 = new byte[in.getInt()];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // =======================================================
+    // --- SERVING READS ---
+    // =======================================================
+
+    /**
+     * Students in ID order with the parts the projection names, exactly as StudentCursor reads them.
+     */
+    Stream<Student> stream(StudentProjection projection) {
+        IntStream positions = projection.getStudentId() != null
+                ? IntStream.range(0, ids.length).filter(i -> ids[i].equals(projection.getStudentId()))
+                : IntStream.range(0, ids.length);
+        int fromDay = 0;
+        int toDay = days.length;
+        if (projection.getAttendanceFrom() != null) {
+            fromDay = firstDayNotBefore(projection.getAttendanceFrom());
+            toDay = firstDayNotBefore(projection.getAttendanceTo().plusDays(1));
+        }
+        int firstDay = fromDay;
+        int endDay = toDay;
+        return positions.mapToObj(i -> {
+            Student s = new Student(ids[i], names[i], gradeLevels[i]);
+            if (projection.includesGrades()) {
+                s.setMathScore(scores[i * SUBJECTS]);
+                s.setScienceScore(scores[i * SUBJECTS + 1]);
+                s.setSocialScore(scores[i * SUBJECTS + 2]);
+                s.setEnglishScore(scores[i * SUBJECTS + 3]);
+                s.setKannadaScore(scores[i * SUBJECTS + 4]);
+            }
+            if (projection.includesAttendance()) {
+                for (int d = firstDay; d < endDay; d++) {
+                    for (int status = 0; status < STATUSES.length; status++) {
+                        if (bits[d * STATUSES.length + status].get(i)) {
+                            s.recordAttendance(days[d], STATUSES[status]);
+                        }
+                    }
+                }
+            }
+            return s;
+        });
+    }
+
+    /**
+     * Calls the visitor for every attendance record, day by day.
+     */
+    void forEachRecord(AttendanceRepository.RecordVisitor visitor) {
+        for (int d = 0; d < days.length; d++) {
+            for (int status = 0; status < STATUSES.length; status++) {
+                BitSet set = bits[d * STATUSES.length + status];
+                for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+                    visitor.visit(ids[i], days[d], STATUSES[status]);
+                }
+            }
+        }
+    }
+
+    private int firstDayNotBefore(LocalDate date) {
+        int position = Arrays.binarySearch(days, date);
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -0,0 +1,488 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Offline-first replication between two installations (e.g. two laptops) of one school.
+ *
+ * Every write logs itself in the change_log table (see ChangeLog). A sync sends the other side
+ * only the log rows after the point it last confirmed, so its cost grows with the number of
+ * changes made since then, not with the size of the database. The receiver applies each change
+ * unless it already has it or already has a later change of the same key; attendance (student,
+ * day), grade rows and students are resolved per key the same way on both sides, so after
+ * syncing in both directions the two databases hold the same data.
+ *
+ * Two transports: a bundle file ({@link #exportTo}/{@link #importFrom}, e.g. on a USB stick),
+ * and a socket ({@link #listen} on one side, {@link #syncWith} on the other), which exchanges
+ * both directions and the acknowledgements in one session. Applied changes are written through
+ * the school's DatabaseWriter in chunks, audited, and announced like local edits.
+ */
+public class SyncEngine {
+
+    private static final int MAGIC = 0x534D5359; // "SMSY"
+    private static final int FORMAT = 1;
+
+    // Changes applied per writer task, so a large sync never holds the write lock for long
+    private static final int APPLY_CHUNK = 500;
+
+    // Interface the listener binds to; loopback unless configured
+    private static final String BIND_ADDRESS = System.getProperty("school.sync.bindAddress");
+
+    private final SchoolDatabase database;
+    private final SchoolSystem school;
+    private final AuditLog audit = AuditLog.getInstance();
+    private volatile String installationId;
+    private ServerSocket listener;
+
+    /**
+     * Changes sent from one installation to another. throughSeq is the sender's log position the
+     * bundle is complete up to; ack is how far the sender has applied the recipient's log.
+     */
+    record Bundle(String sender, String recipient, long throughSeq, long ack, List<ChangeLog.Change> changes) {}
+
+    /**
+     * Outcome of one sync, as reported in the log.
+     */
+    public record SyncResult(String peer, int sent, int received, int applied, int superseded, int skipped,
+                             long elapsedMillis) {
+        @Override
+        public String toString() {
+            return String.format("peer %s: %d changes sent, %d received (%d applied, %d superseded, %d already known) in %d ms",
+                    peer, sent, received, applied, superseded, skipped, elapsedMillis);
+        }
+    }
+
+    public SyncEngine(SchoolDatabase database, SchoolSystem school) {
+        this.database = database;
+        this.school = school;
+    }
+
+    /**
+     * This installation's ID, created with the database.
+     */
+    public String getInstallationId() throws SQLException {
+        if (installationId == null) {
+            try (Connection conn = database.getConnection()) {
+                installationId = ChangeLog.installationId(conn);
+            }
+        }
+        return installationId;
+    }
+
+    // =======================================================
+    // --- FILE TRANSPORT ---
+    // =======================================================
+
+    /**
+     * Writes the changes the peer has not confirmed yet to a bundle file.
+     * @param peer The receiving installation's ID, or null for one never synced with (the whole log is written).
+     * @return The number of changes written.
+     */
+    public int exportTo(Path file, String peer) throws IOException, SQLException {
+        Bundle bundle = createBundle(peer);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            writeBundle(out, bundle);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Sync bundle written: " + bundle.changes().size() + " changes to " + file);
+        return bundle.changes().size();
+    }
+
+    /**
+     * Applies a bundle file written by another installation. Importing the same file twice is harmless.
+     */
+    public SyncResult importFrom(Path file) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Bundle bundle;
+        try (InputStream in = Files.newInputStream(file)) {
+            bundle = readBundle(in);
+        }
+        if (!bundle.recipient().isEmpty() && !bundle.recipient().equals(getInstallationId())) {
+            throw new IOException("Sync bundle is for installation " + bundle.recipient() + ", not " + getInstallationId());
+        }
+        SyncResult result = apply(bundle, start);
+        System.out.println("Sync bundle imported from " + file + ": " + result);
+        return result;
+    }
+
+    // =======================================================
+    // --- SOCKET TRANSPORT ---
+    // =======================================================
+
+    // Session: both send their ID; the client sends its bundle; the server applies it and replies
+    // with its own; the client applies that and acknowledges it.
+
+    /**
+     * Accepts sync sessions on a daemon thread until {@link #stopListening} (one session at a time).
+     */
+    public synchronized void listen(int port) throws IOException {
+        if (listener != null) {
+            throw new IllegalStateException("Already listening on port " + listener.getLocalPort());
+        }
+        InetAddress address = BIND_ADDRESS != null ? InetAddress.getByName(BIND_ADDRESS) : InetAddress.getLoopbackAddress();
+        ServerSocket server = new ServerSocket(port, 0, address);
+        listener = server;
+        Thread thread = new Thread(() -> acceptLoop(server), "sync-listener-" + database.getId());
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Sync listening on " + address.getHostAddress() + ":" + server.getLocalPort());
+    }
+
+    /**
+     * The port being listened on, or -1.
+     */
+    public synchronized int getListeningPort() {
+        return listener != null ? listener.getLocalPort() : -1;
+    }
+
+    public synchronized void stopListening() {
+        if (listener != null) {
+            try {
+                listener.close();
+            } catch (IOException e) {
+                System.err.println("ERROR closing sync listener: " + e.getMessage());
+            }
+            listener = null;
+        }
+    }
+
+    private void acceptLoop(ServerSocket server) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                SyncResult result = serve(socket);
+                System.out.println("Sync session served, " + result);
+            } catch (IOException | SQLException | RuntimeException e) {
+                if (!server.isClosed()) {
+                    System.err.println("ERROR in sync session: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private SyncResult serve(Socket socket) throws IOException, SQLException {
+        long start = System.nanoTime();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        String peer = readHello(in);
+        writeHello(out);
+
+        SyncResult received = apply(readBundle(in), start);
+        Bundle reply = createBundle(peer);
+        writeBundle(out, reply);
+        acknowledge(peer, in.readLong());
+        return withSent(received, reply.changes().size(), start);
+    }
+
+    /**
+     * Syncs both ways with an installation listening on the given host and port.
+     */
+    public SyncResult syncWith(String host, int port) throws IOException, SQLException {
+        long start = System.nanoTime();
+        try (Socket socket = new Socket(host, port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHello(out);
+            String peer = readHello(in);
+
+            Bundle request = createBundle(peer);
+            writeBundle(out, request);
+            Bundle reply = readBundle(in);
+            SyncResult received = apply(reply, start);
+            out.writeLong(reply.throughSeq());
+            out.flush();
+            SyncResult result = withSent(received, request.changes().size(), start);
+            System.out.println("Synced with " + host + ":" + port + ", " + result);
+            return result;
+        }
+    }
+
+    private void writeHello(DataOutputStream out) throws IOException, SQLException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeUTF(getInstallationId());
+        out.flush();
+    }
+
+    private String readHello(DataInputStream in) throws IOException, SQLException {
+        checkHeader(in);
+        String peer = in.readUTF();
+        if (peer.equals(getInstallationId())) {
+            throw new IOException("Cannot sync an installation with itself (" + peer + ")");
+        }
+        return peer;
+    }
+
+    private static SyncResult withSent(SyncResult result, int sent, long start) {
+        return new SyncResult(result.peer(), sent, result.received(), result.applied(), result.superseded(),
+                result.skipped(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // =======================================================
+    // --- BUNDLES ---
+    // =======================================================
+
+    Bundle createBundle(String peer) throws SQLException {
+        try (Connection conn = database.getConnection()) {
+            String self = getInstallationId();
+            long[] state = peer != null ? peerState(conn, peer) : new long[2];
+            long throughSeq = ChangeLog.lastSeq(conn);
+            // Rows committed after lastSeq have higher numbers and are left for the next sync
+            List<ChangeLog.Change> changes = ChangeLog.between(conn, state[1], throughSeq, peer != null ? peer : "");
+            return new Bundle(self, peer != null ? peer : "", throughSeq, state[0], changes);
+        }
+    }
+
+    private static void writeBundle(OutputStream stream, Bundle bundle) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeUTF(bundle.sender());
+        out.writeUTF(bundle.recipient());
+        out.writeLong(bundle.throughSeq());
+        out.writeLong(bundle.ack());
+        out.writeInt(bundle.changes().size());
+        for (ChangeLog.Change change : bundle.changes()) {
+            out.writeUTF(change.origin());
+            out.writeLong(change.originSeq());
+            out.writeLong(change.changedAt());
+            out.writeUTF(change.entity());
+            out.writeUTF(change.key());
+            out.writeBoolean(change.payload() != null);
+            if (change.payload() != null) {
+                out.writeUTF(change.payload());
+            }
+        }
+        out.flush();
+    }
+
+    private static Bundle readBundle(InputStream stream) throws IOException {
+        DataInputStream in = stream instanceof DataInputStream data ? data : new DataInputStream(new BufferedInputStream(stream));
+        checkHeader(in);
+        String sender = in.readUTF();
+        String recipient = in.readUTF();
+        long throughSeq = in.readLong();
+        long ack = in.readLong();
+        int count = in.readInt();
+        List<ChangeLog.Change> changes = new ArrayList<>(Math.min(count, 100_000));
+        for (int i = 0; i < count; i++) {
+            String origin = in.readUTF();
+            long originSeq = in.readLong();
+            long changedAt = in.readLong();
+            String entity = in.readUTF();
+            String key = in.readUTF();
+            String payload = in.readBoolean() ? in.readUTF() : null;
+            changes.add(new ChangeLog.Change(0, origin, originSeq, changedAt, entity, key, payload));
+        }
+        return new Bundle(sender, recipient, throughSeq, ack, changes);
+    }
+
+    private static void checkHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a sync stream");
+        }
+        int format = in.readInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported sync format " + format);
+        }
+    }
+
+    // =======================================================
+    // --- APPLYING CHANGES ---
+    // =======================================================
+
+    // What one chunk did, to announce after it has been committed
+    private record Audited(String action, String subject, Object before, Object after) {}
+
+    private static final class Outcome {
+        int applied;
+        int superseded;
+        int skipped;
+        final List<ChangeEvent> events = new ArrayList<>();
+        final List<Audited> audited = new ArrayList<>();
+    }
+
+    private SyncResult apply(Bundle bundle, long start) throws SQLException {
+        if (bundle.sender().equals(getInstallationId())) {
+            throw new SQLException("Bundle was written by this installation");
+        }
+        List<ChangeLog.Change> changes = bundle.changes();
+        int applied = 0;
+        int superseded = 0;
+        int skipped = 0;
+        for (int from = 0; from < changes.size() || from == 0; from += APPLY_CHUNK) {
+            List<ChangeLog.Change> chunk = changes.subList(from, Math.min(changes.size(), from + APPLY_CHUNK));
+            boolean last = from + APPLY_CHUNK >= changes.size();
+            Outcome outcome;
+            try {
+                outcome = database.getWriter().submit(conn -> {
+                    Outcome result = applyChunk(conn, chunk);
+                    if (last) {
+                        // Only once every change is in: a failed sync is repeated from the same point
+                        recordPeer(conn, bundle.sender(), bundle.throughSeq(), bundle.ack());
+                    }
+                    return result;
+                }).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+            }
+            for (Audited entry : outcome.audited) {
+                audit.record(database.getId(), entry.action(), entry.subject(), entry.before(), entry.after());
+            }
+            outcome.events.forEach(school::announceReplicated);
+            applied += outcome.applied;
+            superseded += outcome.superseded;
+            skipped += outcome.skipped;
+        }
+        return new SyncResult(bundle.sender(), 0, changes.size(), applied, superseded, skipped,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Outcome applyChunk(Connection conn, List<ChangeLog.Change> chunk) throws SQLException {
+        Outcome outcome = new Outcome();
+        for (ChangeLog.Change change : chunk) {
+            if (ChangeLog.contains(conn, change.origin(), change.originSeq())) {
+                outcome.skipped++;
+                continue;
+            }
+            ChangeLog.Change current = ChangeLog.latest(conn, change.entity(), change.key());
+            ChangeLog.recordReceived(conn, change);
+            if (current != null && !change.supersedes(current.changedAt(), current.origin())) {
+                outcome.superseded++;
+            } else if (applyChange(conn, database.isAttendancePacked(), change, outcome)) {
+                outcome.applied++;
+            } else {
+                outcome.skipped++;
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Writes one winning change to the data tables.
+     * @return false if it could not apply here (grades or attendance of a student deleted on this side).
+     */
+    private static boolean applyChange(Connection conn, boolean packed, ChangeLog.Change change, Outcome outcome) throws SQLException {
+        switch (change.entity()) {
+            case ChangeLog.STUDENT -> {
+                String id = change.key();
+                if (change.payload() == null) {
+                    if (SqliteSchoolRepository.deleteStudentRows(conn, packed, id)) {
+                        outcome.events.add(new ChangeEvent.StudentDeleted(id));
+                    }
+                    return true;
+                }
+                String[] fields = change.payload().split("\t", -1);
+                boolean existed = SqliteSchoolRepository.studentExists(conn, id);
+                SqliteSchoolRepository.writeStudent(conn, id, fields[0], fields[1]);
+                outcome.events.add(existed
+                        ? new ChangeEvent.StudentUpdated(id, fields[0], fields[1])
+                        : new ChangeEvent.StudentAdded(id, fields[0], fields[1]));
+                return true;
+            }
+            case ChangeLog.GRADES -> {
+                String id = change.key();
+                if (!SqliteSchoolRepository.studentExists(conn, id)) {
+                    return false;
+                }
+                String[] scores = change.payload().split(",", 6);
+                int math = Integer.parseInt(scores[0]);
+                int science = Integer.parseInt(scores[1]);
+                int social = Integer.parseInt(scores[2]);
+                int english = Integer.parseInt(scores[3]);
+                int kannada = Integer.parseInt(scores[4]);
+                // Rows backfilled into the log carry neither a time nor a term: file them as of now
+                LocalDateTime recordedAt = change.changedAt() > 0
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(change.changedAt()), ZoneId.systemDefault())
+                        : LocalDateTime.now();
+                String term = scores.length > 5 ? scores[5] : SchoolSystem.termOf(recordedAt.toLocalDate());
+                GradeRepository.Scores previous = SqliteSchoolRepository.writeGrades(conn, id, term, recordedAt,
+                        math, science, social, english, kannada);
+                outcome.audited.add(new Audited("grades", id, previous, new GradeRepository.Scores(math, science, social, english, kannada)));
+                outcome.events.add(new ChangeEvent.GradesChanged(id, math, science, social, english, kannada));
+                return true;
+            }
+            case ChangeLog.ATTENDANCE -> {
+                int separator = change.key().lastIndexOf('|');
+                String id = change.key().substring(0, separator);
+                LocalDate date = LocalDate.parse(change.key().substring(separator + 1));
+                if (!SqliteSchoolRepository.studentExists(conn, id)) {
+                    return false;
+                }
+                String previous = SqliteSchoolRepository.writeAttendance(conn, packed, id, date, change.payload());
+                outcome.audited.add(new Audited("attendance", id + " " + date, previous, change.payload()));
+                outcome.events.add(new ChangeEvent.AttendanceRecorded(id, date, change.payload()));
+                return true;
+            }
+            default -> throw new SQLException("Unknown change type: " + change.entity());
+        }
+    }
+
+    // =======================================================
+    // --- PEERS ---
+    // =======================================================
+
+    /**
+     * {applied_seq, acked_seq} for a peer; zeros if never synced.
+     */
+    private static long[] peerState(Connection conn, String peer) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT applied_seq, acked_seq FROM sync_peers WHERE peer = ?")) {
+            pstmt.setString(1, peer);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new long[] {rs.getLong(1), rs.getLong(2)} : new long[2];
+            }
+        }
+    }
+
+    // Positions only move forward, so an old bundle imported late changes nothing
+    private static void recordPeer(Connection conn, String peer, long appliedSeq, long ackedSeq) throws SQLException {
+        String sql = """
+            INSERT INTO sync_peers(peer, applied_seq, acked_seq, last_sync) VALUES(?, ?, ?, ?)
+            ON CONFLICT(peer) DO UPDATE SET
+                applied_seq = MAX(applied_seq, excluded.applied_seq),
+                acked_seq = MAX(acked_seq, excluded.acked_seq),
+                last_sync = excluded.last_sync
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, peer);
+            pstmt.setLong(2, appliedSeq);
+            pstmt.setLong(3, ackedSeq);
+            pstmt.setString(4, LocalDateTime.now().withNano(0).toString());
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void acknowledge(String peer, long ackedSeq) throws SQLException {
+        try {
+            database.getWriter().submit(conn -> {
+                recordPeer(conn, peer, 0, ackedSeq);
+                return null;
+            }).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Compares AttendanceIndex set queries with the equivalent SQL on a generated database
+ * (10,000 students x 365 days by default). Not part of the unit test run; start it with
+ * {@code java ... com.example.AttendanceIndexBenchmark [students] [days]}.
+ */
+public class AttendanceIndexBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+
+        TestDatabase.useTemporaryDefaultDatabase("attendance-bench");
+
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        generate(students, days, firstDay);
+
+        long start = System.nanoTime();
+        AttendanceIndex index = AttendanceIndex.getShared();
+        System.out.printf("Index build: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        // Query 1: absent on every Monday of March
+        List<LocalDate> mondays = firstDay.withMonth(3).datesUntil(firstDay.withMonth(4))
+                .filter(d -> d.getDayOfWeek() == DayOfWeek.MONDAY)
+                .collect(Collectors.toList());
+        compare("Absent every Monday in March",
+                () -> index.count(AttendanceIndex.onEveryDay(mondays, "ABSENT")),
+                () -> countSql("""
+                    SELECT COUNT(*) FROM (SELECT student_id FROM attendance
+                    WHERE status = 'ABSENT' AND date IN (%s)
+                    GROUP BY student_id HAVING COUNT(*) = %d)""".formatted(inList(mondays), mondays.size())));
+
+        // Query 2: late at least 5 times in the first term and absent on exam day
+        List<LocalDate> term = firstDay.datesUntil(firstDay.plusDays(Math.min(days, 120))).collect(Collectors.toList());
+        LocalDate examDay = term.get(term.size() - 1);
+        compare("Late 5+ times in term and absent on exam day",
+                () -> index.count(AttendanceIndex.atLeast(5, term, "LATE")
+                        .and(AttendanceIndex.status(examDay, "ABSENT"))),
+                () -> countSql("""
+                    SELECT COUNT(*) FROM (
+                        SELECT student_id FROM attendance
+                        WHERE status = 'LATE' AND date BETWEEN '%s' AND '%s'
+                        GROUP BY student_id HAVING COUNT(*) >= 5
+                        INTERSECT
+                        SELECT student_id FROM attendance WHERE date = '%s' AND status = 'ABSENT')"""
+                        .formatted(term.get(0), examDay, examDay)));
+
+        // Query 3: present every day of one week
+        List<LocalDate> week = firstDay.plusDays(14).datesUntil(firstDay.plusDays(19)).collect(Collectors.toList());
+        compare("Present every day of a week",
+                () -> index.count(AttendanceIndex.onEveryDay(week, "PRESENT")),
+                () -> countSql("""
+                    SELECT COUNT(*) FROM (SELECT student_id FROM attendance
+                    WHERE status = 'PRESENT' AND date IN (%s)
+                    GROUP BY student_id HAVING COUNT(*) = %d)""".formatted(inList(week), week.size())));
+
+        // Query 4: never absent in the term (uses NOT against the enrolled set)
+        compare("Never absent in term",
+                () -> index.count(AttendanceIndex.onAnyDay(term, "ABSENT").not()),
+                () -> countSql("""
+                    SELECT COUNT(*) FROM students WHERE id NOT IN (
+                        SELECT student_id FROM attendance
+                        WHERE status = 'ABSENT' AND date BETWEEN '%s' AND '%s')""".formatted(term.get(0), examDay)));
+    }
+
+    /**
+     * Bulk-loads students and a mostly-PRESENT attendance history directly (bypassing the writer).
+     */
+    private static void generate(int students, int days, LocalDate firstDay) throws Exception {
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO students(id, name, grade_level) VALUES(?, ?, ?)")) {
+                for (int i = 0; i < students; i++) {
+                    ps.setString(1, String.format("S%05d", i));
+                    ps.setString(2, "Student " + i);
+                    ps.setString(3, String.valueOf(1 + i % 12));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO attendance(student_id, date, status) VALUES(?, ?, ?)")) {
+                for (int d = 0; d < days; d++) {
+                    String date = firstDay.plusDays(d).toString();
+                    for (int i = 0; i < students; i++) {
+                        int roll = random.nextInt(100);
+                        ps.setString(1, String.format("S%05d", i));
+                        ps.setString(2, date);
+                        ps.setString(3, roll < 88 ? "PRESENT" : roll < 95 ? "LATE" : "ABSENT");
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            conn.commit();
+        }
+        System.out.printf("Generated %d students x %d days in %d ms%n", students, days, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void compare(String name, Supplier<Integer> bitmap, Supplier<Integer> sql) {
+        int bitmapResult = bitmap.get();
+        int sqlResult = sql.get();
+        double bitmapMs = time(bitmap);
+        double sqlMs = time(sql);
+        System.out.printf("%-45s bitmap %8.3f ms | SQL %9.3f ms | %6.0fx | matches: %d%s%n",
+                name, bitmapMs, sqlMs, sqlMs / bitmapMs, bitmapResult,
+                bitmapResult == sqlResult ? "" : " (SQL returned " + sqlResult + "!)");
+    }
+
+    private static double time(Supplier<Integer> query) {
+        query.get(); // warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    private static int countSql(String sql) {
+        try (Connection conn = DatabaseManager.getConnection();
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String inList(List<LocalDate> dates) {
+        List<String> quoted = new ArrayList<>();
+        dates.forEach(d -> quoted.add("'" + d + "'"));
+        return String.join(", ", quoted);
+    }
+}
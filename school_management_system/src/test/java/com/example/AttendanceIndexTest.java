@@ -0,0 +1,63 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the counting query of the attendance bitmap index, including its edge at zero, on an
+ * in-memory school.
+ */
+public class AttendanceIndexTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+    private static final List<LocalDate> WEEK = List.of(MONDAY, MONDAY.plusDays(1), MONDAY.plusDays(2));
+
+    private static int schools;
+
+    private AttendanceIndex index;
+
+    @Before
+    public void createSchool() {
+        System.setProperty("school.audit.enabled", "false");
+        // A school of its own per test, since the index is shared by school
+        SchoolBackend backend = SchoolBackend.create(SchoolBackend.MEMORY, "index-test-" + schools++);
+        SchoolSystem school = new SchoolSystem(backend);
+        for (String id : List.of("S1", "S2", "S3", "S4")) {
+            school.addStudent(new Student(id, "Student " + id, "5")).join();
+        }
+        school.recordAttendance("S1", WEEK.get(0), "LATE").join();
+        school.recordAttendance("S1", WEEK.get(1), "LATE").join();
+        school.recordAttendance("S1", WEEK.get(2), "LATE").join();
+        school.recordAttendance("S2", WEEK.get(0), "LATE").join();
+        school.recordAttendance("S2", WEEK.get(2), "LATE").join();
+        school.recordAttendance("S3", WEEK.get(1), "LATE").join();
+        school.recordAttendance("S4", WEEK.get(1), "PRESENT").join();
+        school.deleteStudent("S4").join();
+        index = AttendanceIndex.getShared(backend);
+    }
+
+    // =======================================================
+    // --- TESTS ---
+    // =======================================================
+
+    @Test
+    public void atLeastCountsTheMatchingDays() {
+        assertEquals(List.of("S1", "S2", "S3"), index.findStudents(AttendanceIndex.atLeast(1, WEEK, "LATE")));
+        assertEquals(List.of("S1", "S2"), index.findStudents(AttendanceIndex.atLeast(2, WEEK, "LATE")));
+        assertEquals(List.of("S1"), index.findStudents(AttendanceIndex.atLeast(3, WEEK, "LATE")));
+        assertEquals(0, index.count(AttendanceIndex.atLeast(4, WEEK, "LATE")));
+    }
+
+    @Test
+    public void atLeastZeroTimesMatchesEveryEnrolledStudent() {
+        assertEquals(List.of("S1", "S2", "S3"), index.findStudents(AttendanceIndex.atLeast(0, WEEK, "ABSENT")));
+        assertEquals(3, index.count(AttendanceIndex.atLeast(-1, List.of(), "LATE")));
+        assertEquals("deleted students are not enrolled", 0,
+                index.count(AttendanceIndex.atLeast(0, WEEK, "PRESENT").and(AttendanceIndex.status(WEEK.get(1), "PRESENT"))));
+    }
+}
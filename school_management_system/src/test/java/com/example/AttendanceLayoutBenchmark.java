@@ -0,0 +1,195 @@
+package com.example;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Compares the daily attendance layout (one row per student and day) with the packed one (one
+ * row per student and month, see PackedAttendance) on the same generated school year: file size,
+ * full load (forEachRecord, as the attendance index does it), range reports and single writes.
+ * Not part of the unit test run; start it with
+ * {@code java ... com.example.AttendanceLayoutBenchmark [students] [days]}.
+ */
+public class AttendanceLayoutBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int WRITES = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        Path dir = Files.createTempDirectory("layout-bench");
+        dir.toFile().deleteOnExit();
+        System.setProperty("school.schools", "daily,packed");
+        System.setProperty("school.db.dir", dir.toString());
+        System.setProperty("school.attendance.layout.packed", PackedAttendance.PACKED);
+        System.setProperty("school.snapshot.enabled", "false"); // Full loads must read the database
+
+        // School days (weekdays) from the start of the academic year, mostly PRESENT
+        LocalDate firstDay = LocalDate.of(2025, 9, 1);
+        List<LocalDate> schoolDays = firstDay.datesUntil(firstDay.plusDays(days))
+                .filter(d -> d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY)
+                .toList();
+        byte[][] codes = new byte[students][schoolDays.size()];
+        Random random = new Random(42);
+        for (byte[] student : codes) {
+            for (int d = 0; d < student.length; d++) {
+                int roll = random.nextInt(100);
+                student[d] = (byte) (roll < 88 ? 1 : roll < 95 ? 3 : 2);
+            }
+        }
+
+        List<Object> daily = run("daily", students, schoolDays, codes);
+        List<Object> packed = run("packed", students, schoolDays, codes);
+        System.out.println(daily.equals(packed) ? "Results match." : "RESULTS DIFFER:\n  daily  " + daily + "\n  packed " + packed);
+        DatabaseManager.shutdown();
+        for (File file : dir.toFile().listFiles()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Loads the generated year into one school's layout, then times the read and write paths.
+     * Returns a digest of every result so the layouts can be compared.
+     */
+    private static List<Object> run(String school, int students, List<LocalDate> schoolDays, byte[][] codes) throws Exception {
+        SchoolDatabase database = DatabaseManager.forSchool(school);
+        AttendanceRepository repository = SchoolBackend.forSchool(school).attendance();
+        System.out.println("--- " + school + " (packed: " + database.isAttendancePacked() + ") ---");
+        generate(database, students, schoolDays, codes);
+
+        List<Object> digest = new ArrayList<>();
+        File file = new File(database.getUrl().substring("jdbc:sqlite:".length()));
+        System.out.printf("File size:                     %8.1f MB%n", file.length() / 1e6);
+
+        long[] loaded = new long[2];
+        double loadMs = time(() -> {
+            loaded[0] = 0;
+            loaded[1] = 0;
+            repository.forEachRecord((id, date, status) -> {
+                loaded[0]++;
+                loaded[1] += id.hashCode() * 31L + date.toEpochDay() * 7 + status.hashCode();
+            });
+            return loaded[0];
+        });
+        System.out.printf("Full load (%,d records):   %8.1f ms%n", loaded[0], loadMs);
+        digest.add(loaded[0]);
+        digest.add(loaded[1]);
+
+        LocalDate weekStart = schoolDays.get(schoolDays.size() / 2);
+        digest.add(report(repository, "Week report", weekStart, weekStart.plusDays(6)));
+        YearMonth month = YearMonth.from(weekStart);
+        digest.add(report(repository, "Month report", month.atDay(1), month.atEndOfMonth()));
+        digest.add(report(repository, "Year report", schoolDays.get(0), schoolDays.get(schoolDays.size() - 1)));
+
+        // Overwrites through recordAttendance, read-modify-write of the month in the packed layout
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> writes = new ArrayList<>();
+        for (int i = 0; i < WRITES; i++) {
+            writes.add(repository.recordAttendance(String.format("S%05d", random.nextInt(students)),
+                    schoolDays.get(random.nextInt(schoolDays.size())), i % 2 == 0 ? "ABSENT" : "LATE"));
+        }
+        StringBuilder previous = new StringBuilder();
+        writes.forEach(w -> previous.append(w.join()).append(','));
+        System.out.printf("%,d recordAttendance writes:   %8.1f ms%n", WRITES, (System.nanoTime() - start) / 1e6);
+        digest.add(previous.toString().hashCode());
+        digest.add(report(repository, "Month report after writes", month.atDay(1), month.atEndOfMonth()));
+        return digest;
+    }
+
+    private static int report(AttendanceRepository repository, String name, LocalDate from, LocalDate to) {
+        int[] digest = new int[1];
+        double ms = time(() -> {
+            List<AttendanceReportEntry> entries = repository.getPivotedAttendanceReport(from, to);
+            digest[0] = entries.stream().mapToInt(e -> e.getStudentId().hashCode() * 31 + e.getAttendanceData().hashCode()).sum();
+            return entries.size();
+        });
+        System.out.printf("%-30s %8.1f ms%n", name + ":", ms);
+        return digest[0];
+    }
+
+    /**
+     * Bulk-loads students and the attendance year directly in the school's layout (bypassing the writer).
+     */
+    private static void generate(SchoolDatabase database, int students, List<LocalDate> schoolDays, byte[][] codes) throws Exception {
+        String[] statuses = {null, "PRESENT", "ABSENT", "LATE"};
+        long start = System.nanoTime();
+        try (Connection conn = database.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO students(id, name, grade_level) VALUES(?, ?, ?)")) {
+                for (int i = 0; i < students; i++) {
+                    ps.setString(1, String.format("S%05d", i));
+                    ps.setString(2, "Student " + i);
+                    ps.setString(3, String.valueOf(1 + i % 12));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            if (database.isAttendancePacked()) {
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO attendance_packed(student_id, month, days) VALUES(?, ?, ?)")) {
+                    for (int i = 0; i < students; i++) {
+                        YearMonth month = null;
+                        long bits = 0;
+                        for (int d = 0; d <= schoolDays.size(); d++) {
+                            YearMonth next = d < schoolDays.size() ? YearMonth.from(schoolDays.get(d)) : null;
+                            if (month != null && !month.equals(next)) {
+                                ps.setString(1, String.format("S%05d", i));
+                                ps.setString(2, month.toString());
+                                ps.setLong(3, bits);
+                                ps.addBatch();
+                                bits = 0;
+                            }
+                            if (next != null) {
+                                month = next;
+                                bits |= (long) codes[i][d] << (2 * (schoolDays.get(d).getDayOfMonth() - 1));
+                            }
+                        }
+                    }
+                    ps.executeBatch();
+                }
+            } else {
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO attendance(student_id, date, status) VALUES(?, ?, ?)")) {
+                    for (int d = 0; d < schoolDays.size(); d++) {
+                        for (int i = 0; i < students; i++) {
+                            ps.setString(1, String.format("S%05d", i));
+                            ps.setString(2, schoolDays.get(d).toString());
+                            ps.setString(3, statuses[codes[i][d]]);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+        }
+        System.out.printf("Generated %,d students x %d school days in %d ms%n",
+                students, schoolDays.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static double time(Supplier<Object> task) {
+        task.get(); // warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures what the audit log costs the write path and how many entries it can absorb.
+ * Not part of the unit test run; start it with
+ * {@code java ... com.example.AuditBenchmark [writes per round] [producer threads] [seconds]}.
+ *
+ * Part 1 times single grade and attendance writes (submit until commit) with auditing switched
+ * off and on, alternating rounds, on both backends. Part 2 lets several threads record entries
+ * as fast as they can and reports the rate the flusher sustains.
+ */
+public class AuditBenchmark {
+
+    private static final int ROUNDS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Path auditDir = Files.createTempDirectory("audit-bench");
+        System.setProperty("school.audit.file", auditDir.resolve("audit.log").toString());
+        TestDatabase.useTemporaryDefaultDatabase("audit-bench");
+
+        System.out.println("--- Write latency (submit to commit), " + writes + " writes per round ---");
+        writeLatency(SchoolBackend.create(SchoolBackend.SQLITE), writes);
+        writeLatency(SchoolBackend.create(SchoolBackend.MEMORY), writes * 50);
+        DatabaseManager.shutdown();
+        AuditLog.shutdown();
+
+        System.out.println("--- Sustained audit rate, " + producers + " producers, " + seconds + " s ---");
+        sustainedRate(auditDir.resolve("rate.log"), producers, seconds);
+    }
+
+    private static void writeLatency(SchoolBackend backend, int writes) {
+        SchoolSystem school = new SchoolSystem(backend);
+        AuditLog audit = AuditLog.getInstance();
+        int students = 500;
+        for (int i = 0; i < students; i++) {
+            school.addStudent(new Student(String.format("A%04d", i), "Student " + i, "5")).join();
+        }
+
+        Random random = new Random(7);
+        long[][] samples = new long[2][]; // [0] audit off, [1] audit on
+        for (int round = 0; round < ROUNDS * 2; round++) {
+            boolean on = round % 2 == 1;
+            audit.setEnabled(on);
+            long[] latencies = new long[writes];
+            LocalDate day = LocalDate.of(2025, 6, 2).plusDays(round);
+            for (int i = 0; i < writes; i++) {
+                String id = String.format("A%04d", i % students);
+                long start = System.nanoTime();
+                if (i % 2 == 0) {
+                    school.recordGrade(id, random.nextInt(101), random.nextInt(101), random.nextInt(101),
+                            random.nextInt(101), random.nextInt(101)).join();
+                } else {
+                    school.recordAttendance(id, day.plusDays(i / students), random.nextInt(10) == 0 ? "ABSENT" : "PRESENT").join();
+                }
+                latencies[i] = System.nanoTime() - start;
+            }
+            if (round >= 2) { // The first pair warms up
+                int mode = on ? 1 : 0;
+                samples[mode] = samples[mode] == null ? latencies : concat(samples[mode], latencies);
+            }
+        }
+        audit.setEnabled(true);
+
+        double offP50 = percentile(samples[0], 0.50), onP50 = percentile(samples[1], 0.50);
+        double offP99 = percentile(samples[0], 0.99), onP99 = percentile(samples[1], 0.99);
+        System.out.printf("%-7s audit off: p50 %8.1f us, p99 %8.1f us | audit on: p50 %8.1f us, p99 %8.1f us | p99 %+.1f%%%n",
+                backend.name(), offP50, offP99, onP50, onP99, (onP99 - offP99) * 100 / offP99);
+    }
+
+    private static void sustainedRate(Path file, int producers, int seconds) throws InterruptedException {
+        AuditLog audit = new AuditLog(file, 65_536);
+        GradeRepository.Scores before = new GradeRepository.Scores(70, 80, 90, 60, 75);
+        GradeRepository.Scores after = new GradeRepository.Scores(71, 81, 91, 61, 76);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            String subject = "P" + p;
+            Thread producer = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1_000; i++) {
+                        audit.record("bench", "grades", subject, before, after);
+                    }
+                }
+                done.countDown();
+            }, "audit-producer-" + p);
+            producer.start();
+        }
+        long start = System.nanoTime();
+        done.await();
+        long recordedBy = audit.getRecorded();
+        long writtenBy = audit.getWritten();
+        audit.close();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Recorded %,d, written %,d while producing (%,.0f entries/s sustained), buffer-full waits %,d%n",
+                recordedBy, writtenBy, writtenBy / elapsed, audit.getBufferFullWaits());
+        System.out.println("Audit log: " + audit.describe());
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] all = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        return all;
+    }
+
+    // In microseconds
+    private static double percentile(long[] nanos, double p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e3;
+    }
+}
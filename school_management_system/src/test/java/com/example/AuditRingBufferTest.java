@@ -0,0 +1,118 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * Checks the lock-free audit queue: capacity rounding, refusing offers when full, reuse of the
+ * slots lap after lap, and that many producers against one consumer lose and duplicate nothing
+ * and keep each producer's order.
+ */
+public class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 25_000;
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new AuditRingBuffer<String>(1).capacity());
+        assertEquals(8, new AuditRingBuffer<String>(8).capacity());
+        assertEquals(16, new AuditRingBuffer<String>(9).capacity());
+    }
+
+    @Test
+    public void fullBufferRefusesUntilTheConsumerFreesASlot() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    public void slotsAreReusedLapAfterLapInOrder() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // Keep one to three elements queued so head and tail wrap around many times at different offsets
+        for (int lap = 0; lap < 1000; lap++) {
+            for (int i = 0; i < 1 + lap % 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            while (buffer.size() > lap % 2) {
+                assertEquals(Integer.valueOf(expected++), buffer.poll());
+            }
+        }
+        while (expected < next) {
+            assertEquals(Integer.valueOf(expected++), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void concurrentProducersLoseAndDuplicateNothing() throws InterruptedException {
+        // Much smaller than what is produced, so producers keep finding it full and the slots wrap over a thousand times
+        AuditRingBuffer<Long> buffer = new AuditRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < PER_PRODUCER; i++) {
+                    while (!buffer.offer(producer * PER_PRODUCER + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+
+        long[] lastSeen = new long[PRODUCERS];
+        Arrays.fill(lastSeen, -1);
+        boolean[] seen = new boolean[PRODUCERS * PER_PRODUCER];
+        start.countDown();
+        for (int received = 0; received < PRODUCERS * PER_PRODUCER; ) {
+            Long value = buffer.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) (value / PER_PRODUCER);
+            long sequence = value % PER_PRODUCER;
+            assertFalse("duplicate " + value, seen[value.intValue()]);
+            assertTrue("producer " + producer + " out of order at " + sequence, sequence > lastSeen[producer]);
+            seen[value.intValue()] = true;
+            lastSeen[producer] = sequence;
+            received++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertNull(buffer.poll());
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals("last element of producer " + p, PER_PRODUCER - 1, lastSeen[p]);
+        }
+    }
+}
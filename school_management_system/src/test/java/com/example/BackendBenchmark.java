@@ -0,0 +1,86 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs the same workload against the SQLite and the in-memory backend and compares timings
+ * and results. Not part of the unit test run; start it with
+ * {@code java ... com.example.BackendBenchmark [students] [days]}.
+ */
+public class BackendBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        TestDatabase.useTemporaryDefaultDatabase("backend-bench");
+
+        List<Object> sqlite = run(SchoolBackend.create(SchoolBackend.SQLITE), students, days);
+        List<Object> memory = run(SchoolBackend.create(SchoolBackend.MEMORY), students, days);
+        System.out.println(sqlite.equals(memory) ? "Results match." : "RESULTS DIFFER:\n  sqlite " + sqlite + "\n  memory " + memory);
+        DatabaseManager.shutdown();
+    }
+
+    /**
+     * Loads the data through the backend's write API, then times the read paths.
+     * Returns a digest of every query result so the backends can be compared.
+     */
+    private static List<Object> run(SchoolBackend backend, int students, int days) {
+        System.out.println("--- " + backend.name() + " ---");
+        SchoolSystem school = new SchoolSystem(backend);
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2025, 9, 1);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String id = String.format("S%05d", i);
+            writes.add(school.addStudent(new Student(id, "Student " + i, String.valueOf(1 + i % 12))));
+            writes.add(school.recordGrade(id, random.nextInt(101), random.nextInt(101), random.nextInt(101),
+                    random.nextInt(101), random.nextInt(101)));
+        }
+        for (int d = 0; d < days; d++) {
+            for (int i = 0; i < students; i++) {
+                int roll = random.nextInt(100);
+                writes.add(school.recordAttendance(String.format("S%05d", i), firstDay.plusDays(d),
+                        roll < 88 ? "PRESENT" : roll < 95 ? "LATE" : "ABSENT"));
+            }
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        System.out.printf("%-35s %10.1f ms%n", "Write " + writes.size() + " records", (System.nanoTime() - start) / 1e6);
+
+        YearMonth from = YearMonth.from(firstDay);
+        YearMonth to = YearMonth.from(firstDay.plusDays(days - 1));
+        List<Object> digest = new ArrayList<>();
+        digest.add(time("All students (no attendance)", () ->
+                school.getAllStudents(StudentProjection.full().withoutAttendance()).stream().mapToInt(Student::getTotalGrade).sum()));
+        digest.add(time("All students (full)", () ->
+                school.getAllStudents().stream().mapToInt(s -> s.getAttendanceRecords().size()).sum()));
+        digest.add(time("Pivoted attendance, first month", () ->
+                school.getPivotedAttendanceReport(firstDay, firstDay.plusMonths(1).minusDays(1)).stream()
+                        .mapToInt(e -> e.getAttendanceData().size()).sum()));
+        digest.add(time("Chronic absentees", () ->
+                school.getChronicAbsentees(from, to, 0.95).stream().map(AttendanceRateEntry::getStudentId).toList()));
+        digest.add(time("Rates by grade level", () ->
+                school.getAttendanceRatesByGradeLevel(from, to).stream().map(e -> e.getGradeLevel() + ":" + e.getAbsentDays()).toList()));
+        return digest;
+    }
+
+    private static Object time(String name, Supplier<Object> query) {
+        Object result = query.get(); // warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        System.out.printf("%-35s %10.1f ms%n", name, (System.nanoTime() - start) / 1e6 / ROUNDS);
+        return result;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Drives the single writer from many threads at once and checks that no update is lost or applied
+ * twice, that writes are grouped into shared commits, that a busy database is retried, and that
+ * every future completes when the writer shuts down while writes are still arriving.
+ */
+public class DatabaseWriterTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 250;
+
+    private TestDatabase db;
+    private SchoolDatabase database;
+    private DatabaseWriter writer;
+
+    @Before
+    public void createDatabase() throws Exception {
+        db = TestDatabase.create("writer-test");
+        database = db.database();
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE counter (id INTEGER PRIMARY KEY, n INTEGER NOT NULL)");
+            stmt.executeUpdate("INSERT INTO counter VALUES (1, 0)");
+        }
+        writer = database.getWriter();
+    }
+
+    @After
+    public void cleanUp() {
+        db.close();
+    }
+
+    private static Integer increment(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate("UPDATE counter SET n = n + 1 WHERE id = 1");
+        }
+    }
+
+    private int counter() throws SQLException {
+        try (Connection conn = database.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT n FROM counter WHERE id = 1")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Submits from THREADS threads at once; returns every future handed out
+    private List<CompletableFuture<Integer>> submitConcurrently(DatabaseWriter.WriteTask<Integer> task) throws InterruptedException {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                List<CompletableFuture<Integer>> own = new ArrayList<>();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    own.add(writer.submit(task));
+                }
+                synchronized (futures) {
+                    futures.addAll(own);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return futures;
+    }
+
+    // =======================================================
+    // --- TESTS ---
+    // =======================================================
+
+    @Test
+    public void concurrentWritesAreAllCommittedOnceInSharedBatches() throws Exception {
+        List<CompletableFuture<Integer>> futures = submitConcurrently(DatabaseWriterTest::increment);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(THREADS * WRITES_PER_THREAD, counter());
+        assertEquals(THREADS * WRITES_PER_THREAD, writer.getCommittedWrites());
+        assertTrue("writes should share commits, got " + writer.getCommittedBatches() + " batches",
+                writer.getCommittedBatches() < writer.getCommittedWrites());
+    }
+
+    @Test
+    public void busyBatchIsRolledBackAndRetriedWithoutDoubleApplying() throws Exception {
+        AtomicInteger busyLeft = new AtomicInteger(3);
+        // Every batch containing this write fails with SQLITE_BUSY three times, after the increments before it ran
+        DatabaseWriter.WriteTask<Integer> flaky = conn -> {
+            if (busyLeft.getAndDecrement() > 0) {
+                throw new SQLException("[SQLITE_BUSY] The database file is locked (database is locked)", null, 5);
+            }
+            return increment(conn);
+        };
+        List<CompletableFuture<Integer>> futures = submitConcurrently(DatabaseWriterTest::increment);
+        futures.add(writer.submit(flaky));
+        futures.addAll(submitConcurrently(DatabaseWriterTest::increment));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(2 * THREADS * WRITES_PER_THREAD + 1, counter());
+        assertEquals(3, writer.getBusyRetries());
+        assertEquals(0, writer.getFailedWrites());
+    }
+
+    @Test
+    public void writesWaitForAnotherConnectionsLock() throws Exception {
+        try (Connection other = database.openConnection();
+            Statement stmt = other.createStatement()) {
+            stmt.execute("BEGIN EXCLUSIVE");
+            List<CompletableFuture<Integer>> futures = submitConcurrently(DatabaseWriterTest::increment);
+            Thread.sleep(200);
+            assertTrue("no write may commit while the lock is held", futures.stream().noneMatch(CompletableFuture::isDone));
+            stmt.execute("COMMIT");
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(THREADS * WRITES_PER_THREAD, counter());
+    }
+
+    @Test
+    public void everyFutureCompletesWhenShutdownRacesWithSubmitters() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Thread submitters = new Thread(() -> {
+            try {
+                futures.addAll(submitConcurrently(DatabaseWriterTest::increment));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        submitters.start();
+        Thread.sleep(5);
+        writer.shutdown();
+        submitters.join();
+
+        int committed = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                committed++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            } catch (TimeoutException e) {
+                fail("a write submitted during shutdown was never completed");
+            }
+        }
+        assertEquals(committed, counter());
+    }
+}
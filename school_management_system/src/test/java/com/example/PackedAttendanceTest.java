@@ -0,0 +1,157 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the bit layout of packed attendance: the day masks at the edges of months of every
+ * length, counting, decoding, and writing, replacing and deleting single days in SQLite.
+ */
+public class PackedAttendanceTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2025, 1);
+    private static final YearMonth LEAP_FEBRUARY = YearMonth.of(2024, 2);
+
+    private Connection conn;
+
+    @Before
+    public void createTable() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE attendance_packed (student_id TEXT NOT NULL, month TEXT NOT NULL, days INTEGER NOT NULL,"
+                    + " PRIMARY KEY (student_id, month)) WITHOUT ROWID");
+            stmt.execute("CREATE TABLE attendance_copy (student_id TEXT NOT NULL, date TEXT NOT NULL, status TEXT NOT NULL,"
+                    + " PRIMARY KEY (student_id, date))");
+        }
+    }
+
+    @After
+    public void closeConnection() throws SQLException {
+        conn.close();
+    }
+
+    private long days(String studentId, YearMonth month) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT days FROM attendance_packed WHERE student_id = ? AND month = ?")) {
+            pstmt.setString(1, studentId);
+            pstmt.setString(2, month.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+    }
+
+    private static List<String> decoded(String month, long days, LocalDate from, LocalDate to) {
+        List<String> records = new ArrayList<>();
+        PackedAttendance.decode("S1", month, days, from, to, (studentId, date, status) -> records.add(date + " " + status));
+        return records;
+    }
+
+    // =======================================================
+    // --- TESTS ---
+    // =======================================================
+
+    @Test
+    public void maskCoversTheWholeMonthWithoutBounds() {
+        assertEquals((1L << 62) - 1, PackedAttendance.mask(JANUARY, null, null));
+        assertEquals((1L << 58) - 1, PackedAttendance.mask(LEAP_FEBRUARY, null, null));
+        assertEquals((1L << 56) - 1, PackedAttendance.mask(YearMonth.of(2025, 2), null, null));
+        assertEquals((1L << 60) - 1, PackedAttendance.mask(YearMonth.of(2025, 4), null, null));
+    }
+
+    @Test
+    public void maskClipsToTheDatesAndIgnoresDatesOutsideTheMonth() {
+        assertEquals(3L << 60, PackedAttendance.mask(JANUARY, LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 10)));
+        assertEquals(3L, PackedAttendance.mask(JANUARY, LocalDate.of(2024, 12, 20), LocalDate.of(2025, 1, 1)));
+        assertEquals(0b1111_0000L, PackedAttendance.mask(JANUARY, LocalDate.of(2025, 1, 3), LocalDate.of(2025, 1, 4)));
+        assertEquals((1L << 62) - 1, PackedAttendance.mask(JANUARY, LocalDate.of(2024, 12, 1), LocalDate.of(2025, 3, 1)));
+        assertEquals(3L << 56, PackedAttendance.mask(LEAP_FEBRUARY, LocalDate.of(2024, 2, 29), null));
+        assertEquals(0, PackedAttendance.mask(JANUARY, LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 9)));
+    }
+
+    @Test
+    public void countTreatsEveryStatusAsOneDay() {
+        assertEquals(0, PackedAttendance.count(0));
+        assertEquals(3, PackedAttendance.count(0b11_10_01L));
+        assertEquals(1, PackedAttendance.count(3L << 60)); // Day 31, LATE
+        assertEquals(31, PackedAttendance.count((1L << 62) - 1));
+    }
+
+    @Test
+    public void decodeVisitsDaysInOrderWithinTheBounds() {
+        long days = 1L | (2L << 2 * 14) | (3L << 2 * 30); // Day 1 PRESENT, day 15 ABSENT, day 31 LATE
+        assertEquals(List.of("2025-01-01 PRESENT", "2025-01-15 ABSENT", "2025-01-31 LATE"), decoded("2025-01", days, null, null));
+        assertEquals(List.of("2025-01-15 ABSENT"), decoded("2025-01", days, LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 30)));
+        assertEquals(List.of("2025-01-31 LATE"), decoded("2025-01", days, LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 28)));
+        assertEquals(List.of(), decoded("2025-01", 0, null, null));
+    }
+
+    @Test
+    public void writeKeepsTheOtherDaysAndReturnsTheReplacedStatus() throws SQLException {
+        assertNull(PackedAttendance.write(conn, "S1", LocalDate.of(2024, 2, 29), "PRESENT"));
+        assertNull(PackedAttendance.write(conn, "S1", LocalDate.of(2024, 2, 1), "ABSENT"));
+        assertEquals("PRESENT", PackedAttendance.write(conn, "S1", LocalDate.of(2024, 2, 29), "LATE"));
+        assertEquals("LATE", PackedAttendance.write(conn, "S1", LocalDate.of(2024, 2, 29), "ABSENT"));
+
+        assertEquals(2L | (2L << 2 * 28), days("S1", LEAP_FEBRUARY));
+        assertEquals(List.of("2024-02-01 ABSENT", "2024-02-29 ABSENT"), decoded("2024-02", days("S1", LEAP_FEBRUARY), null, null));
+        assertEquals("other students and months are untouched", -1, days("S2", LEAP_FEBRUARY));
+    }
+
+    @Test
+    public void writeOfDay31UsesTheTopBitsOfTheMonth() throws SQLException {
+        PackedAttendance.write(conn, "S1", LocalDate.of(2025, 1, 31), "LATE");
+        PackedAttendance.write(conn, "S1", LocalDate.of(2025, 2, 1), "PRESENT");
+
+        assertEquals(3L << 60, days("S1", JANUARY));
+        assertEquals(1L, days("S1", YearMonth.of(2025, 2)));
+    }
+
+    @Test
+    public void writeRejectsStatusesTheLayoutCannotStore() {
+        try {
+            PackedAttendance.write(conn, "S1", LocalDate.of(2025, 1, 1), "EXCUSED");
+            fail("EXCUSED cannot be packed");
+        } catch (SQLException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void copyAndDeleteRangeAcrossMonthEdges() throws SQLException {
+        for (LocalDate date = LocalDate.of(2024, 12, 30); !date.isAfter(LocalDate.of(2025, 2, 2)); date = date.plusDays(1)) {
+            PackedAttendance.write(conn, "S1", date, "PRESENT");
+        }
+        LocalDate start = LocalDate.of(2024, 12, 31);
+        LocalDate end = LocalDate.of(2025, 1, 31);
+
+        assertEquals(32, PackedAttendance.copyRange(conn, "attendance_copy", start, end));
+        assertEquals(32, PackedAttendance.deleteRange(conn, start, end));
+
+        assertEquals("day 30 is kept", 1L << 2 * 29, days("S1", YearMonth.of(2024, 12)));
+        assertEquals("emptied months are deleted", -1, days("S1", JANUARY));
+        assertEquals(1L | (1L << 2), days("S1", YearMonth.of(2025, 2)));
+        try (Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT MIN(date), MAX(date), COUNT(*) FROM attendance_copy")) {
+            rs.next();
+            assertEquals("2024-12-31", rs.getString(1));
+            assertEquals("2025-01-31", rs.getString(2));
+            assertEquals(32, rs.getInt(3));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Checks the SQLite query plans of every SchoolSystem operation against a generated database.
+ *
+ * The slow-query log is set to capture every statement with its EXPLAIN QUERY PLAN while each
+ * operation runs, so new queries are covered without being listed here. A schema or query change
+ * that makes SQLite scan the attendance, attendance_monthly, grades, grade_history or change_log
+ * table instead of using an index fails the build. Scanning students is expected: reports list every student.
+ * Every check runs once per attendance layout (daily and packed, see PackedAttendance).
+ */
+@RunWith(Parameterized.class)
+public class QueryPlanTest {
+
+    // Statements that read a whole table on purpose
+    private static final Set<String> FULL_SCANS_ALLOWED = Set.of(
+        // Building the attendance bitmap index reads every record once
+        "SELECT student_id, date, status FROM attendance",
+        "SELECT student_id, month, days FROM attendance_packed"
+    );
+
+    private static final Set<String> INDEXED_TABLES = Set.of("attendance", "attendance_packed", "attendance_monthly",
+        "grades", "grade_history", "change_log");
+
+    // FROM/JOIN <schema.>table <alias>
+    private static final Pattern TABLE_REFERENCE = Pattern.compile(
+        "(?i)\\b(?:FROM|JOIN|INTO|UPDATE)\\s+(?:\\w+\\.)?(\\w+)(?:\\s+(?:AS\\s+)?(?!WHERE|JOIN|LEFT|ON|GROUP|ORDER|VALUES|SET|USING)(\\w+))?");
+    private static final Pattern SCAN = Pattern.compile("\\bSCAN (?:\\w+\\.)?(\\w+)");
+
+    private static final int STUDENTS = 300;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 6, 2);
+    private static final int DAYS = 40;
+
+    // Created on first use, one per layout, and shared by the tests of that layout
+    private static final Map<String, TestDatabase> fixtures = new LinkedHashMap<>();
+    private static long previousThreshold;
+    private static Consumer<SlowQueryLog.SlowQuery> previousSink;
+    private static final ConcurrentLinkedQueue<SlowQueryLog.SlowQuery> captured = new ConcurrentLinkedQueue<>();
+
+    private final String layout;
+    private SchoolDatabase database;
+    private SchoolSystem school;
+
+    @Parameterized.Parameters(name = "{0} attendance")
+    public static Collection<Object[]> layouts() {
+        return List.of(new Object[] {PackedAttendance.DAILY}, new Object[] {PackedAttendance.PACKED});
+    }
+
+    public QueryPlanTest(String layout) {
+        this.layout = layout;
+    }
+
+    @BeforeClass
+    public static void captureStatements() {
+        previousThreshold = SlowQueryLog.getThresholdMillis();
+        SlowQueryLog.setThresholdMillis(0);
+        previousSink = SlowQueryLog.setSink(captured::add);
+    }
+
+    @Before
+    public void useDatabase() throws Exception {
+        TestDatabase fixture = fixtures.get(layout);
+        if (fixture == null) {
+            fixture = generateDatabase(layout);
+            fixtures.put(layout, fixture);
+        }
+        database = fixture.database();
+        school = fixture.school();
+    }
+
+    // Snapshots are off in TestDatabase, so reads go to SQL and have plans
+    private static TestDatabase generateDatabase(String layout) throws Exception {
+        String schoolId = "plan-test-" + layout;
+        System.setProperty("school.attendance.layout." + schoolId, layout);
+        TestDatabase fixture = TestDatabase.create(schoolId);
+        SchoolSystem school = fixture.school();
+
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            String id = String.format("P%04d", i);
+            writes.add(school.addStudent(new Student(id, "Student " + i, String.valueOf(1 + i % 12))));
+            writes.add(school.recordGrade(id, i % 101, (i * 7) % 101, (i * 3) % 101, (i * 5) % 101, (i * 11) % 101));
+            for (int d = 0; d < DAYS; d++) {
+                writes.add(school.recordAttendance(id, FIRST_DAY.plusDays(d), (i + d) % 9 == 0 ? "ABSENT" : "PRESENT"));
+            }
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+        return fixture;
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        SlowQueryLog.setSink(previousSink);
+        SlowQueryLog.setThresholdMillis(previousThreshold);
+        fixtures.values().forEach(TestDatabase::close);
+        fixtures.clear();
+    }
+
+    // =======================================================
+    // --- ONE TEST PER SCHOOLSYSTEM OPERATION ---
+    // =======================================================
+
+    @Test
+    public void studentWritesUseIndexes() {
+        assertPlans(() -> {
+            school.addStudent(new Student("NEW01", "New Student", "3")).join();
+            Student student = school.findStudentById("NEW01");
+            student.setName("Renamed Student");
+            school.updateStudent(student).join();
+            school.deleteStudent("NEW01").join();
+        });
+    }
+
+    @Test
+    public void bulkOperationsUseIndexes() {
+        assertPlans(() -> {
+            school.addStudent(new Student("BULK1", "Bulk One", "99")).join();
+            school.addStudent(new Student("BULK2", "Bulk Two", "99")).join();
+            school.recordAttendance("BULK1", FIRST_DAY, "PRESENT").join();
+            school.promoteGradeLevel("99", "98", null).join();
+            school.deleteStudents(List.of("BULK1"), null).join();
+            school.deleteCohort("98", null).join();
+        });
+    }
+
+    @Test
+    public void gradeAndAttendanceWritesUseIndexes() {
+        assertPlans(() -> {
+            school.recordGrade("P0001", 90, 80, 70, 60, 50).join();
+            school.recordGrade("P0001", "2024-25 T3", 85, 75, 65, 55, 45).join();
+            school.recordAttendance("P0001", FIRST_DAY, "LATE").join();
+            school.recordAttendance("P0001", FIRST_DAY, "PRESENT").join();
+        });
+    }
+
+    @Test
+    public void studentReadsUseIndexes() {
+        assertPlans(() -> {
+            school.countStudents();
+            school.findStudentById("P0002");
+            school.getAllStudents();
+            school.getAllStudents(StudentProjection.full().withoutAttendance());
+            school.getAllStudents(StudentProjection.full().attendanceBetween(FIRST_DAY, FIRST_DAY.plusDays(6)));
+            school.forEachStudent(StudentProjection.full(), student -> { });
+        });
+    }
+
+    @Test
+    public void reportsUseIndexes() {
+        assertPlans(() -> {
+            school.getPivotedAttendanceReport(FIRST_DAY.plusDays(7), FIRST_DAY.plusDays(13));
+            school.getGradeSummaryForAll();
+            school.compareTerms("2", "2024-25 T3", SchoolSystem.termOf(LocalDate.now()));
+            school.getGradeHistory("P0001");
+            school.getChronicAbsentees(YearMonth.from(FIRST_DAY), YearMonth.from(FIRST_DAY).plusMonths(1), 0.9);
+            school.getAttendanceRatesByGradeLevel(YearMonth.from(FIRST_DAY), YearMonth.from(FIRST_DAY).plusMonths(1));
+            school.getAttendanceIndex();
+        });
+    }
+
+    @Test
+    public void dateRangeReadsUseTheDateIndex() {
+        boolean packed = PackedAttendance.PACKED.equals(layout);
+        String rangeSql = packed ? "attendance_packed WHERE month BETWEEN" : "attendance WHERE date BETWEEN";
+        String index = packed ? "idx_attendance_packed_month" : "idx_attendance_date";
+        List<SlowQueryLog.SlowQuery> queries = capture(() -> school.getPivotedAttendanceReport(FIRST_DAY, FIRST_DAY.plusDays(4)));
+        boolean rangeQuery = false;
+        for (SlowQueryLog.SlowQuery query : queries) {
+            if (query.sql().contains(rangeSql)) {
+                rangeQuery = true;
+                assertTrue("Date range read without " + index + ":\n" + query, String.join("\n", query.plan()).contains(index));
+            }
+        }
+        assertTrue("The pivot report did not read attendance by date range", rangeQuery);
+    }
+
+    // =======================================================
+    // --- HELPERS ---
+    // =======================================================
+
+    private List<SlowQueryLog.SlowQuery> capture(Runnable operation) {
+        // Writes are committed in queue order, so an empty write marks the end of all earlier ones
+        database.getWriter().submit(conn -> null).join();
+        captured.clear();
+        operation.run();
+        database.getWriter().submit(conn -> null).join();
+        return new ArrayList<>(captured);
+    }
+
+    private void assertPlans(Runnable operation) {
+        List<SlowQueryLog.SlowQuery> queries = capture(operation);
+        assertFalse("No statements were captured", queries.isEmpty());
+        List<String> violations = new ArrayList<>();
+        for (SlowQueryLog.SlowQuery query : queries) {
+            if (FULL_SCANS_ALLOWED.contains(query.sql())) {
+                continue;
+            }
+            Map<String, String> tablesByAlias = tablesByAlias(query.sql());
+            for (String line : query.plan()) {
+                Matcher scan = SCAN.matcher(line);
+                if (scan.find() && INDEXED_TABLES.contains(tablesByAlias.getOrDefault(scan.group(1), scan.group(1)))) {
+                    violations.add(query.sql() + "\n    " + String.join("\n    ", query.plan()));
+                    break;
+                }
+            }
+        }
+        if (!violations.isEmpty()) {
+            fail("Full table scans:\n  " + String.join("\n  ", violations));
+        }
+    }
+
+    private static Map<String, String> tablesByAlias(String sql) {
+        Map<String, String> tables = new HashMap<>();
+        Matcher reference = TABLE_REFERENCE.matcher(sql);
+        while (reference.find()) {
+            String table = reference.group(1);
+            tables.put(table, table);
+            if (reference.group(2) != null) {
+                tables.put(reference.group(2), table);
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks the report cache's hits and misses, its LRU eviction by entry count and by weight, and
+ * that results go stale when a domain they depend on (and only such a domain) is bumped or the
+ * data changes outside the process (looked for at most once per interval).
+ */
+public class ReportCacheTest {
+
+    private static final Set<ReportCache.Domain> ATTENDANCE = EnumSet.of(ReportCache.Domain.STUDENTS, ReportCache.Domain.ATTENDANCE);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @After
+    public void clearLimits() {
+        System.clearProperty("school.cache.maxEntries");
+        System.clearProperty("school.cache.maxWeight");
+        System.clearProperty("school.cache.externalCheckMillis");
+    }
+
+    // Loads a list named after the report and parameter, counting the loads
+    private List<String> report(ReportCache cache, String report, Object parameter, int weight) {
+        return cache.get(report, List.of(parameter), ATTENDANCE, () -> {
+            loads.incrementAndGet();
+            return List.of(report + ":" + parameter);
+        }, value -> weight);
+    }
+
+    // =======================================================
+    // --- TESTS ---
+    // =======================================================
+
+    @Test
+    public void repeatedLookupIsServedFromTheCache() {
+        ReportCache cache = new ReportCache();
+        List<String> first = report(cache, "pivot", 7, 1);
+        List<String> second = report(cache, "pivot", 7, 1);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void otherReportOrParametersMiss() {
+        ReportCache cache = new ReportCache();
+        report(cache, "pivot", 7, 1);
+        report(cache, "pivot", 8, 1);
+        report(cache, "absentees", 7, 1);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedBeyondMaxEntries() {
+        System.setProperty("school.cache.maxEntries", "2");
+        ReportCache cache = new ReportCache();
+        report(cache, "pivot", 1, 1);
+        report(cache, "pivot", 2, 1);
+        report(cache, "pivot", 1, 1); // 1 is now more recently used than 2
+        report(cache, "pivot", 3, 1);
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        report(cache, "pivot", 1, 1);
+        assertEquals("entry 1 kept", 3, loads.get());
+        report(cache, "pivot", 2, 1);
+        assertEquals("entry 2 evicted", 4, loads.get());
+    }
+
+    @Test
+    public void entriesAreEvictedUntilTheWeightFits() {
+        System.setProperty("school.cache.maxWeight", "100");
+        ReportCache cache = new ReportCache();
+        report(cache, "pivot", 1, 40);
+        report(cache, "pivot", 2, 40);
+        report(cache, "pivot", 3, 40);
+
+        assertEquals(2, cache.getSize());
+        assertEquals(80, cache.getTotalWeight());
+
+        report(cache, "pivot", 4, 500); // Heavier than the whole cache: returned but not kept
+        assertEquals(2, cache.getSize());
+        report(cache, "pivot", 4, 500);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void bumpingADependedOnDomainMakesResultsStale() {
+        ReportCache cache = new ReportCache();
+        report(cache, "pivot", 7, 1);
+
+        cache.bump(EnumSet.of(ReportCache.Domain.GRADES));
+        report(cache, "pivot", 7, 1);
+        assertEquals("grades are not a dependency", 1, loads.get());
+
+        cache.bump(new ChangeEvent.AttendanceRecorded("S1", LocalDate.of(2025, 6, 2), "PRESENT"));
+        report(cache, "pivot", 7, 1);
+        assertEquals(2, loads.get());
+        report(cache, "pivot", 7, 1);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void externalChangesMakeEveryResultStale() {
+        AtomicLong external = new AtomicLong();
+        ReportCache cache = new ReportCache(external::get);
+        report(cache, "pivot", 7, 1);
+        external.incrementAndGet();
+        report(cache, "pivot", 7, 1);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void commitByAnotherConnectionMakesSqliteResultsStale() throws Exception {
+        System.setProperty("school.cache.externalCheckMillis", "0");
+        try (TestDatabase db = TestDatabase.create("report-cache")) {
+            ReportCache cache = db.cache();
+            SchoolSystem school = db.school();
+            school.addStudent(new Student("S1", "Ada", "5")).join();
+            report(cache, "pivot", 7, 1);
+            school.recordGrade("S1", 90, 80, 70, 60, 50).join();
+            report(cache, "pivot", 7, 1);
+            assertEquals("own commits are tracked by domain", 1, loads.get());
+
+            // What a SchoolCli import in another process does to the file
+            try (Connection conn = DriverManager.getConnection(db.database().getUrl());
+                Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO students(id, name, grade_level) VALUES('S2', 'Grace', '5')");
+                stmt.executeUpdate("UPDATE data_version SET version = random() WHERE id = 1");
+            }
+            report(cache, "pivot", 7, 1);
+            assertEquals(2, loads.get());
+            report(cache, "pivot", 7, 1);
+            assertEquals(2, loads.get());
+        }
+    }
+
+    @Test
+    public void commitsByAnotherConnectionAreLookedForAtMostOncePerInterval() throws Exception {
+        System.setProperty("school.cache.externalCheckMillis", "60000");
+        try (TestDatabase db = TestDatabase.create("report-cache")) {
+            report(db.cache(), "pivot", 7, 1);
+            try (Connection conn = DriverManager.getConnection(db.database().getUrl());
+                Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE data_version SET version = random() WHERE id = 1");
+            }
+            report(db.cache(), "pivot", 7, 1);
+            assertEquals("the first lookup read the file; the next read is a minute away", 1, loads.get());
+        }
+    }
+}
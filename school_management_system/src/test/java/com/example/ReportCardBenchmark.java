@@ -0,0 +1,87 @@
+package com.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates report cards for a generated school (10,000 students x 120 term days by default)
+ * and reports throughput and peak heap. Not part of the unit test run; start it with
+ * {@code java ... com.example.ReportCardBenchmark [students] [days] [workers]}.
+ */
+public class ReportCardBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        TestDatabase.useTemporaryDefaultDatabase("report-card-bench");
+        LocalDate termStart = LocalDate.of(2025, 6, 1);
+        generate(students, days, termStart);
+
+        Path output = Files.createTempDirectory("report-cards");
+        Runtime runtime = Runtime.getRuntime();
+        long[] peakHeap = {0};
+        ReportCardGenerator.Job job = new ReportCardGenerator(new SchoolSystem(), workers).start(
+                output, termStart, termStart.plusDays(days - 1), (done, total) -> {
+                    if (done % 500 == 0) {
+                        peakHeap[0] = Math.max(peakHeap[0], runtime.totalMemory() - runtime.freeMemory());
+                    }
+                });
+        ReportCardGenerator.Result result = job.result().join();
+        System.out.printf("%d workers: %d cards in %d ms = %.0f cards/sec, peak heap ~%d MB%n",
+                workers, result.written(), result.elapsedMillis(), result.cardsPerSecond(), peakHeap[0] >> 20);
+
+        try (Stream<Path> files = Files.walk(output)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        DatabaseManager.shutdown();
+    }
+
+    /**
+     * Bulk-loads students, grades and term attendance directly (bypassing the writer).
+     */
+    private static void generate(int students, int days, LocalDate firstDay) throws Exception {
+        Random random = new Random(42);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO students(id, name, grade_level) VALUES(?, ?, ?)");
+                PreparedStatement pg = conn.prepareStatement("INSERT INTO grades VALUES(?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < students; i++) {
+                    String id = String.format("S%05d", i);
+                    ps.setString(1, id);
+                    ps.setString(2, "Student " + i);
+                    ps.setString(3, String.valueOf(1 + i % 12));
+                    ps.addBatch();
+                    pg.setString(1, id);
+                    for (int subject = 2; subject <= 6; subject++) {
+                        pg.setInt(subject, random.nextInt(101));
+                    }
+                    pg.addBatch();
+                }
+                ps.executeBatch();
+                pg.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO attendance(student_id, date, status) VALUES(?, ?, ?)")) {
+                for (int d = 0; d < days; d++) {
+                    String date = firstDay.plusDays(d).toString();
+                    for (int i = 0; i < students; i++) {
+                        int roll = random.nextInt(100);
+                        ps.setString(1, String.format("S%05d", i));
+                        ps.setString(2, date);
+                        ps.setString(3, roll < 88 ? "PRESENT" : roll < 95 ? "LATE" : "ABSENT");
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Soak test: N virtual teachers use one SchoolSystem at the same time for a fixed duration,
+ * each on its own virtual thread, with a school-day mix of work:
+ *   40% morning roll call   recordAttendance for every student of the teacher's class
+ *   35% grade entry         recordGrade for a few students
+ *   20% reports             getPivotedAttendanceReport (one month) or getGradeSummaryForAll
+ *    5% enrolment changes   addStudent, then deleteStudent of an earlier addition
+ * with a random think time between actions.
+ *
+ * Every teacher owns its class, so the expected final state is known: after the run each
+ * teacher's last grades and attendance are compared with the database, and any difference is
+ * reported as a lost write. Reports per operation: throughput and latency percentiles (submit to
+ * commit for writes), failures, plus SQLITE_BUSY retries and errors. Exits with status 1 if any
+ * write failed or was lost, so it can gate a release.
+ *
+ * Not part of the unit test run; start it with
+ * {@code java ... com.example.SchoolDaySoak [teachers] [seconds] [students per class] [max think ms]}.
+ * Runs against a fresh temporary database unless -Dschool.db.url is given.
+ */
+public class SchoolDaySoak {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 6, 2);
+    private static final String[] STATUSES = {"PRESENT", "PRESENT", "PRESENT", "PRESENT", "PRESENT", "PRESENT", "LATE", "ABSENT"};
+
+    /**
+     * Latencies and failures of one kind of operation.
+     */
+    private static final class OperationStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final AtomicLong failures = new AtomicLong();
+
+        synchronized void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void fail() {
+            failures.incrementAndGet();
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final SchoolSystem school;
+    private final int studentsPerClass;
+    private final int maxThinkMillis;
+
+    private SchoolDaySoak(SchoolSystem school, int studentsPerClass, int maxThinkMillis) {
+        this.school = school;
+        this.studentsPerClass = studentsPerClass;
+        this.maxThinkMillis = maxThinkMillis;
+        for (String op : List.of("recordAttendance", "recordGrade", "getPivotedAttendanceReport",
+                "getGradeSummaryForAll", "addStudent", "deleteStudent")) {
+            stats.put(op, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int teachers = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int studentsPerClass = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int maxThinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        if (System.getProperty("school.db.url") == null) {
+            System.setProperty("school.db.url", TestDatabase.temporaryUrl("school-day-soak"));
+        }
+        DatabaseManager.initializeDatabase();
+        CountingErrStream errors = CountingErrStream.install();
+
+        // The application logs one line per write; keep the console for the results
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        SchoolDaySoak soak = new SchoolDaySoak(new SchoolSystem(), studentsPerClass, maxThinkMillis);
+        List<Teacher> staff = new ArrayList<>();
+        for (int t = 0; t < teachers; t++) {
+            staff.add(soak.new Teacher(t));
+        }
+        for (Teacher teacher : staff) {
+            teacher.enrolClass();
+        }
+
+        console.printf("Soak: %d virtual teachers x %d students for %d s (think time 0-%d ms) on %s%n",
+                teachers, studentsPerClass, seconds, maxThinkMillis, System.getProperty("school.db.url"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Teacher teacher : staff) {
+                executor.submit(() -> teacher.work(deadline));
+            }
+        } // Waits for every teacher to finish
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long lost = 0;
+        for (Teacher teacher : staff) {
+            lost += teacher.verify();
+        }
+        System.setOut(console);
+        boolean passed = soak.report(elapsedSeconds, lost, errors);
+        DatabaseManager.shutdown();
+        AuditLog.shutdown();
+        System.exit(passed ? 0 : 1);
+    }
+
+    // =======================================================
+    // --- ONE VIRTUAL TEACHER ---
+    // =======================================================
+
+    private final class Teacher {
+        private final String prefix;
+        private final Random random;
+        private final List<String> classIds = new ArrayList<>();
+        private final List<String> enrolled = new ArrayList<>(); // Students this teacher added during the run
+        private int nextEnrolment;
+        private int day; // School days of roll call taken so far
+
+        // What the database must contain at the end
+        private final Map<String, int[]> expectedGrades = new HashMap<>();
+        private final Map<String, String> expectedAttendance = new HashMap<>(); // "id date" -> status
+
+        Teacher(int number) {
+            this.prefix = String.format("T%03d", number);
+            this.random = new Random(number);
+        }
+
+        void enrolClass() {
+            for (int i = 0; i < studentsPerClass; i++) {
+                String id = prefix + String.format("-S%03d", i);
+                school.addStudent(new Student(id, "Student " + id, String.valueOf(1 + random.nextInt(12)))).join();
+                classIds.add(id);
+                expectedGrades.put(id, new int[5]);
+            }
+        }
+
+        void work(long deadline) {
+            while (System.nanoTime() < deadline) {
+                int roll = random.nextInt(100);
+                if (roll < 40) {
+                    rollCall();
+                } else if (roll < 75) {
+                    gradeEntry();
+                } else if (roll < 95) {
+                    report();
+                } else {
+                    enrolmentChange();
+                }
+                think();
+            }
+        }
+
+        private void rollCall() {
+            LocalDate date = FIRST_DAY.plusDays(day++);
+            List<CompletableFuture<?>> writes = new ArrayList<>();
+            for (String id : classIds) {
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                expectedAttendance.put(id + " " + date, status);
+                writes.add(timed("recordAttendance", () -> school.recordAttendance(id, date, status)));
+            }
+            awaitAll(writes);
+        }
+
+        private void gradeEntry() {
+            List<CompletableFuture<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                String id = classIds.get(random.nextInt(classIds.size()));
+                int[] scores = {random.nextInt(101), random.nextInt(101), random.nextInt(101), random.nextInt(101), random.nextInt(101)};
+                expectedGrades.put(id, scores);
+                // recordGrade takes (math, science, english, history, art); history is stored as social
+                writes.add(timed("recordGrade", () -> school.recordGrade(id, scores[0], scores[1], scores[3], scores[2], scores[4])));
+            }
+            awaitAll(writes);
+        }
+
+        private void report() {
+            if (random.nextBoolean()) {
+                LocalDate from = FIRST_DAY.plusDays(random.nextInt(Math.max(1, day)));
+                timedRead("getPivotedAttendanceReport", () -> school.getPivotedAttendanceReport(from, from.plusMonths(1)));
+            } else {
+                timedRead("getGradeSummaryForAll", school::getGradeSummaryForAll);
+            }
+        }
+
+        private void enrolmentChange() {
+            String id = prefix + "-N" + nextEnrolment++;
+            if (awaitAll(List.of(timed("addStudent", () -> school.addStudent(new Student(id, "New " + id, "1")))))) {
+                enrolled.add(id);
+            }
+            if (enrolled.size() > 1) {
+                String leaving = enrolled.remove(0);
+                awaitAll(List.of(timed("deleteStudent", () -> school.deleteStudent(leaving))));
+            }
+        }
+
+        private void think() {
+            if (maxThinkMillis > 0) {
+                try {
+                    Thread.sleep(random.nextInt(maxThinkMillis + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Compares this teacher's class with what it wrote.
+         * @return The number of writes whose effect is missing.
+         */
+        long verify() {
+            long missing = 0;
+            Map<String, Student> actual = new HashMap<>();
+            school.forEachStudent(StudentProjection.full(), s -> {
+                if (s.getStudentId().startsWith(prefix)) {
+                    actual.put(s.getStudentId(), s);
+                }
+            });
+            for (Map.Entry<String, int[]> expected : expectedGrades.entrySet()) {
+                Student s = actual.get(expected.getKey());
+                int[] e = expected.getValue();
+                if (s == null || s.getMathScore() != e[0] || s.getScienceScore() != e[1] || s.getSocialScore() != e[2]
+                        || s.getEnglishScore() != e[3] || s.getKannadaScore() != e[4]) {
+                    missing++;
+                }
+            }
+            for (Map.Entry<String, String> expected : expectedAttendance.entrySet()) {
+                String[] key = expected.getKey().split(" ");
+                Student s = actual.get(key[0]);
+                if (s == null || !expected.getValue().equals(s.getAttendanceRecords().get(LocalDate.parse(key[1])))) {
+                    missing++;
+                }
+            }
+            for (String id : enrolled) {
+                if (!actual.containsKey(id)) {
+                    missing++;
+                }
+            }
+            return missing;
+        }
+    }
+
+    // =======================================================
+    // --- MEASUREMENT ---
+    // =======================================================
+
+    /**
+     * Starts a write and records its latency from submit to commit (or a failure).
+     */
+    private CompletableFuture<?> timed(String op, Supplier<CompletableFuture<?>> write) {
+        OperationStats s = stats.get(op);
+        long start = System.nanoTime();
+        CompletableFuture<?> future;
+        try {
+            future = write.get();
+        } catch (RuntimeException e) {
+            s.fail();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, ex) -> {
+            if (ex != null || Boolean.FALSE.equals(result)) {
+                s.fail();
+            } else {
+                s.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void timedRead(String op, Supplier<?> read) {
+        OperationStats s = stats.get(op);
+        long start = System.nanoTime();
+        try {
+            read.get();
+            s.record(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            s.fail();
+        }
+    }
+
+    /**
+     * @return true if every write succeeded.
+     */
+    private static boolean awaitAll(List<CompletableFuture<?>> writes) {
+        boolean ok = true;
+        for (CompletableFuture<?> write : writes) {
+            try {
+                ok &= !Boolean.FALSE.equals(write.join());
+            } catch (RuntimeException e) {
+                ok = false; // Counted as a failure by timed()
+            }
+        }
+        return ok;
+    }
+
+    private boolean report(double elapsedSeconds, long lost, CountingErrStream errors) {
+        System.out.printf("%n%-28s %9s %9s %9s %9s %9s %9s %8s%n", "Operation", "count", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "failed");
+        long failedWrites = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            long failed = entry.getValue().failures.get();
+            if (!entry.getKey().startsWith("get")) {
+                failedWrites += failed;
+            }
+            System.out.printf("%-28s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %8d%n", entry.getKey(), sorted.length,
+                    sorted.length / elapsedSeconds, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, failed);
+        }
+
+        DatabaseWriter writer = DatabaseManager.peekWriter();
+        System.out.println();
+        if (writer != null) {
+            System.out.printf("Writer: %d writes in %d batches (%.1f writes/batch), %d failed, %d SQLITE_BUSY retries%n",
+                    writer.getCommittedWrites(), writer.getCommittedBatches(),
+                    writer.getCommittedBatches() == 0 ? 0.0 : (double) writer.getCommittedWrites() / writer.getCommittedBatches(),
+                    writer.getFailedWrites(), writer.getBusyRetries());
+        }
+        System.out.printf("Errors logged: %d (%d mention SQLITE_BUSY)%n", errors.errorLines.get(), errors.busyLines.get());
+        System.out.printf("Failed writes: %d, lost writes: %d%n", failedWrites, lost);
+        boolean passed = failedWrites == 0 && lost == 0;
+        System.out.println(passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * Passes System.err through while counting error lines, in particular SQLITE_BUSY ones
+     * (read paths log errors rather than throwing them).
+     */
+    private static final class CountingErrStream extends PrintStream {
+        final AtomicLong errorLines = new AtomicLong();
+        final AtomicLong busyLines = new AtomicLong();
+
+        private CountingErrStream(PrintStream target) {
+            super(target, true);
+        }
+
+        static CountingErrStream install() {
+            CountingErrStream stream = new CountingErrStream(System.err);
+            System.setErr(stream);
+            return stream;
+        }
+
+        @Override
+        public void println(String line) {
+            if (line != null && line.contains("ERROR")) {
+                errorLines.incrementAndGet();
+                if (line.contains("SQLITE_BUSY")) {
+                    busyLines.incrementAndGet();
+                }
+            }
+            super.println(line);
+        }
+    }
+}
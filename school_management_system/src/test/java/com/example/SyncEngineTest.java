@@ -0,0 +1,225 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Syncs two installations, each with its own database file, through a bundle file and through a
+ * socket, and checks that both end up with the same data and the same winner of every conflict.
+ */
+public class SyncEngineTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+    private final List<File> files = new ArrayList<>();
+    private Installation a;
+    private Installation b;
+
+    /**
+     * One laptop: its database, the SchoolSystem writing to it and its sync engine.
+     */
+    private static final class Installation {
+        final TestDatabase db;
+        final SchoolDatabase database;
+        final SchoolSystem school;
+        final SyncEngine sync;
+
+        Installation(String name) throws Exception {
+            db = TestDatabase.create("sync-" + name);
+            database = db.database();
+            school = db.school();
+            sync = new SyncEngine(database, school);
+        }
+
+        String id() throws SQLException {
+            return sync.getInstallationId();
+        }
+    }
+
+    @Before
+    public void createInstallations() throws Exception {
+        a = new Installation("a");
+        b = new Installation("b");
+    }
+
+    @After
+    public void cleanUp() {
+        a.sync.stopListening();
+        b.sync.stopListening();
+        a.db.close();
+        b.db.close();
+        files.forEach(File::delete);
+    }
+
+    // =======================================================
+    // --- TESTS ---
+    // =======================================================
+
+    @Test
+    public void fileSyncCopiesEveryChange() throws Exception {
+        addClass(a, "A", 20);
+        addClass(b, "B", 10);
+        b.school.deleteStudent("B0003").join();
+
+        fileSync(a, b);
+        fileSync(b, a);
+
+        assertEquals(dump(a), dump(b));
+        assertEquals(29, a.school.countStudents());
+        assertEquals(29, b.school.countStudents());
+    }
+
+    @Test
+    public void conflictsHaveTheSameWinnerOnBothSides() throws Exception {
+        addClass(a, "A", 3);
+        socketSync(a, b);
+
+        // The same day and the same grade row edited on both laptops while apart
+        a.school.recordAttendance("A0001", DAY, "ABSENT").join();
+        a.school.recordGrade("A0002", 10, 10, 10, 10, 10).join();
+        Thread.sleep(5);
+        b.school.recordAttendance("A0001", DAY, "LATE").join();
+        b.school.recordGrade("A0002", 90, 90, 90, 90, 90).join();
+
+        SyncEngine.SyncResult result = socketSync(a, b);
+
+        assertEquals(dump(a), dump(b));
+        assertEquals(2, result.superseded()); // A's two older edits lose on B
+        assertEquals("LATE", a.school.findStudentById("A0001").getAttendanceRecords().get(DAY));
+        assertEquals(90, a.school.findStudentById("A0002").getMathScore());
+    }
+
+    @Test
+    public void anEditAfterASyncWinsOverWhatTheSyncBroughtIn() throws Exception {
+        addClass(a, "A", 3);
+        fileSync(a, b);
+
+        // B's clock runs an hour ahead: its edit is stamped in A's future
+        b.school.recordAttendance("A0000", DAY, "ABSENT").join();
+        b.database.getWriter().submit(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE change_log SET changed_at = changed_at + 3600000 WHERE seq = (SELECT MAX(seq) FROM change_log)");
+            }
+            return null;
+        }).join();
+        socketSync(b, a);
+        assertEquals("ABSENT", a.school.findStudentById("A0000").getAttendanceRecords().get(DAY));
+
+        // A corrects it afterwards, with its own (slower) clock
+        a.school.recordAttendance("A0000", DAY, "PRESENT").join();
+        socketSync(b, a);
+
+        assertEquals(dump(a), dump(b));
+        assertEquals("PRESENT", b.school.findStudentById("A0000").getAttendanceRecords().get(DAY));
+    }
+
+    @Test
+    public void syncsSendOnlyTheChangesSinceTheLastOne() throws Exception {
+        addClass(a, "A", 50);
+        addClass(b, "B", 5);
+
+        SyncEngine.SyncResult first = socketSync(a, b);
+        assertNotEquals(0, first.sent());
+
+        SyncEngine.SyncResult unchanged = socketSync(a, b);
+        assertEquals(0, unchanged.sent());
+        assertEquals(0, unchanged.received());
+
+        a.school.recordAttendance("B0001", DAY.plusDays(1), "LATE").join();
+        b.school.recordGrade("A0007", 1, 2, 3, 4, 5).join();
+        SyncEngine.SyncResult incremental = socketSync(a, b);
+        assertEquals(1, incremental.sent());
+        assertEquals(1, incremental.received());
+        assertEquals(1, incremental.applied());
+        assertEquals(dump(a), dump(b));
+    }
+
+    @Test
+    public void importingABundleTwiceChangesNothing() throws Exception {
+        addClass(a, "A", 5);
+        Path bundle = fileSync(a, b);
+        List<List<String>> before = dump(b);
+
+        SyncEngine.SyncResult again = b.sync.importFrom(bundle);
+
+        assertEquals(0, again.applied());
+        assertEquals(again.received(), again.skipped());
+        assertEquals(before, dump(b));
+    }
+
+    // =======================================================
+    // --- HELPERS ---
+    // =======================================================
+
+    // Students with grades and a week of attendance
+    private static void addClass(Installation installation, String prefix, int students) {
+        SchoolSystem school = installation.school;
+        for (int i = 0; i < students; i++) {
+            String id = String.format("%s%04d", prefix, i);
+            school.addStudent(new Student(id, "Student " + id, String.valueOf(1 + i % 12))).join();
+            school.recordGrade(id, i, i + 1, i + 2, i + 3, i + 4).join();
+            for (int d = 0; d < 7; d++) {
+                school.recordAttendance(id, DAY.plusDays(d), (i + d) % 5 == 0 ? "ABSENT" : "PRESENT").join();
+            }
+        }
+    }
+
+    private Path fileSync(Installation from, Installation to) throws Exception {
+        Path bundle = Files.createTempFile("sync-test", ".bundle");
+        files.add(bundle.toFile());
+        from.sync.exportTo(bundle, null);
+        to.sync.importFrom(bundle);
+        return bundle;
+    }
+
+    private SyncEngine.SyncResult socketSync(Installation server, Installation client) throws Exception {
+        if (server.sync.getListeningPort() < 0) {
+            server.sync.listen(0);
+        }
+        SyncEngine.SyncResult result = client.sync.syncWith("127.0.0.1", server.sync.getListeningPort());
+        assertEquals(server.id(), result.peer());
+        return result;
+    }
+
+    // Every row of the data tables, in key order
+    private static List<List<String>> dump(Installation installation) throws SQLException {
+        String[] queries = {
+            "SELECT id, name, grade_level FROM students ORDER BY id",
+            "SELECT * FROM grades ORDER BY student_id",
+            "SELECT student_id, date, status FROM attendance ORDER BY student_id, date",
+            "SELECT * FROM attendance_monthly ORDER BY student_id, month"
+        };
+        List<List<String>> rows = new ArrayList<>();
+        try (Connection conn = installation.database.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String query : queries) {
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        List<String> row = new ArrayList<>();
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            row.add(rs.getString(i));
+                        }
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A school database on a temporary file, with a SchoolSystem on the SQLite backend writing to it,
+ * set up the same way for every test: audit log off, snapshots off (reads go to SQL) and a report
+ * cache that sees commits by other processes, as in SchoolBackend. close() shuts the database down
+ * and deletes the file with its WAL and shared-memory files.
+ */
+record TestDatabase(File file, SchoolDatabase database, ReportCache cache, SchoolSystem school) implements AutoCloseable {
+
+    /**
+     * Creates the tables of a new school. Properties read when the file is created (such as
+     * school.attendance.layout.&lt;schoolId&gt;) must be set before.
+     */
+    static TestDatabase create(String schoolId) throws IOException {
+        System.setProperty("school.audit.enabled", "false");
+        File file = File.createTempFile(schoolId + "-", ".db");
+        SchoolDatabase database = new SchoolDatabase(schoolId, "jdbc:sqlite:" + file.getAbsolutePath(), false);
+        database.setSnapshotsEnabled(false);
+        database.initialize();
+        ReportCache cache = new ReportCache(database::externalCommits);
+        SqliteSchoolRepository repository = new SqliteSchoolRepository(database);
+        SchoolSystem school = new SchoolSystem(new SchoolBackend(schoolId, SchoolBackend.SQLITE, repository, repository, repository, cache));
+        return new TestDatabase(file, database, cache, school);
+    }
+
+    /**
+     * The URL of a new temporary file database, deleted with its side files when the JVM exits
+     * (for benchmarks, which go through DatabaseManager's school.db.url).
+     */
+    static String temporaryUrl(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".db");
+        file.deleteOnExit();
+        new File(file.getPath() + "-wal").deleteOnExit();
+        new File(file.getPath() + "-shm").deleteOnExit();
+        new File(file.getPath() + ".snapshot").deleteOnExit(); // Written at shutdown when snapshots are on
+        return "jdbc:sqlite:" + file.getAbsolutePath();
+    }
+
+    /**
+     * Points DatabaseManager's default school at a new temporary file and creates its tables.
+     */
+    static void useTemporaryDefaultDatabase(String prefix) throws IOException {
+        System.setProperty("school.db.url", temporaryUrl(prefix));
+        DatabaseManager.initializeDatabase();
+    }
+
+    @Override
+    public void close() {
+        database.shutdown();
+        file.delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+    }
+}